@@ -0,0 +1,281 @@
+package com.example.dogvillev2;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Arrays;
+
+/**
+ * FrameCommands is a recorded frame: a canvas that does not draw, but writes the drawing commands of the game
+ * (bitmaps, rectangles, texts, rotations) into primitive arrays, the render thread plays them back onto the screen.
+ * Arrays are allocated once and reused by each frame, they grow only while frames get more commands than before,
+ * so recording and playing back a frame does not allocate objects in the steady state.
+ * Rectangles, colors of the paints and characters of the texts are copied (the game reuses them for the next objects),
+ * bitmaps, paints and strings are kept by reference.
+ * Only the drawing methods used by the game are recorded, other methods of the canvas draw nothing.
+ */
+public class FrameCommands extends Canvas {
+
+    private static final int COMMAND_BITMAP = 0; // values: source left, top, right, bottom, destination left, top, right, bottom
+    private static final int COMMAND_BITMAP_AT = 1; // values: left, top
+    private static final int COMMAND_RECT = 2; // values: left, top, right, bottom
+    private static final int COMMAND_ROUND_RECT = 3; // values: left, top, right, bottom, radius x, radius y
+    private static final int COMMAND_TEXT = 4; // values: x, y
+    private static final int COMMAND_TEXT_CHARS = 5; // values: x, y (characters are in the text buffer)
+    private static final int COMMAND_SAVE = 6;
+    private static final int COMMAND_RESTORE = 7;
+    private static final int COMMAND_TRANSLATE = 8; // values: x, y
+    private static final int COMMAND_ROTATE = 9; // values: degrees
+    private static final int VALUES_PER_COMMAND = 8;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INITIAL_TEXT_CAPACITY = 1024;
+
+    private final int frameWidth;
+    private final int frameHeight;
+
+    private int count = 0;
+    private int saveCount = 1;
+    private int[] types = new int[INITIAL_CAPACITY];
+    private float[] values = new float[INITIAL_CAPACITY * VALUES_PER_COMMAND];
+    private Bitmap[] bitmaps = new Bitmap[INITIAL_CAPACITY];
+    private Paint[] paints = new Paint[INITIAL_CAPACITY];
+    private int[] colors = new int[INITIAL_CAPACITY]; // Color of the paint when the command was recorded
+    private String[] texts = new String[INITIAL_CAPACITY];
+    // Characters of the char array texts, start and length of the text of each command
+    private char[] textChars = new char[INITIAL_TEXT_CAPACITY];
+    private int textCharCount = 0;
+    private int[] textStarts = new int[INITIAL_CAPACITY];
+    private int[] textLengths = new int[INITIAL_CAPACITY];
+
+    // Used only by the render thread while playing back
+    private final Rect playbackSourceRect = new Rect();
+    private final Rect playbackDestinationRect = new Rect();
+    private final RectF playbackRoundRect = new RectF();
+    private final Paint playbackPaint = new Paint();
+
+    public FrameCommands(int frameWidth, int frameHeight) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+    }
+
+    /**
+     * Remove commands of the previous frame before recording the next one
+     */
+    public void reset() {
+        // References are cleared, so the frame does not keep removed bitmaps
+        Arrays.fill(bitmaps, 0, count, null);
+        Arrays.fill(paints, 0, count, null);
+        Arrays.fill(texts, 0, count, null);
+        count = 0;
+        textCharCount = 0;
+        saveCount = 1;
+    }
+
+    public int getCommandCount() {
+        return count;
+    }
+
+    @Override
+    public int getWidth() {
+        return frameWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return frameHeight;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, Rect src, Rect dst, Paint paint) {
+        int v = addCommand(COMMAND_BITMAP, paint);
+        bitmaps[count - 1] = bitmap;
+        if (src != null) {
+            values[v] = src.left;
+            values[v + 1] = src.top;
+            values[v + 2] = src.right;
+            values[v + 3] = src.bottom;
+        } else {
+            values[v] = 0;
+            values[v + 1] = 0;
+            values[v + 2] = bitmap.getWidth();
+            values[v + 3] = bitmap.getHeight();
+        }
+        values[v + 4] = dst.left;
+        values[v + 5] = dst.top;
+        values[v + 6] = dst.right;
+        values[v + 7] = dst.bottom;
+    }
+
+    @Override
+    public void drawBitmap(Bitmap bitmap, float left, float top, Paint paint) {
+        int v = addCommand(COMMAND_BITMAP_AT, paint);
+        bitmaps[count - 1] = bitmap;
+        values[v] = left;
+        values[v + 1] = top;
+    }
+
+    @Override
+    public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        int v = addCommand(COMMAND_RECT, paint);
+        values[v] = left;
+        values[v + 1] = top;
+        values[v + 2] = right;
+        values[v + 3] = bottom;
+    }
+
+    @Override
+    public void drawRect(Rect rect, Paint paint) {
+        drawRect(rect.left, rect.top, rect.right, rect.bottom, paint);
+    }
+
+    @Override
+    public void drawRoundRect(RectF rect, float rx, float ry, Paint paint) {
+        int v = addCommand(COMMAND_ROUND_RECT, paint);
+        values[v] = rect.left;
+        values[v + 1] = rect.top;
+        values[v + 2] = rect.right;
+        values[v + 3] = rect.bottom;
+        values[v + 4] = rx;
+        values[v + 5] = ry;
+    }
+
+    @Override
+    public void drawText(String text, float x, float y, Paint paint) {
+        int v = addCommand(COMMAND_TEXT, paint);
+        texts[count - 1] = text;
+        values[v] = x;
+        values[v + 1] = y;
+    }
+
+    @Override
+    public void drawText(char[] text, int index, int length, float x, float y, Paint paint) {
+        int v = addCommand(COMMAND_TEXT_CHARS, paint);
+        if (textCharCount + length > textChars.length) {
+            textChars = Arrays.copyOf(textChars, Math.max(textChars.length * 2, textCharCount + length));
+        }
+        System.arraycopy(text, index, textChars, textCharCount, length);
+        textStarts[count - 1] = textCharCount;
+        textLengths[count - 1] = length;
+        textCharCount += length;
+        values[v] = x;
+        values[v + 1] = y;
+    }
+
+    @Override
+    public int save() {
+        addCommand(COMMAND_SAVE, null);
+        return saveCount++;
+    }
+
+    @Override
+    public void restore() {
+        addCommand(COMMAND_RESTORE, null);
+        saveCount--;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        int v = addCommand(COMMAND_TRANSLATE, null);
+        values[v] = dx;
+        values[v + 1] = dy;
+    }
+
+    /**
+     * Record rotation (rotate() around a point is translate(), rotate(), translate() of the canvas)
+     */
+    @Override
+    public void rotate(float degrees) {
+        int v = addCommand(COMMAND_ROTATE, null);
+        values[v] = degrees;
+    }
+
+    /**
+     * Draw the recorded commands onto the canvas, called by the render thread
+     */
+    public void playBack(Canvas canvas) {
+        for (int i = 0; i < count; i++) {
+            int v = i * VALUES_PER_COMMAND;
+            switch (types[i]) {
+                case COMMAND_BITMAP:
+                    playbackSourceRect.set((int) values[v], (int) values[v + 1], (int) values[v + 2], (int) values[v + 3]);
+                    playbackDestinationRect.set((int) values[v + 4], (int) values[v + 5], (int) values[v + 6], (int) values[v + 7]);
+                    canvas.drawBitmap(bitmaps[i], playbackSourceRect, playbackDestinationRect, getPlaybackPaint(i));
+                    break;
+                case COMMAND_BITMAP_AT:
+                    canvas.drawBitmap(bitmaps[i], values[v], values[v + 1], getPlaybackPaint(i));
+                    break;
+                case COMMAND_RECT:
+                    canvas.drawRect(values[v], values[v + 1], values[v + 2], values[v + 3], getPlaybackPaint(i));
+                    break;
+                case COMMAND_ROUND_RECT:
+                    playbackRoundRect.set(values[v], values[v + 1], values[v + 2], values[v + 3]);
+                    canvas.drawRoundRect(playbackRoundRect, values[v + 4], values[v + 5], getPlaybackPaint(i));
+                    break;
+                case COMMAND_TEXT:
+                    canvas.drawText(texts[i], values[v], values[v + 1], getPlaybackPaint(i));
+                    break;
+                case COMMAND_TEXT_CHARS:
+                    canvas.drawText(textChars, textStarts[i], textLengths[i], values[v], values[v + 1], getPlaybackPaint(i));
+                    break;
+                case COMMAND_SAVE:
+                    canvas.save();
+                    break;
+                case COMMAND_RESTORE:
+                    canvas.restore();
+                    break;
+                case COMMAND_TRANSLATE:
+                    canvas.translate(values[v], values[v + 1]);
+                    break;
+                case COMMAND_ROTATE:
+                    canvas.rotate(values[v]);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Paint of the command with the color it had when the command was recorded
+     * (the game changes colors of its paints between commands)
+     */
+    private Paint getPlaybackPaint(int i) {
+        if (paints[i] == null) {
+            return null;
+        }
+        playbackPaint.set(paints[i]);
+        playbackPaint.setColor(colors[i]);
+        return playbackPaint;
+    }
+
+    /**
+     * Add command to the frame
+     *
+     * @return index of the first value of the command
+     */
+    private int addCommand(int type, Paint paint) {
+        if (count == types.length) {
+            grow();
+        }
+        types[count] = type;
+        paints[count] = paint;
+        colors[count] = paint != null ? paint.getColor() : 0;
+        return count++ * VALUES_PER_COMMAND;
+    }
+
+    /**
+     * Double capacity of the arrays (only while the frames get more commands than before)
+     */
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        values = Arrays.copyOf(values, capacity * VALUES_PER_COMMAND);
+        bitmaps = Arrays.copyOf(bitmaps, capacity);
+        paints = Arrays.copyOf(paints, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+        textStarts = Arrays.copyOf(textStarts, capacity);
+        textLengths = Arrays.copyOf(textLengths, capacity);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.dogvillev2;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Build;
+import android.util.Log;
+import android.view.SurfaceHolder;
+
+import com.example.dogvillev2.layout.GameDisplay;
+
+/**
+ * FramePresenter puts recorded frames (game window 480x320) on the device screen, called by the render loop.
+ * Frames can be presented in several ways (presentation paths), their speed depends on the device:
+ * - PATH_BUFFER_BLIT: frame is drawn on the buffer bitmap of the game window size, the bitmap is stretched to the screen;
+ * - PATH_DIRECT_SCALED: frame is drawn directly on the screen canvas under a scale matrix (no buffer copy);
+ * - PATH_INTEGER_SCALED: buffer bitmap is enlarged by a whole number without filtering (sharp pixels),
+ * the rest of the screen is filled with black bars (letterboxing);
+ * - PATH_HARDWARE_CANVAS: same as direct, but drawn by GPU on the canvas from lockHardwareCanvas() (API 26+).
+ * Built-in benchmark presents frames with each path in turn, reports milliseconds per frame and keeps the fastest path.
+ * Once a surface is drawn with lockHardwareCanvas() it can not be locked with lockCanvas() again, so the hardware canvas
+ * is measured in a separate run: the benchmark measures only it when it is the PRESENTATION_PATH, otherwise the other paths.
+ * Only drawing and posting of the frame is measured (locking the canvas waits for a free buffer of the surface).
+ */
+public class FramePresenter {
+
+    public static final int PATH_BUFFER_BLIT = 0;
+    public static final int PATH_DIRECT_SCALED = 1;
+    public static final int PATH_INTEGER_SCALED = 2;
+    public static final int PATH_HARDWARE_CANVAS = 3;
+    private static final int PATH_COUNT = 4;
+    private static final String[] PATH_NAMES = {"buffer blit", "direct scaled", "integer scaled", "hardware canvas"};
+
+    // Presentation path used by the game
+    public static final int PRESENTATION_PATH = PATH_BUFFER_BLIT;
+    // Debug mode: measure the paths when the game starts, then use the fastest one (should be false in release builds)
+    public static final boolean BENCHMARK_ON_START = false;
+    // Frames presented with each path during the benchmark, the first frames of each path are not measured
+    private static final int BENCHMARK_FRAMES = 180;
+    private static final int BENCHMARK_WARM_UP_FRAMES = 30;
+    private static final String TAG = "FramePresenter";
+
+    private final SurfaceHolder surfaceHolder;
+
+    // Buffer canvas - game window size bitmap that is rescaled to the screen
+    private final Bitmap buffCanvasBitmap;
+    private final Canvas buffCanvas;
+    private final Rect buffCanvasBitmapRect;
+    private final Rect realCanvasRect;
+
+    // Direct drawing: scaling from the game window to the screen
+    private final Matrix scaleMatrix = new Matrix();
+
+    // Integer scaling: place of the enlarged game window on the screen and black bars around it
+    private final Rect letterboxRect;
+    private final Rect[] letterboxBars = new Rect[4];
+    private final Paint letterboxPaint = new Paint();
+    private final Paint pixelPaint = new Paint();
+
+    private int path;
+
+    // Benchmark state
+    private boolean isBenchmarking;
+    private int benchmarkFrame = 0;
+    private final long[] benchmarkTimes = new long[PATH_COUNT]; // ns
+    private final double[] benchmarkResults = new double[PATH_COUNT]; // ms per frame
+
+    public FramePresenter(SurfaceHolder surfaceHolder) {
+        this.surfaceHolder = surfaceHolder;
+
+        // Create buffer canvas - fixes flickering of bitmaps and more efficient that direct drawing on canvas
+        buffCanvasBitmap = Bitmap.createBitmap(GameDisplay.GAME_WIDTH_BUFF_CANVAS, GameDisplay.GAME_HEIGHT_BUFF_CANVAS, Bitmap.Config.ARGB_8888);
+        buffCanvas = new Canvas();
+        buffCanvas.setBitmap(buffCanvasBitmap);
+        buffCanvasBitmapRect = new Rect(0, 0, GameDisplay.GAME_WIDTH_BUFF_CANVAS, GameDisplay.GAME_HEIGHT_BUFF_CANVAS);
+        realCanvasRect = new Rect(0, 0, GameDisplay.deviceWidthCapped, GameDisplay.deviceHeightCapped);
+
+        scaleMatrix.setScale(
+                (float) GameDisplay.deviceWidthCapped / GameDisplay.GAME_WIDTH_BUFF_CANVAS,
+                (float) GameDisplay.deviceHeightCapped / GameDisplay.GAME_HEIGHT_BUFF_CANVAS);
+
+        // Largest whole scale that fits the screen, the game window is centered
+        int scale = Math.max(1, Math.min(
+                GameDisplay.deviceWidthCapped / GameDisplay.GAME_WIDTH_BUFF_CANVAS,
+                GameDisplay.deviceHeightCapped / GameDisplay.GAME_HEIGHT_BUFF_CANVAS));
+        int left = (GameDisplay.deviceWidthCapped - GameDisplay.GAME_WIDTH_BUFF_CANVAS * scale) / 2;
+        int top = (GameDisplay.deviceHeightCapped - GameDisplay.GAME_HEIGHT_BUFF_CANVAS * scale) / 2;
+        letterboxRect = new Rect(left, top, left + GameDisplay.GAME_WIDTH_BUFF_CANVAS * scale, top + GameDisplay.GAME_HEIGHT_BUFF_CANVAS * scale);
+        letterboxBars[0] = new Rect(0, 0, realCanvasRect.right, letterboxRect.top);
+        letterboxBars[1] = new Rect(0, letterboxRect.bottom, realCanvasRect.right, realCanvasRect.bottom);
+        letterboxBars[2] = new Rect(0, letterboxRect.top, letterboxRect.left, letterboxRect.bottom);
+        letterboxBars[3] = new Rect(letterboxRect.right, letterboxRect.top, realCanvasRect.right, letterboxRect.bottom);
+        letterboxPaint.setColor(Color.BLACK);
+        pixelPaint.setFilterBitmap(false);
+
+        // Hardware canvas run on a device without it has nothing to measure
+        int firstBenchmarkPath = getNextBenchmarkPath(-1);
+        isBenchmarking = BENCHMARK_ON_START && firstBenchmarkPath < PATH_COUNT;
+        setPath(isBenchmarking ? firstBenchmarkPath : PRESENTATION_PATH);
+    }
+
+    /**
+     * Check if the path can be used on this device
+     */
+    public static boolean isPathAvailable(int path) {
+        return path != PATH_HARDWARE_CANVAS || Build.VERSION.SDK_INT >= Build.VERSION_CODES.O;
+    }
+
+    /**
+     * Get the next path measured by the benchmark after the path (PATH_COUNT if there are no more paths):
+     * the hardware canvas is measured alone, the surface does not go back to lockCanvas() after it
+     */
+    private static int getNextBenchmarkPath(int path) {
+        int nextPath = path + 1;
+        while (nextPath < PATH_COUNT && (!isPathAvailable(nextPath)
+                || (nextPath == PATH_HARDWARE_CANVAS) != (PRESENTATION_PATH == PATH_HARDWARE_CANVAS))) {
+            nextPath++;
+        }
+        return nextPath;
+    }
+
+    public int getPath() {
+        return path;
+    }
+
+    /**
+     * Get benchmark result of the path in milliseconds per frame (0 if the path was not measured)
+     */
+    public double getBenchmarkResult(int path) {
+        return benchmarkResults[path];
+    }
+
+    /**
+     * Change presentation path, unavailable hardware canvas is replaced with direct drawing.
+     * Touch events are converted with the place of the game window on the screen (letterboxing moves it).
+     */
+    private void setPath(int path) {
+        this.path = isPathAvailable(path) ? path : PATH_DIRECT_SCALED;
+        GameDisplay.presentationRect = this.path == PATH_INTEGER_SCALED ? letterboxRect : realCanvasRect;
+    }
+
+    /**
+     * Put the recorded frame on the screen with the current presentation path.
+     */
+    public void present(FrameCommands frame) {
+        long startTime = 0;
+
+        Canvas canvas = null;
+        try {
+            if (path == PATH_HARDWARE_CANVAS) {
+                canvas = surfaceHolder.lockHardwareCanvas();
+            } else {
+                canvas = surfaceHolder.lockCanvas();
+            }
+            if (canvas != null) {
+                // Waiting for the buffer in lockCanvas() is not measured (with vsync pacing it takes about a refresh)
+                startTime = isBenchmarking ? System.nanoTime() : 0;
+                drawFrame(canvas, frame);
+            }
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+        } finally {
+            if (canvas != null) {
+                // Release the canvas
+                try {
+                    surfaceHolder.unlockCanvasAndPost(canvas); // return canvas back
+                } catch (IllegalArgumentException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        if (isBenchmarking && canvas != null) {
+            updateBenchmark(System.nanoTime() - startTime);
+        }
+    }
+
+    private void drawFrame(Canvas canvas, FrameCommands frame) {
+        switch (path) {
+            case PATH_BUFFER_BLIT:
+                frame.playBack(buffCanvas);
+                canvas.drawBitmap(buffCanvasBitmap, buffCanvasBitmapRect, realCanvasRect, null);
+                break;
+            case PATH_DIRECT_SCALED:
+            case PATH_HARDWARE_CANVAS:
+                canvas.save();
+                canvas.concat(scaleMatrix);
+                frame.playBack(canvas);
+                canvas.restore();
+                break;
+            case PATH_INTEGER_SCALED:
+                frame.playBack(buffCanvas);
+                for (Rect bar : letterboxBars) {
+                    canvas.drawRect(bar, letterboxPaint);
+                }
+                canvas.drawBitmap(buffCanvasBitmap, buffCanvasBitmapRect, letterboxRect, pixelPaint);
+                break;
+        }
+    }
+
+    /**
+     * Add time of the presented frame to the benchmark, switch to the next path when enough frames are measured.
+     */
+    private void updateBenchmark(long frameTime) {
+        benchmarkFrame++;
+        if (benchmarkFrame > BENCHMARK_WARM_UP_FRAMES) {
+            benchmarkTimes[path] += frameTime;
+        }
+        if (benchmarkFrame < BENCHMARK_FRAMES) {
+            return;
+        }
+
+        benchmarkResults[path] = benchmarkTimes[path] * 1E-6 / (BENCHMARK_FRAMES - BENCHMARK_WARM_UP_FRAMES);
+        Log.i(TAG, "Presentation path " + PATH_NAMES[path] + ": " + benchmarkResults[path] + " ms/frame");
+        benchmarkFrame = 0;
+
+        // Next path of the benchmark run
+        int nextPath = getNextBenchmarkPath(path);
+        if (nextPath < PATH_COUNT) {
+            setPath(nextPath);
+            return;
+        }
+
+        // All paths of the run are measured, keep the fastest one
+        isBenchmarking = false;
+        int fastestPath = PRESENTATION_PATH;
+        for (int i = 0; i < PATH_COUNT; i++) {
+            if (benchmarkResults[i] > 0 && (benchmarkResults[fastestPath] == 0 || benchmarkResults[i] < benchmarkResults[fastestPath])) {
+                fastestPath = i;
+            }
+        }
+        Log.i(TAG, "Using presentation path " + PATH_NAMES[fastestPath]);
+        setPath(fastestPath);
+    }
+}
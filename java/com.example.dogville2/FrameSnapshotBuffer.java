@@ -0,0 +1,65 @@
+package com.example.dogvillev2;
+
+import android.graphics.Canvas;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * FrameSnapshotBuffer passes drawn frames from the game loop (simulation thread) to the render loop (render thread).
+ * A frame is recorded into FrameCommands (arrays of drawing commands with bitmaps and rectangles) instead of being drawn
+ * on pixels, the render thread plays the latest recorded frame back onto the screen.
+ * Three command buffers are allocated once and rotated (triple buffering): one is recorded, one is drawn and one holds the
+ * latest published frame, so the threads only swap indexes of the buffers and never wait for each other.
+ */
+public class FrameSnapshotBuffer {
+
+    private static final int FRAME_COUNT = 3;
+    // Index of the published frame is stored with a flag that tells if it was not taken by the render thread yet
+    private static final int INDEX_MASK = 3;
+    private static final int NEW_FRAME_FLAG = 4;
+
+    private final FrameCommands[] frames = new FrameCommands[FRAME_COUNT];
+    // Frame that is recorded, used only by the simulation thread
+    private int recordingFrame = 0;
+    // Frame that is drawn, used only by the render thread
+    private int drawingFrame = 1;
+    // Latest published frame, swapped by both threads
+    private final AtomicInteger publishedFrame = new AtomicInteger(2);
+
+    public FrameSnapshotBuffer(int frameWidth, int frameHeight) {
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            frames[i] = new FrameCommands(frameWidth, frameHeight);
+        }
+    }
+
+    /**
+     * Start recording a new frame, called by the simulation thread before drawing the game (does not allocate).
+     *
+     * @return canvas that records drawing commands of the frame
+     */
+    public Canvas beginFrame() {
+        frames[recordingFrame].reset();
+        return frames[recordingFrame];
+    }
+
+    /**
+     * Publish the recorded frame for the render thread.
+     * The buffer of the previously published frame (if the render thread did not take it) is recorded next.
+     */
+    public void publishFrame() {
+        recordingFrame = publishedFrame.getAndSet(recordingFrame | NEW_FRAME_FLAG) & INDEX_MASK;
+    }
+
+    /**
+     * Take the latest published frame, called by the render thread.
+     *
+     * @return recorded frame, or null if no frame was published since the previous call
+     */
+    public FrameCommands takeNewFrame() {
+        if ((publishedFrame.get() & NEW_FRAME_FLAG) == 0) {
+            return null;
+        }
+        drawingFrame = publishedFrame.getAndSet(drawingFrame) & INDEX_MASK;
+        return frames[drawingFrame];
+    }
+}
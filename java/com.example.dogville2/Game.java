@@ -16,52 +16,71 @@ import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import com.example.dogvillev2.controls.Button;
 import com.example.dogvillev2.controls.GameExitRepeatMenu;
 import com.example.dogvillev2.controls.Joystick;
+import com.example.dogvillev2.gameObjects.animated.SpellRenderer;
 import com.example.dogvillev2.gameObjects.animated.SpellSpriteSheet;
-import com.example.dogvillev2.gameObjects.animated.WaterSpell;
-import com.example.dogvillev2.gameObjects.characters.AnimalCharacter;
+import com.example.dogvillev2.gameObjects.characters.CharacterRenderer;
 import com.example.dogvillev2.gameObjects.characters.CharacterSpriteSheet;
-import com.example.dogvillev2.gameObjects.characters.FilthySlime;
-import com.example.dogvillev2.gameObjects.characters.FriendlyCat;
-import com.example.dogvillev2.gameObjects.characters.Sprite;
+import com.example.dogvillev2.gameObjects.characters.SlimeRenderer;
 import com.example.dogvillev2.infopanels.GameIntro;
 import com.example.dogvillev2.infopanels.GameOver;
 import com.example.dogvillev2.infopanels.GameWin;
 import com.example.dogvillev2.infopanels.HealthBar;
 import com.example.dogvillev2.infopanels.Performance;
 import com.example.dogvillev2.layout.GameDisplay;
-import com.example.dogvillev2.layout.GameLevelLayout;
 import com.example.dogvillev2.layout.GameView;
+import com.example.dogvillev2.layout.LevelAssets;
+import com.example.dogvillev2.layout.LevelFile;
+import com.example.dogvillev2.layout.LevelFileWriter;
+import com.example.dogvillev2.layout.LevelRenderer;
+import com.example.dogvillev2.layout.LevelSource;
+import com.example.dogvillev2.layout.ProceduralLevel;
+import com.example.dogvillev2.simulation.GameWorld;
 import com.example.dogvillev2.sounds.GameSounds;
 import com.example.dogvillev2.utilities.BitmapLoader;
+import com.example.dogvillev2.utilities.BitmapPrefetcher;
+import com.example.dogvillev2.utilities.FrameTimings;
+import com.example.dogvillev2.utilities.TextureAtlas;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import java.io.FileNotFoundException;
+import java.io.IOException;
 
 
 /**
  * Game SurfaceView manages all objects in the game
  * and is responsible for updating all states (update() + eventHandler)
- * and render all objects to the screen (draw())
+ * and render all objects to the screen (draw()).
+ * State of the level and the characters is simulated by the GameWorld (without Android),
+ * the Game adds images, sounds, controls and info panels.
  */
 public class Game extends SurfaceView implements SurfaceHolder.Callback {
 
+    // Level file in the app assets, the default level is used if there is no file
+    private static final String LEVEL_FILE = "levels/level1.dvl";
+    // Play generated level instead of the level file (endless mode, long levels for performance checks)
+    public static final boolean PROCEDURAL_LEVEL = false;
+    private static final long PROCEDURAL_LEVEL_SEED = 1;
+    private static final int PROCEDURAL_LEVEL_LENGTH = ProceduralLevel.ENDLESS;
+    private static final double PROCEDURAL_LEVEL_DENSITY = 1;
+
     // Game window scale to the device display
     private final GameDisplay gameDisplay;
     // Game window view position on the game level
     private final GameView gameView;
     // Helper class to load image resources
     private final BitmapLoader bitmapLoader;
-    // Sprite sheets for animated objects
-    private final SpellSpriteSheet waterSpellSpriteSheet;
-    private final CharacterSpriteSheet slimeSpriteSheet;
-    private final CharacterSpriteSheet dogSpriteSheet;
+    // Decodes images that are not packed into the texture atlas on a background thread
+    private final BitmapPrefetcher bitmapPrefetcher;
+    // All image resources packed into a few large bitmaps
+    private final TextureAtlas textureAtlas;
     //-----------------------Game objects and characters------------------------------//
-    private final GameLevelLayout gameLevelLayout;
-    private final AnimalCharacter player;
-    private final FriendlyCat cat;
-    private final ArrayList<FilthySlime> enemies = new ArrayList<>();
-    private final List<WaterSpell> spellList = new ArrayList<>();
+    // Level layout, characters, slimes and spells
+    private final GameWorld world;
+    // Renderers draw the state of the world with the images of the objects
+    private final LevelRenderer levelRenderer;
+    private final CharacterRenderer dogRenderer;
+    private final CharacterRenderer catRenderer;
+    private final SlimeRenderer slimeRenderer;
+    private final SpellRenderer spellRenderer;
     //-------------------Game info panels---------------------------//
     private final Performance performance;
     private final HealthBar healthBar;
@@ -69,6 +88,7 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
     private final GameSounds gameSounds;
     // Game thread
     private GameLoop gameLoop;
+    private final FrameTimings frameTimings;
     //private boolean playerPlayedDeathSound = false;
     //private boolean enemyPlayedDeath = false;
     //-------------------Game controls---------------------------//
@@ -81,13 +101,9 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
     private boolean playIntro = true;
     private int updatesAfterIntro = 150;
 
+    // Game over and game win panels are created when the world is finished
     private GameOver gameOver;
-    private boolean isGameOver = false;
-    private int updatesAfterGameOver = 100;
-
     private GameWin gameWin;
-    private boolean isGameWin = false;
-    private int updatesAfterGameWin = 100;
 
     /**
      * Load resources, initialize game objects and user interface objects
@@ -103,86 +119,120 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
 
         // --------------- Initialize game loop and helper classes --------------//
         gameDisplay = new GameDisplay(deviceWidthPixels, deviceHeightPixels);
+        frameTimings = new FrameTimings();
         gameLoop = new GameLoop(this, surfaceHolder);
         bitmapLoader = new BitmapLoader(context);
         gameSounds = new GameSounds(context);
 
+        // Pack all image resources into the texture atlas (sprite sheets of characters also need mirrored copies)
+        textureAtlas = new TextureAtlas(
+                bitmapLoader,
+                new int[]{
+                        R.drawable.sky, R.drawable.houses, R.drawable.fence, R.drawable.road,
+                        R.drawable.trees_front, R.drawable.tree_2, R.drawable.stone, R.drawable.platform,
+                        R.drawable.house_type1_front, R.drawable.house_type2_front, R.drawable.car_front, R.drawable.bear_trap,
+                        R.drawable.joystick_0, R.drawable.joystick_1, R.drawable.joystick_2, R.drawable.joystick_up, R.drawable.joystick_down,
+                        R.drawable.button_up, R.drawable.button_down, R.drawable.green_button_up, R.drawable.green_button_down,
+                        R.drawable.dog, R.drawable.cat, R.drawable.slime_enemy, R.drawable.water_ball
+                },
+                new int[]{R.drawable.dog, R.drawable.cat, R.drawable.slime_enemy}
+        );
+
         // --------------Initialize game info panels -------------------------//
         gameIntro = new GameIntro(context);
-        performance = new Performance(context, gameLoop);
 
         //---------------Initialize game controls-----------------------------//
-        joystick = new Joystick(70, 280, bitmapLoader);
+        joystick = new Joystick(70, 280, textureAtlas);
 
         actionButton = new Button(
                 355,
                 277,
-                bitmapLoader.loadBitmap(R.drawable.button_up),
-                bitmapLoader.loadBitmap(R.drawable.button_down)
+                textureAtlas.getRegion(R.drawable.button_up),
+                textureAtlas.getRegion(R.drawable.button_down)
         );
 
         jumpButton = new Button(
                 415,
                 277,
-                bitmapLoader.loadBitmap(R.drawable.green_button_up),
-                bitmapLoader.loadBitmap(R.drawable.green_button_down)
+                textureAtlas.getRegion(R.drawable.green_button_up),
+                textureAtlas.getRegion(R.drawable.green_button_down)
         );
 
-        //--------------Initialize game level layout -------------------------//
-        gameView = new GameView();
-        gameLevelLayout = new GameLevelLayout(gameView, bitmapLoader, gameSounds);
+        //--------------Load game level -------------------------------------//
+        gameView = new GameView(GameDisplay.GAME_WIDTH_BUFF_CANVAS);
+        LevelSource level = loadLevel(context);
 
-        //-------------Initialize characters and spells  ---------------------------//
+        //-------------Initialize sprite sheets of characters and spells  ---------------------------//
 
         // Player
-        dogSpriteSheet = new CharacterSpriteSheet(
-                bitmapLoader.loadBitmap(R.drawable.dog),
+        CharacterSpriteSheet dogSpriteSheet = new CharacterSpriteSheet(
+                textureAtlas.getRegion(R.drawable.dog),
+                textureAtlas.getMirroredRegion(R.drawable.dog),
                 5,
                 6,
                 new int[]{4, 3, 0, 1, 2},
                 new int[]{6, 4, 4, 4, 2}
         );
-        player = new AnimalCharacter(gameView, dogSpriteSheet, joystick, 100, 243, gameSounds);
-        healthBar = new HealthBar(getContext(), player);
+        dogRenderer = new CharacterRenderer(dogSpriteSheet);
 
         // Friendly NPC Cat
         CharacterSpriteSheet catSpriteSheet = new CharacterSpriteSheet(
-                bitmapLoader.loadBitmap(R.drawable.cat),
+                textureAtlas.getRegion(R.drawable.cat),
+                textureAtlas.getMirroredRegion(R.drawable.cat),
                 5,
                 6,
                 new int[]{4, 3, 0, 1, 2},
                 new int[]{6, 4, 4, 4, 2}
         );
-        cat = new FriendlyCat(gameView, catSpriteSheet, player, 1730, 124, gameSounds);
+        catRenderer = new CharacterRenderer(catSpriteSheet);
 
         // Enemy Slimes
-        slimeSpriteSheet = new CharacterSpriteSheet(
-                bitmapLoader.loadBitmap(R.drawable.slime_enemy),
+        CharacterSpriteSheet slimeSpriteSheet = new CharacterSpriteSheet(
+                textureAtlas.getRegion(R.drawable.slime_enemy),
+                textureAtlas.getMirroredRegion(R.drawable.slime_enemy),
                 5,
                 5,
                 new int[]{2, 0, 3, 4, 1},
                 new int[]{4, 4, 5, 4, 4}
         );
-
-        // Spawn enemies
-        FilthySlime enemy;
-        // Random slimes on the level
-        for (int i = 0; i < 3; i++) {
-            enemy = new FilthySlime(gameView, slimeSpriteSheet, player, 400 + Math.random() * 1000, 254, gameSounds);
-            enemies.add(enemy);
-        }
-        // Slimes near the cat
-        enemy = new FilthySlime(gameView, slimeSpriteSheet, player, 1700, 254, gameSounds);
-        enemies.add(enemy);
-        enemy = new FilthySlime(gameView, slimeSpriteSheet, player, 1750, 254, gameSounds);
-        enemies.add(enemy);
+        slimeRenderer = new SlimeRenderer(slimeSpriteSheet, gameView);
 
         // Sprite sheet for future water spells
-        waterSpellSpriteSheet = new SpellSpriteSheet(
-                bitmapLoader.loadBitmap(R.drawable.water_ball),
+        SpellSpriteSheet waterSpellSpriteSheet = new SpellSpriteSheet(
+                textureAtlas.getRegion(R.drawable.water_ball),
                 15,
                 3
         );
+        spellRenderer = new SpellRenderer(waterSpellSpriteSheet, gameView);
+
+        //--------------Initialize game world (level layout spawns enemies near the game window) ---------//
+        bitmapPrefetcher = new BitmapPrefetcher(bitmapLoader);
+        levelRenderer = new LevelRenderer(gameView, textureAtlas, level, bitmapPrefetcher, bitmapLoader);
+        world = new GameWorld(gameView, level, dogSpriteSheet, catSpriteSheet, slimeSpriteSheet, waterSpellSpriteSheet,
+                joystick, gameSounds, levelRenderer);
+        healthBar = new HealthBar(getContext(), world.getPlayer());
+
+        // Performance panel also shows object pools of the level layout and the spell store
+        performance = new Performance(context, gameLoop, frameTimings, world.getLevelLayout().getObjectPools(), world.getSpells(),
+                world.getAiLodScheduler());
+    }
+
+    /**
+     * Open level file from the assets, or create the default level if the file can not be read
+     * (or generate the level in the procedural level mode).
+     */
+    private static LevelSource loadLevel(Context context) {
+        if (PROCEDURAL_LEVEL) {
+            return new ProceduralLevel(PROCEDURAL_LEVEL_SEED, PROCEDURAL_LEVEL_LENGTH, PROCEDURAL_LEVEL_DENSITY);
+        }
+        try {
+            return LevelAssets.open(context.getAssets(), LEVEL_FILE);
+        } catch (FileNotFoundException e) {
+            // No level file in the assets
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+        return new LevelFile(LevelFileWriter.createDefaultLevel().write());
     }
 
     @Override
@@ -202,8 +252,14 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
     public void surfaceChanged(@NonNull SurfaceHolder surfaceHolder, int i, int i1, int i2) {
     }
 
+    /**
+     * Stop the game loop and the background thread of the bitmap prefetcher
+     * (the prefetcher is used by the game loop only, its thread is started again with the next game loop)
+     */
     @Override
     public void surfaceDestroyed(@NonNull SurfaceHolder surfaceHolder) {
+        gameLoop.stopLoop();
+        bitmapPrefetcher.shutdown();
     }
 
     /**
@@ -217,13 +273,30 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
 
 
     /**
-     * Update game state of all game objects - main logic of the game is here.
+     * Update game controls and game state of all game objects (time of both phases is added to the frame timings).
      */
     @SuppressLint("NewApi")
     @RequiresApi(api = Build.VERSION_CODES.N)
     public void update() {
+        long startTime = System.nanoTime();
+        updateControls();
+        long controlsUpdatedTime = System.nanoTime();
+        updateGameState();
+        frameTimings.addTime(FrameTimings.PHASE_INPUT, controlsUpdatedTime - startTime);
+        frameTimings.addTime(FrameTimings.PHASE_UPDATE, System.nanoTime() - controlsUpdatedTime);
+    }
 
-        //----------------Game controls-----------------------------------------------//
+    /**
+     * Get timings of the frame phases (recorded by the game loop, the render loop and the Game)
+     */
+    public FrameTimings getFrameTimings() {
+        return frameTimings;
+    }
+
+    /**
+     * Update state of the game controls (input phase of the update).
+     */
+    private void updateControls() {
         if (joystick != null) {
             joystick.update();
         }
@@ -235,160 +308,115 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
         if (jumpButton != null) {
             jumpButton.update();
         }
+    }
 
-        //--------- Check win and lose conditions--------------------------//
-
-        // Freeze game state of the finished game (on players win or death)
-        if (isGameOver || isGameWin) {
-            return;
-        }
+    /**
+     * Update game state of all game objects - main logic of the game is here.
+     */
+    @SuppressLint("NewApi")
+    @RequiresApi(api = Build.VERSION_CODES.N)
+    private void updateGameState() {
 
-        // Player loosed all health points
-        if (player.isDead()) {
+        //---------------- Intro game panel (gradually fades into game view)--------//
+        if (playIntro) {
+            gameIntro.update();
+            updatesAfterIntro--;
 
-            // Immediately play lose sound
-            if (!player.playedLastSound) {
-                gameSounds.playSoundPlayerDeath();
-                player.playedLastSound = true;
+            if (updatesAfterIntro == 10) {
+                // Start background music after intro
+                LocalBroadcastManager localBroadcastManager = LocalBroadcastManager.getInstance(getContext());
+                localBroadcastManager.sendBroadcast(new Intent(getContext().getPackageName() + ".playBackgroundMusic"));
             }
-            // With delay show the game over panel
-            updatesAfterGameOver--;
-            if (updatesAfterGameOver <= 0) {
-                isGameOver = true;
-                gameOver = new GameOver(getContext());
+            if (updatesAfterIntro == 0) {
+                gameIntro.setFading(true);
+                updatesAfterIntro = -1;
             }
-        }
-
-        // Player win the game if he reached the cat and no slimes are left nearby
-        boolean winCondition = false;
-        if (player.getPositionOnLevelX() > GameLevelLayout.FINISH_POINT) {
-            winCondition = true;
-        }
-        for (FilthySlime slime : enemies) {
-            if (Sprite.getDistanceBetweenSprites(player, slime) < 200 && !slime.isDead()) {
-                winCondition = false;
-                break;
+            if (gameIntro.opacity < 0) {
+                playIntro = false;
+                gameIntro = null;
             }
         }
 
-        if (winCondition) {
-            if (!cat.playedLastSound) {
-                gameSounds.playSoundMeow();
-                cat.playedLastSound = true;
-            }
-            updatesAfterGameWin--;
-            if (updatesAfterGameWin <= 0) {
-                isGameWin = true;
-                gameWin = new GameWin(getContext());
-
-                // Send message to music player activity to change background music
-                LocalBroadcastManager localBroadcastManager = LocalBroadcastManager.getInstance(getContext());
-                localBroadcastManager.sendBroadcast(new Intent(getContext().getPackageName() + ".changeBackgroundMusic"));
-            }
+        //--------------- Game world (level, characters, enemies and spells)--------//
+        // Backgrounds and scenery stop together with the finished world
+        boolean isWorldFinished = world.isGameOver() || world.isGameWin();
+        world.update();
+        if (!isWorldFinished) {
+            levelRenderer.update();
         }
 
-
-        //--------------- Enemy State-------------------------------------------------//
-        Iterator<FilthySlime> slimeIterator = enemies.iterator();
-        while (slimeIterator.hasNext()) {
-            FilthySlime slime = slimeIterator.next();
-            slime.update();
-
-            // Cast spells
-            if (slime.getSpellToCast() > 0) {
-                spellList.add(new WaterSpell(
-                        waterSpellSpriteSheet,
-                        gameView,
-                        slime
-                ));
-                slime.registerSpellCasted();
-            }
-
-            // Close attacks
-            if (slime.isTimeToCountHitDamage() && Sprite.getDistanceBetweenSprites(slime, player) < 50) {
-                player.changeHealthPoint(-10);
-                gameSounds.playSoundHitEnemy();
-            }
+        //--------- Show panels of the finished game --------------------------//
+        if (world.isGameOver() && gameOver == null) {
+            gameOver = new GameOver(getContext());
+            showGameExitRepeatMenu();
         }
 
-        //--------------- Player character update----------------------------------------//
-        player.update();
-
-        //--------------- Friendly character update--------------------------------------//
-        cat.update();
-
-        //--------------- Spells -----------------------------------------------------//
-        Iterator<WaterSpell> iteratorSpell = spellList.iterator();
-        while (iteratorSpell.hasNext()) {
-            WaterSpell spell = iteratorSpell.next();
-            spell.update();
-            // Start hit animation of the spell when collides with player
-            if (spell.isHit(player)) {
-                spell.setAnimationHit();
-
-                // Take player health points
-                if (!spell.isCountedHit()) {
-                    gameSounds.playSoundHitSpell();
-                    player.changeHealthPoint(-5);
-                    spell.countHit();
-                }
-                continue;
-            }
+        if (world.isGameWin() && gameWin == null) {
+            gameWin = new GameWin(getContext());
+            showGameExitRepeatMenu();
 
-            // Remove spells that has finished animation
-            if (spell.isFinishedAnimation()) {
-                iteratorSpell.remove();
-                continue;
-            }
-
-            // Remove spells that are behind the game window (missed ones)
-            if (spell.getPositionX() < -100 || spell.getPositionX() > GameDisplay.GAME_WIDTH_BUFF_CANVAS + 100) {
-                iteratorSpell.remove();
-                continue;
-            }
+            // Send message to music player activity to change background music
+            LocalBroadcastManager localBroadcastManager = LocalBroadcastManager.getInstance(getContext());
+            localBroadcastManager.sendBroadcast(new Intent(getContext().getPackageName() + ".changeBackgroundMusic"));
         }
+    }
 
+    /**
+     * Set part of the update step passed since the latest update, called by the game loop before draw()
+     * (objects are drawn between their previous and current positions)
+     */
+    public void setDrawInterpolation(double interpolation) {
+        gameView.setInterpolation(interpolation);
+    }
 
-        //--------------- Game view window movement--------------------------------------------//
-        if (player.getVelocityX() == 0) {
-            gameView.setMoving(false);
-            gameView.setLevelVelocityX(0);
-        } else if (player.getPositionX() > 170) {
-            gameView.setMoving(true);
-            gameView.setLevelVelocityX(player.getVelocityX());
-        } else if (player.getPositionX() < 100) {
-            gameView.setMoving(true);
-            gameView.setLevelVelocityX(player.getVelocityX());
-        }
 
-        // Update level layout and game window position
-        gameLevelLayout.update();
-        gameView.update();
+    /**
+     * Replace game controls with the restart or exit menu (called once the game is finished)
+     */
+    @RequiresApi(api = Build.VERSION_CODES.O)
+    private void showGameExitRepeatMenu() {
+        gameExitRepeatMenu = new GameExitRepeatMenu(getContext());
+        // Remove game controls
+        joystick = null;
+        jumpButton = null;
+        actionButton = null;
     }
 
 
     /**
-     * Draw game objects on canvas (draws one frame for each object)
+     * Draw game objects on canvas (draws one frame for each object).
+     * Does not create new objects, lists are iterated by index to avoid creating iterators.
      */
     @RequiresApi(api = Build.VERSION_CODES.O)
     @Override
     public void draw(Canvas canvas) {
         super.draw(canvas);
 
-        // Draw game objects and characters
-        gameLevelLayout.drawBackObjects(canvas);
-        for (FilthySlime slime : enemies) {
-            slime.draw(canvas);
-        }
-        cat.draw(canvas);
-        player.draw(canvas);
-        gameLevelLayout.drawFrontObjects(canvas);
-
-        for (WaterSpell spell : spellList) {
-            spell.draw(canvas);
-        }
+        // Draw game objects and characters (time of each phase is added to the frame timings)
+        long phaseStartTime = System.nanoTime();
+        levelRenderer.drawBackObjects(canvas);
+        long phaseEndTime = System.nanoTime();
+        frameTimings.addTime(FrameTimings.PHASE_DRAW_BACK, phaseEndTime - phaseStartTime);
+
+        phaseStartTime = phaseEndTime;
+        slimeRenderer.draw(canvas, world.getSlimes());
+        catRenderer.draw(canvas, world.getCat());
+        dogRenderer.draw(canvas, world.getPlayer());
+        phaseEndTime = System.nanoTime();
+        frameTimings.addTime(FrameTimings.PHASE_DRAW_CHARACTERS, phaseEndTime - phaseStartTime);
+
+        phaseStartTime = phaseEndTime;
+        levelRenderer.drawFrontObjects(canvas, world.getLevelLayout());
+        phaseEndTime = System.nanoTime();
+        frameTimings.addTime(FrameTimings.PHASE_DRAW_FRONT, phaseEndTime - phaseStartTime);
+
+        phaseStartTime = phaseEndTime;
+        spellRenderer.draw(canvas, world.getSpells());
+        phaseEndTime = System.nanoTime();
+        frameTimings.addTime(FrameTimings.PHASE_DRAW_CHARACTERS, phaseEndTime - phaseStartTime);
 
         // Draw game info panels and controls
+        phaseStartTime = phaseEndTime;
         healthBar.draw(canvas);
         if (joystick != null) {
             joystick.draw(canvas);
@@ -404,42 +432,21 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
         //Intro game panel (gradually fades into game view)
         if (playIntro) {
             gameIntro.draw(canvas);
-            updatesAfterIntro--;
-
-            if (updatesAfterIntro == 10) {
-                // Start background music after intro
-                LocalBroadcastManager localBroadcastManager = LocalBroadcastManager.getInstance(getContext());
-                localBroadcastManager.sendBroadcast(new Intent(getContext().getPackageName() + ".playBackgroundMusic"));
-            }
-            if (updatesAfterIntro == 0) {
-                gameIntro.setFading(true);
-                updatesAfterIntro = -1;
-            }
-            if (gameIntro.opacity < 0) {
-                playIntro = false;
-                gameIntro = null;
-            }
         }
 
         // Game over and game win game panels
-        if (isGameOver) {
+        if (gameOver != null) {
             gameOver.draw(canvas);
         }
-        if (isGameWin) {
+        if (gameWin != null) {
             gameWin.draw(canvas);
         }
 
         // Restart or exit menu
-        if ((isGameOver || isGameWin)) {
-            if (gameExitRepeatMenu == null) {
-                gameExitRepeatMenu = new GameExitRepeatMenu(getContext());
-                // Remove game controls
-                joystick = null;
-                jumpButton = null;
-                actionButton = null;
-            }
+        if (gameExitRepeatMenu != null) {
             gameExitRepeatMenu.draw(canvas);
         }
+        frameTimings.addTime(FrameTimings.PHASE_DRAW_HUD, System.nanoTime() - phaseStartTime);
     }
 
 
@@ -513,22 +520,14 @@ public class Game extends SurfaceView implements SurfaceHolder.Callback {
 
         // Player pressed attack button
         if (actionButton != null && actionButton.isPressed(x, y)) {
-            player.attack();
-            gameSounds.playSoundBite();
-
-            // Check if attack hit enemy slime and count damage
-            for (FilthySlime slime : enemies) {
-                if (!slime.isDead() && Sprite.getDistanceBetweenSprites(player, slime) < 50) {
-                    slime.changeHealthPoint(-30);
-                    break; // Count damage on only for one slime, comment this for area damage attacks
-                }
-            }
+            // Damage of the nearest slime is counted by the next update
+            world.bite();
             return;
         }
 
         // Player jumps
         if (jumpButton != null && jumpButton.isPressed(x, y)) {
-            player.jump();
+            world.jump();
             return;
         }
 
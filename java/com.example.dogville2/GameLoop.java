@@ -1,56 +1,80 @@
 package com.example.dogvillev2;
 
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Rect;
 import android.os.Build;
 import android.view.SurfaceHolder;
 
 import androidx.annotation.RequiresApi;
 
 import com.example.dogvillev2.layout.GameDisplay;
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.utilities.AllocationTracker;
+import com.example.dogvillev2.utilities.FrameTimings;
+
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * GameLoop is a Thread that repeats game cycle and calls game update() and draw() methods.
- * Each iteration the game state is updated, then drawn on the buffered Bitmap,
- * and the resulting bitmap is rescaled onto the device screen.
+ * The game state is updated in fixed time steps (MAX_UPS per second), as many steps as the time passed requires.
+ * Each iteration the game is drawn into a recorded frame (list of drawing commands) with objects placed
+ * between their previous and current positions, the frame is published for the RenderLoop thread
+ * that draws it onto the device screen.
  */
 public class GameLoop extends Thread {
-    public static final double MAX_UPS = 60.0; // Number of updates per second
-    private static final double UPS_PERIOD = 1E+3 / MAX_UPS;
-    private final SurfaceHolder surfaceHolder;
+    public static final double MAX_UPS = GameWorld.MAX_UPS; // Number of updates per second (fixed simulation step)
+    private static final long UPS_PERIOD = (long) (1E+9 / MAX_UPS); // ns
+    public static final double MAX_FPS = 60.0; // Number of recorded frames per second (without vsync pacing)
+    private static final long FPS_PERIOD = (long) (1E+9 / MAX_FPS); // ns
+    // Record frames on each display refresh instead of sleeping for FPS_PERIOD (false - sleep-based loop)
+    public static final boolean VSYNC_PACING = true;
+    // Catch-up limit: if the game needs more updates for one frame, the rest of the time is dropped
+    private static final int MAX_UPDATES_PER_FRAME = 5;
+    // Debug mode: stop the game if drawing a frame allocates objects (should be false in release builds)
+    public static final boolean TRACK_FRAME_ALLOCATIONS = false;
     private final Game game;
-    private final Bitmap buffCanvasBitmap;
-    private final Canvas buffCanvas;
-    private final Rect buffCanvasBitmapRect;
-    private final Rect realCanvasRect;
-    private boolean isRunning = false;
-    private double averageUPS;
-    private double averageFPS;
+    private final FrameTimings frameTimings;
+    private final FrameSnapshotBuffer frameSnapshots;
+    private final RenderLoop renderLoop;
+    private AllocationTracker allocationTracker;
+    private volatile boolean isRunning = false;
+    private volatile double averageUPS;
+    private volatile long droppedUpdates; // Total number of updates dropped to keep the frames going
 
     public GameLoop(Game game, SurfaceHolder surfaceHolder) {
+        super("GameLoop");
         this.game = game;
-        this.surfaceHolder = surfaceHolder;
-
-        // Create buffer canvas - fixes flickering of bitmaps and more efficient that direct drawing on canvas
-        buffCanvasBitmap = Bitmap.createBitmap(GameDisplay.GAME_WIDTH_BUFF_CANVAS, GameDisplay.GAME_HEIGHT_BUFF_CANVAS, Bitmap.Config.ARGB_8888);
-        buffCanvas = new Canvas();
-        buffCanvas.setBitmap(buffCanvasBitmap);
-        buffCanvasBitmapRect = new Rect(0, 0, GameDisplay.GAME_WIDTH_BUFF_CANVAS, GameDisplay.GAME_HEIGHT_BUFF_CANVAS);
-        realCanvasRect = new Rect(0, 0, GameDisplay.deviceWidthCapped, GameDisplay.deviceHeightCapped);
+        this.frameTimings = game.getFrameTimings();
 
+        // Frames are recorded by this thread and drawn on the screen by the render thread
+        frameSnapshots = new FrameSnapshotBuffer(GameDisplay.GAME_WIDTH_BUFF_CANVAS, GameDisplay.GAME_HEIGHT_BUFF_CANVAS);
+        renderLoop = new RenderLoop(surfaceHolder, frameSnapshots, this, frameTimings);
     }
 
     public double getAverageUPS() {
         return averageUPS;
     }
 
+    /**
+     * Get number of updates skipped since the start of the loop (game time slowed down because the game was behind)
+     */
+    public long getDroppedUpdates() {
+        return droppedUpdates;
+    }
+
     public double getAverageFPS() {
-        return averageFPS;
+        return renderLoop.getAverageFPS();
+    }
+
+    /**
+     * Get number of display refreshes in the last second that did not show a new frame (vsync pacing only)
+     */
+    public int getAverageMissedVsyncs() {
+        return renderLoop.getAverageMissedVsyncs();
     }
 
     public void startLoop() {
         isRunning = true;
+        renderLoop.startLoop();
         start(); // implemented in Thread class
     }
 
@@ -60,83 +84,99 @@ public class GameLoop extends Thread {
 
         // Declare time and cycle count variables
         int updateCount = 0;
-        int frameCount = 0;
 
-        // Time counters
-        long startTime;
-        long elapsedTIme;
+        // Time counters (ns)
+        long previousTime;
+        long frameStartTime;
+        long accumulatedTime = 0; // game time that is not simulated yet
+        long statisticsStartTime;
         long sleepTime;
+        long recordedVsync = 0;
 
-        // Create new empty canvas
-        Canvas canvas = null;
+        if (TRACK_FRAME_ALLOCATIONS) {
+            allocationTracker = new AllocationTracker();
+        }
 
         // Game loop
-        startTime = System.currentTimeMillis(); // System.nanoTime() is more error-prone but heavier
+        previousTime = System.nanoTime();
+        statisticsStartTime = previousTime;
         while (isRunning) {
 
-            // Try to update game (update()) and render(draw())
-            try {
-
-                // Get the canvas
-                canvas = surfaceHolder.lockCanvas();
-                // Prohibit multiple threads from calling update and draw methods at the same time as this thread
-                synchronized (surfaceHolder) {
-                    game.update();
-                    updateCount++;
-                    game.draw(buffCanvas);
-                    canvas.drawBitmap(buffCanvasBitmap, buffCanvasBitmapRect, realCanvasRect, null);
-                }
+            frameStartTime = System.nanoTime();
+            accumulatedTime += frameStartTime - previousTime;
+            previousTime = frameStartTime;
 
-            } catch (IllegalArgumentException e) {
-                e.printStackTrace();
-            } finally {
-                if (canvas != null) {
-                    // Release the canvas
-                    try {
-                        surfaceHolder.unlockCanvasAndPost(canvas); // return canvas back
-                        frameCount++;
-                    } catch (IllegalArgumentException e) {
-                        e.printStackTrace();
-                    }
-                }
+            // Update game (update()) in fixed steps for the time passed since the previous frame
+            int updatesInFrame = 0;
+            while (accumulatedTime >= UPS_PERIOD && updatesInFrame < MAX_UPDATES_PER_FRAME) {
+                game.update();
+                accumulatedTime -= UPS_PERIOD;
+                updatesInFrame++;
+                updateCount++;
             }
 
-            // Pause game loop to not exceed target UPS (MAX_UPS)
-            elapsedTIme = System.currentTimeMillis() - startTime;
-            sleepTime = (long) (updateCount * UPS_PERIOD - elapsedTIme); // calculate time till the end of the iteration
-            if (sleepTime > 0) {
-                try {
-                    sleep(sleepTime); // implemented in Thread class
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
+            // The game is too far behind (slow device or long pause): drop the rest of the time,
+            // game time slows down instead of freezing the screen with catch-up updates
+            if (accumulatedTime >= UPS_PERIOD) {
+                droppedUpdates += accumulatedTime / UPS_PERIOD;
+                accumulatedTime %= UPS_PERIOD;
             }
 
-            // Skip frames to keep up with target UPS
-            while (sleepTime < 0 && updateCount < MAX_UPS - 1) {
-                // Update the game state without rendering
-                game.update();
-                updateCount++;
-                // Recalculate the sleep time
-                elapsedTIme = System.currentTimeMillis() - startTime;
-                sleepTime = (long) (updateCount * UPS_PERIOD - elapsedTIme);
+            // Record the frame (draw()) between the two latest updates, render thread draws it on the screen meanwhile
+            game.setDrawInterpolation((double) accumulatedTime / UPS_PERIOD);
+            if (allocationTracker != null) {
+                allocationTracker.startFrame();
+                game.draw(frameSnapshots.beginFrame());
+                allocationTracker.endFrame();
+            } else {
+                game.draw(frameSnapshots.beginFrame());
+            }
+            frameSnapshots.publishFrame();
+            frameTimings.endFrame(FrameTimings.PHASE_INPUT, FrameTimings.PHASE_DRAW_HUD);
+
+            if (VSYNC_PACING) {
+                // Pause game loop till the next display refresh, the render thread wakes the loop up.
+                // Updates keep their own fixed step, if refreshes stop coming the loop continues after two frame periods
+                long waitEndTime = frameStartTime + 2 * FPS_PERIOD;
+                while (isRunning && renderLoop.getVsyncCount() == recordedVsync) {
+                    long waitTime = waitEndTime - System.nanoTime();
+                    if (waitTime <= 0) {
+                        break;
+                    }
+                    LockSupport.parkNanos(this, waitTime);
+                }
+                recordedVsync = renderLoop.getVsyncCount();
+            } else {
+                // Pause game loop till the next frame
+                sleepTime = frameStartTime + FPS_PERIOD - System.nanoTime();
+                if (sleepTime > 0) {
+                    try {
+                        sleep(sleepTime / 1_000_000, (int) (sleepTime % 1_000_000)); // implemented in Thread class
+                    } catch (InterruptedException e) {
+                        e.printStackTrace();
+                    }
+                }
             }
 
-            // Calculate average UPS and FPS (1000 ms = 1 second)
-            elapsedTIme = System.currentTimeMillis() - startTime;
-            if (elapsedTIme >= 1000) {
-                averageUPS = updateCount / (elapsedTIme * 0.001);
-                averageFPS = frameCount / (elapsedTIme * 0.001);
+            // Calculate average UPS (1 s = 1E+9 ns), FPS is calculated by the render loop
+            long elapsedTime = System.nanoTime() - statisticsStartTime;
+            if (elapsedTime >= 1E+9) {
+                averageUPS = updateCount / (elapsedTime * 1E-9);
                 updateCount = 0;
-                frameCount = 0;
-                startTime = System.currentTimeMillis();
+                statisticsStartTime = System.nanoTime();
             }
         }
+
+        if (allocationTracker != null) {
+            allocationTracker.stop();
+        }
     }
 
     public void stopLoop() {
 
         isRunning = false;
+        LockSupport.unpark(this);
+        renderLoop.stopLoop();
 
         // Don't stop the loop until run() method finishes
         try {
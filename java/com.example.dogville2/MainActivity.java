@@ -10,10 +10,13 @@ import android.content.pm.PackageManager;
 import android.content.res.Resources;
 import android.os.Build;
 import android.os.Bundle;
+import android.view.Display;
+import android.view.WindowManager;
 
 import androidx.annotation.RequiresApi;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
+import com.example.dogvillev2.layout.GameDisplay;
 import com.example.dogvillev2.sounds.BackgroundSoundService;
 
 
@@ -61,6 +64,17 @@ public class MainActivity extends Activity {
             deviceHeightPixels = 720;
         }
 
+        // Ask for the highest refresh rate of the display, frames are drawn on each refresh (vsync pacing)
+        Display display = getWindowManager().getDefaultDisplay();
+        GameDisplay.displayRefreshRate = display.getRefreshRate();
+        if (GameLoop.VSYNC_PACING && Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            Display.Mode preferredMode = GameDisplay.getPreferredDisplayMode(display);
+            WindowManager.LayoutParams layoutParams = getWindow().getAttributes();
+            layoutParams.preferredDisplayModeId = preferredMode.getModeId();
+            getWindow().setAttributes(layoutParams);
+            GameDisplay.displayRefreshRate = preferredMode.getRefreshRate();
+        }
+
         // Launch game
         game = new Game(this, deviceWidthPixels, deviceHeightPixels);
         game.getHolder().setFixedSize(deviceWidthPixels, deviceHeightPixels);
@@ -0,0 +1,195 @@
+package com.example.dogvillev2;
+
+import android.os.Looper;
+import android.view.Choreographer;
+import android.view.SurfaceHolder;
+
+import com.example.dogvillev2.layout.GameDisplay;
+import com.example.dogvillev2.utilities.FrameTimings;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * RenderLoop is a Thread that draws frames recorded by the game loop onto the device screen.
+ * Each iteration the latest recorded frame is put on the device screen by the FramePresenter.
+ * Drawing runs in parallel with the game update, so a slow frame does not delay the game loop.
+ * With vsync pacing (GameLoop.VSYNC_PACING) iterations are driven by the display refresh (Choreographer frame callbacks):
+ * each refresh the latest frame is drawn and the game loop is asked to record the next one.
+ */
+public class RenderLoop extends Thread implements Choreographer.FrameCallback {
+    // Pause when no new frame is recorded yet (ms)
+    private static final long WAIT_FOR_FRAME_TIME = 1;
+    private final FrameSnapshotBuffer frameSnapshots;
+    private final Thread gameLoop;
+    private final FramePresenter framePresenter;
+    private final FrameTimings frameTimings;
+    private long previousPresentTime = 0;
+    private volatile boolean isRunning = false;
+    private volatile double averageFPS;
+
+    // Vsync pacing
+    private final long vsyncPeriod; // ns
+    private volatile Looper looper;
+    private volatile long vsyncCount = 0; // Number of display refreshes, the game loop records a frame for each one
+    private volatile int averageMissedVsyncs; // Missed display refreshes per second
+    private long previousVsyncTime = 0;
+    private int frameCount = 0;
+    private int missedVsyncCount = 0;
+    private long startTime;
+
+    public RenderLoop(SurfaceHolder surfaceHolder, FrameSnapshotBuffer frameSnapshots, Thread gameLoop, FrameTimings frameTimings) {
+        super("RenderLoop");
+        this.frameSnapshots = frameSnapshots;
+        this.gameLoop = gameLoop;
+        vsyncPeriod = (long) (1E+9 / GameDisplay.displayRefreshRate);
+        this.frameTimings = frameTimings;
+        framePresenter = new FramePresenter(surfaceHolder);
+    }
+
+    public double getAverageFPS() {
+        return averageFPS;
+    }
+
+    /**
+     * Get number of display refreshes in the last second that did not show a new frame
+     * (the frame callback came late or the game loop did not record a frame in time). Vsync pacing only.
+     */
+    public int getAverageMissedVsyncs() {
+        return averageMissedVsyncs;
+    }
+
+    /**
+     * Get number of display refreshes since the start of the loop, the game loop records a new frame when it changes.
+     */
+    public long getVsyncCount() {
+        return vsyncCount;
+    }
+
+    public void startLoop() {
+        isRunning = true;
+        start(); // implemented in Thread class
+    }
+
+    @Override
+    public void run() {
+
+        startTime = System.currentTimeMillis();
+
+        // Draw frames on each display refresh, Choreographer calls doFrame() from the looper of this thread
+        if (GameLoop.VSYNC_PACING) {
+            Looper.prepare();
+            looper = Looper.myLooper();
+            if (isRunning) {
+                Choreographer.getInstance().postFrameCallback(this);
+                Looper.loop();
+            }
+            return;
+        }
+
+        // Draw new frames as soon as they are recorded
+        while (isRunning) {
+
+            FrameCommands frame = frameSnapshots.takeNewFrame();
+            if (frame == null) {
+                // Game loop did not record a new frame yet, there is nothing new to show
+                try {
+                    sleep(WAIT_FOR_FRAME_TIME);
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            } else {
+                presentFrame(frame);
+                frameCount++;
+            }
+
+            updateStatistics();
+        }
+    }
+
+    /**
+     * Draw the latest recorded frame and ask the game loop for the next one, called by Choreographer on each display refresh.
+     *
+     * @param frameTimeNanos - time of the display refresh (vsync)
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+
+        if (!isRunning) {
+            Looper.myLooper().quit();
+            return;
+        }
+
+        // Refreshes skipped between the callbacks (the thread was busy or descheduled)
+        if (previousVsyncTime != 0) {
+            long skippedVsyncs = (frameTimeNanos - previousVsyncTime + vsyncPeriod / 2) / vsyncPeriod - 1;
+            if (skippedVsyncs > 0) {
+                missedVsyncCount += skippedVsyncs;
+            }
+        }
+        previousVsyncTime = frameTimeNanos;
+
+        // Ask the game loop to record the next frame, it is drawn on the next refresh
+        FrameCommands frame = frameSnapshots.takeNewFrame();
+        vsyncCount++;
+        LockSupport.unpark(gameLoop);
+
+        if (frame == null) {
+            // Game loop did not record the frame in time, the previous frame stays on the screen
+            missedVsyncCount++;
+        } else {
+            presentFrame(frame);
+            frameCount++;
+        }
+
+        updateStatistics();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    /**
+     * Calculate average FPS and missed vsyncs (1000 ms = 1 second)
+     */
+    private void updateStatistics() {
+        long elapsedTime = System.currentTimeMillis() - startTime;
+        if (elapsedTime >= 1000) {
+            averageFPS = frameCount / (elapsedTime * 0.001);
+            averageMissedVsyncs = missedVsyncCount;
+            frameCount = 0;
+            missedVsyncCount = 0;
+            startTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Put the frame on the screen, time of presenting and time since the previous frame are added to the frame timings.
+     */
+    private void presentFrame(FrameCommands frame) {
+        long startTime = System.nanoTime();
+        framePresenter.present(frame);
+        long endTime = System.nanoTime();
+
+        frameTimings.addTime(FrameTimings.PHASE_PRESENT, endTime - startTime);
+        frameTimings.endFrame(FrameTimings.PHASE_PRESENT, FrameTimings.PHASE_PRESENT);
+        if (previousPresentTime != 0) {
+            frameTimings.addTime(FrameTimings.PHASE_FRAME, endTime - previousPresentTime);
+            frameTimings.endFrame(FrameTimings.PHASE_FRAME, FrameTimings.PHASE_FRAME);
+        }
+        previousPresentTime = endTime;
+    }
+
+    public void stopLoop() {
+
+        isRunning = false;
+
+        // Stop waiting for display refreshes
+        if (looper != null) {
+            looper.quit();
+        }
+
+        // Don't stop the loop until run() method finishes
+        try {
+            join();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,715 @@
+package com.example.dogvillev2.benchmark;
+
+import com.example.dogvillev2.gameObjects.GameObject;
+import com.example.dogvillev2.gameObjects.animated.SpellStore;
+import com.example.dogvillev2.gameObjects.characters.AiLodScheduler;
+import com.example.dogvillev2.gameObjects.characters.AnimalCharacter;
+import com.example.dogvillev2.gameObjects.characters.SlimeStore;
+import com.example.dogvillev2.layout.CollisionBroadphase;
+import com.example.dogvillev2.layout.GameLevelLayout;
+import com.example.dogvillev2.layout.GameView;
+import com.example.dogvillev2.layout.LevelFile;
+import com.example.dogvillev2.layout.PlacementIndex;
+import com.example.dogvillev2.layout.ProceduralLevel;
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.simulation.HeadlessGame;
+import com.example.dogvillev2.utilities.VectorMath;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SimulationBenchmark measures the hot paths of the game simulation on the headless world (HeadlessGame.createWorld):
+ * streaming of the level layout, platform and trap collision queries, the collision broadphase against checking
+ * every collider, slime AI with and without the AI level of detail and on several threads, spell update with hit tests,
+ * the whole GameWorld.update() tick and the VectorMath helpers against the math that they replaced.
+ * Uses only plain Java, so it runs without a device:
+ * java -cp classes com.example.dogvillev2.benchmark.SimulationBenchmark [result.json] [name filter]
+ * The filter selects benchmarks whose name contains it (ignoring case), at least one benchmark has to match.
+ * Each benchmark is run like a JMH average time benchmark (warmup and measurement iterations of fixed time,
+ * the state is created once for all iterations) and the results are written in the JMH JSON format,
+ * so results of different releases can be compared with the usual JMH tools.
+ * Benchmarks that compare two ways of doing the same work check that both give the same result before measuring.
+ */
+public class SimulationBenchmark {
+
+    private static final String DEFAULT_RESULT_FILE = "simulation-benchmark.json";
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static final long ITERATION_TIME_MS = 200;
+    private static final long SEED = 42;
+    // Parameters of the benchmarks
+    private static final double[] LEVEL_DENSITIES = {1, 4};
+    private static final int[] SLIME_COUNTS = {100, 1000, 10_000};
+    private static final int PARALLEL_SLIMES = 50_000;
+    private static final int[] SPELL_COUNTS = {64, 256};
+    private static final int[] COLLIDER_COUNTS = {1000, 5000};
+    // Game window scrolls back and forth over this part of the endless level (pixels per update faster than the player)
+    private static final int SCROLL_RANGE = 16 * ProceduralLevel.CHUNK_WIDTH;
+    private static final double SCROLL_SPEED = 8;
+    // Collision queries are made at this position of the game window (traps and platforms are near)
+    private static final double QUERY_WINDOW_POSITION = 4 * ProceduralLevel.CHUNK_WIDTH;
+    private static final int QUERY_COUNT = 1024;
+    // Enemies and spells are placed up to this distance from the player
+    private static final double SPREAD = 1000;
+    private static final double SLIME_POSITION_Y = 254;
+    // Parallel slime update is compared with the sequential one after this number of ticks
+    private static final int PARALLEL_CHECK_TICKS = 100;
+    // Colliders of the broadphase benchmark are spread over this part of the level, a fifth of them are moving
+    private static final float BROADPHASE_LEVEL_LENGTH = 200_000;
+    private static final int MOVING_PERCENT = 20;
+    // Vector math runs over random points up to this distance from the origin
+    private static final int POINT_COUNT = 1024;
+    private static final double POINT_SPREAD = 1000;
+    private static final double DISTANCE_THRESHOLD = 400; // Slimes attack within this distance
+    private static final int ANGLE_BUCKETS = 16;
+    // Two-sided 99.9% quantiles of the Student's t-distribution by degrees of freedom (1..30), normal quantile above
+    private static final double[] T_QUANTILES = {
+            636.62, 31.60, 12.92, 8.61, 6.87, 5.96, 5.41, 5.04, 4.78, 4.59,
+            4.44, 4.32, 4.22, 4.14, 4.07, 4.01, 3.97, 3.92, 3.88, 3.85,
+            3.82, 3.79, 3.77, 3.75, 3.73, 3.71, 3.69, 3.67, 3.66, 3.65
+    };
+    private static final double NORMAL_QUANTILE = 3.29;
+
+    // Values computed by the benchmarks are added here, so the JIT can not remove the measured work
+    private static long sink = 0;
+
+    /**
+     * Work of the benchmark, state of the benchmark is created before the first iteration
+     */
+    private interface Operation {
+        /**
+         * Run the operation the given number of times, returns a value that depends on the work done
+         */
+        long run(int operations);
+    }
+
+    /**
+     * Creates the state of the benchmark and its operation
+     */
+    private interface Fixture {
+        Operation setUp();
+    }
+
+    public static void main(String[] args) throws IOException {
+        String resultFile = args.length > 0 ? args[0] : DEFAULT_RESULT_FILE;
+        String filter = args.length > 1 ? args[1].toLowerCase(Locale.ROOT) : "";
+
+        List<String> results = new ArrayList<>();
+        for (double density : LEVEL_DENSITIES) {
+            run(results, filter, "layoutStreaming", params("density", density), 1, () -> new LayoutStreaming(density));
+        }
+        for (double density : LEVEL_DENSITIES) {
+            run(results, filter, "isOnPlatform", params("density", density), QUERY_COUNT,
+                    () -> new CollisionQueries(density, false));
+            run(results, filter, "isOnTrap", params("density", density), QUERY_COUNT,
+                    () -> new CollisionQueries(density, true));
+        }
+        for (int colliderCount : COLLIDER_COUNTS) {
+            run(results, filter, "broadphaseQuery", params("colliders", colliderCount, "search", "broadphase"), QUERY_COUNT,
+                    () -> new BroadphaseQueries(colliderCount, true));
+            run(results, filter, "broadphaseQuery", params("colliders", colliderCount, "search", "every collider"), QUERY_COUNT,
+                    () -> new BroadphaseQueries(colliderCount, false));
+        }
+        for (int slimeCount : SLIME_COUNTS) {
+            run(results, filter, "slimeAi", params("slimes", slimeCount, "aiLod", true), 1,
+                    () -> new SlimeAi(slimeCount, true, GameWorld.PARALLEL_ENEMY_UPDATE ? ForkJoinPool.commonPool() : null));
+            run(results, filter, "slimeAi", params("slimes", slimeCount, "aiLod", false), 1,
+                    () -> new SlimeAi(slimeCount, false, null));
+        }
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            run(results, filter, "slimeAiParallel", params("slimes", PARALLEL_SLIMES, "threads", threads), 1,
+                    () -> checkParallelUpdate(pool));
+            pool.shutdown();
+        }
+        for (int spellCount : SPELL_COUNTS) {
+            run(results, filter, "spellUpdate", params("spells", spellCount), 1, () -> new SpellUpdate(spellCount));
+        }
+        for (double density : LEVEL_DENSITIES) {
+            run(results, filter, "worldTick", params("density", density), 1, () -> new WorldTick(density));
+        }
+        run(results, filter, "distanceThreshold", params("math", "Math.pow"), POINT_COUNT,
+                () -> new VectorMathCase(VectorMathCase.THRESHOLD_POW));
+        run(results, filter, "distanceThreshold", params("math", "VectorMath"), POINT_COUNT,
+                () -> new VectorMathCase(VectorMathCase.THRESHOLD_SQUARED));
+        run(results, filter, "normalize", params("math", "Math.pow"), POINT_COUNT,
+                () -> new VectorMathCase(VectorMathCase.NORMALIZE_POW));
+        run(results, filter, "normalize", params("math", "VectorMath"), POINT_COUNT,
+                () -> new VectorMathCase(VectorMathCase.NORMALIZE_INVERSE));
+        run(results, filter, "angleBucket", params("math", "Math.atan2"), POINT_COUNT,
+                () -> new VectorMathCase(VectorMathCase.ANGLE_BUCKET_MATH));
+        run(results, filter, "angleBucket", params("math", "VectorMath"), POINT_COUNT,
+                () -> new VectorMathCase(VectorMathCase.ANGLE_BUCKET_TABLE));
+
+        if (results.isEmpty()) {
+            throw new IllegalArgumentException("No benchmark matches the filter \"" + filter + "\"");
+        }
+        try (Writer writer = new FileWriter(resultFile)) {
+            writer.write("[\n" + String.join(",\n", results) + "\n]\n");
+        }
+        System.out.println("Results of " + results.size() + " benchmarks are written to " + resultFile + " (checksum " + sink + ")");
+    }
+
+    /**
+     * Run warmup and measurement iterations of the benchmark (if its name contains the lower case filter),
+     * print the score and add the JSON result
+     *
+     * @param batch - number of operations between the checks of the iteration time
+     */
+    private static void run(List<String> results, String filter, String name, String params, int batch, Fixture fixture) {
+        if (!name.toLowerCase(Locale.ROOT).contains(filter)) {
+            return;
+        }
+        Operation operation = fixture.setUp();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runIteration(operation, batch);
+        }
+        double[] scores = new double[MEASUREMENT_ITERATIONS];
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; i++) {
+            scores[i] = runIteration(operation, batch);
+        }
+
+        double mean = 0;
+        for (double score : scores) {
+            mean += score;
+        }
+        mean /= scores.length;
+        double variance = 0;
+        for (double score : scores) {
+            variance += (score - mean) * (score - mean);
+        }
+        variance /= scores.length - 1;
+        int degreesOfFreedom = scores.length - 1;
+        double quantile = degreesOfFreedom <= T_QUANTILES.length ? T_QUANTILES[degreesOfFreedom - 1] : NORMAL_QUANTILE;
+        double error = quantile * Math.sqrt(variance / scores.length);
+
+        System.out.printf(Locale.ROOT, "%-16s %-44s %12.1f +- %10.1f ns/op%n", name, params, mean, error);
+        results.add(toJson(name, params, mean, error, scores));
+    }
+
+    /**
+     * Run operations for ITERATION_TIME_MS
+     *
+     * @return average time of an operation in nanoseconds
+     */
+    private static double runIteration(Operation operation, int batch) {
+        long iterationTime = ITERATION_TIME_MS * 1_000_000;
+        long operations = 0;
+        long startTime = System.nanoTime();
+        long time;
+        do {
+            sink += operation.run(batch);
+            operations += batch;
+            time = System.nanoTime() - startTime;
+        } while (time < iterationTime);
+        return (double) time / operations;
+    }
+
+    /**
+     * Result of the benchmark in the JMH JSON format
+     */
+    private static String toJson(String name, String params, double score, double error, double[] scores) {
+        StringBuilder rawData = new StringBuilder();
+        for (int i = 0; i < scores.length; i++) {
+            rawData.append(i == 0 ? "" : ", ").append(scores[i]);
+        }
+        return "  {\n"
+                + "    \"benchmark\": \"" + SimulationBenchmark.class.getName() + "." + name + "\",\n"
+                + "    \"mode\": \"avgt\",\n"
+                + "    \"threads\": 1,\n"
+                + "    \"forks\": 0,\n"
+                + "    \"jdkVersion\": \"" + System.getProperty("java.version") + "\",\n"
+                + "    \"vmName\": \"" + System.getProperty("java.vm.name") + "\",\n"
+                + "    \"vmVersion\": \"" + System.getProperty("java.vm.version") + "\",\n"
+                + "    \"warmupIterations\": " + WARMUP_ITERATIONS + ",\n"
+                + "    \"warmupTime\": \"" + ITERATION_TIME_MS + " ms\",\n"
+                + "    \"measurementIterations\": " + MEASUREMENT_ITERATIONS + ",\n"
+                + "    \"measurementTime\": \"" + ITERATION_TIME_MS + " ms\",\n"
+                + "    \"params\": {" + params + "},\n"
+                + "    \"primaryMetric\": {\n"
+                + "      \"score\": " + score + ",\n"
+                + "      \"scoreError\": " + error + ",\n"
+                + "      \"scoreConfidence\": [" + (score - error) + ", " + (score + error) + "],\n"
+                + "      \"scoreUnit\": \"ns/op\",\n"
+                + "      \"rawData\": [[" + rawData + "]]\n"
+                + "    },\n"
+                + "    \"secondaryMetrics\": {}\n"
+                + "  }";
+    }
+
+    /**
+     * Parameters of the benchmark as JSON object members (pairs of name and value)
+     */
+    private static String params(Object... namesAndValues) {
+        StringBuilder params = new StringBuilder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            params.append(i == 0 ? "" : ", ")
+                    .append('"').append(namesAndValues[i]).append("\": \"").append(namesAndValues[i + 1]).append('"');
+        }
+        return params.toString();
+    }
+
+    /**
+     * Create headless world of the endless procedural level, the player does not move unless the benchmark moves it
+     */
+    private static GameWorld createWorld(double density, AnimalCharacter.MovementControl movementControl) {
+        return HeadlessGame.createWorld(new ProceduralLevel(SEED, ProceduralLevel.ENDLESS, density), movementControl,
+                new HeadlessGame.SoundCounter());
+    }
+
+    /**
+     * Operation: game window moves by SCROLL_SPEED, the level layout loads and unloads chunks
+     * and creates and removes objects near the game window. The window scrolls back and forth over SCROLL_RANGE
+     * at the start of the level.
+     */
+    private static class LayoutStreaming implements Operation {
+
+        private final GameView gameView;
+        private final GameLevelLayout layout;
+        private final double scrollEnd;
+        private double velocityX = SCROLL_SPEED;
+
+        LayoutStreaming(double density) {
+            GameWorld world = createWorld(density, new HeadlessGame.ScriptedControl(0));
+            gameView = world.getGameView();
+            layout = world.getLevelLayout();
+            scrollEnd = SCROLL_RANGE - gameView.getWindowWidth();
+            gameView.setMoving(true);
+        }
+
+        @Override
+        public long run(int operations) {
+            long loadedChunks = 0;
+            for (int i = 0; i < operations; i++) {
+                if (gameView.getWindowPositionX() >= scrollEnd) {
+                    velocityX = -SCROLL_SPEED;
+                } else if (gameView.getWindowPositionX() <= 0) {
+                    velocityX = SCROLL_SPEED;
+                }
+                gameView.setLevelVelocityX(velocityX);
+                gameView.update();
+                layout.update();
+                loadedChunks += layout.getLastLoadedChunk() - layout.getFirstLoadedChunk();
+            }
+            return loadedChunks;
+        }
+    }
+
+    /**
+     * Operation: collision query of a player sized box with platforms or traps,
+     * boxes are placed near the platforms and traps of the game window and randomly in the game window
+     */
+    private static class CollisionQueries implements Operation {
+
+        private final GameLevelLayout layout;
+        private final boolean traps;
+        private final double[] positionsX = new double[QUERY_COUNT];
+        private final double[] positionsY = new double[QUERY_COUNT];
+        private final int width;
+        private final int height;
+        private int next = 0;
+
+        CollisionQueries(double density, boolean traps) {
+            this.traps = traps;
+            GameWorld world = createWorld(density, new HeadlessGame.ScriptedControl(0));
+            layout = world.getLevelLayout();
+            width = world.getPlayer().getCharacterFrameWidth();
+            height = world.getPlayer().getCharacterFrameHeight();
+
+            // Jump the game window into the level
+            GameView gameView = world.getGameView();
+            gameView.setMoving(true);
+            gameView.setLevelVelocityX(QUERY_WINDOW_POSITION);
+            gameView.update();
+            layout.update();
+
+            // Objects of the queried type near the game window
+            List<GameObject> objects = new ArrayList<>();
+            int type = traps ? LevelFile.TYPE_BEAR_TRAP : LevelFile.TYPE_PLATFORM;
+            for (int chunk = layout.getFirstLoadedChunk(); chunk < layout.getLastLoadedChunk(); chunk++) {
+                PlacementIndex placements = layout.getPlacements(chunk, type);
+                for (int i = placements.getFirst(); i < placements.getLast(); i++) {
+                    objects.add(placements.getObject(i));
+                }
+            }
+
+            // Half of the boxes stand near the objects (bottom of the box is given to the queries)
+            Random random = new Random(SEED);
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                if (i % 2 == 0 && !objects.isEmpty()) {
+                    GameObject object = objects.get(random.nextInt(objects.size()));
+                    positionsX[i] = object.getPositionOnLevelX() - width + random.nextDouble() * 2 * width;
+                    positionsY[i] = object.getPositionOnLevelY() + random.nextDouble() * height;
+                } else {
+                    positionsX[i] = QUERY_WINDOW_POSITION + random.nextDouble() * gameView.getWindowWidth();
+                    positionsY[i] = random.nextDouble() * 320;
+                }
+            }
+        }
+
+        @Override
+        public long run(int operations) {
+            long hits = 0;
+            for (int i = 0; i < operations; i++) {
+                if (traps) {
+                    hits += layout.isOnTrap(positionsX[next], positionsY[next], width, height) ? 1 : 0;
+                } else {
+                    hits += layout.isOnPlatform(positionsX[next], positionsY[next], width, height);
+                }
+                next = (next + 1) % QUERY_COUNT;
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * Operation: query of a player sized box near the moving game window with the collision broadphase
+     * or by checking every collider. Colliders are spread over a long level (platforms and traps, moving enemies and spells),
+     * moving colliders move after each QUERY_COUNT queries.
+     */
+    private static class BroadphaseQueries implements Operation {
+
+        private final boolean useBroadphase;
+        private final CollisionBroadphase broadphase = new CollisionBroadphase();
+        private final int colliderCount;
+        private final float[] left;
+        private final float[] top;
+        private final float[] width;
+        private final float[] height;
+        private final float[] velocity;
+        private final int[] layer;
+        private final int[] ids;
+        private final float[] queryLeft = new float[QUERY_COUNT];
+        private final float[] queryTop = new float[QUERY_COUNT];
+        private final int[] queryLayerMask = new int[QUERY_COUNT];
+        private final int[] result;
+        private float windowX = 0;
+        private int next = 0;
+
+        BroadphaseQueries(int colliderCount, boolean useBroadphase) {
+            this.useBroadphase = useBroadphase;
+            this.colliderCount = colliderCount;
+            left = new float[colliderCount];
+            top = new float[colliderCount];
+            width = new float[colliderCount];
+            height = new float[colliderCount];
+            velocity = new float[colliderCount];
+            layer = new int[colliderCount];
+            ids = new int[colliderCount];
+            result = new int[colliderCount];
+
+            Random random = new Random(SEED);
+            for (int i = 0; i < colliderCount; i++) {
+                boolean moving = random.nextInt(100) < MOVING_PERCENT;
+                left[i] = random.nextFloat() * BROADPHASE_LEVEL_LENGTH;
+                top[i] = random.nextFloat() * 300;
+                width[i] = 20 + random.nextFloat() * 100;
+                height[i] = 10 + random.nextFloat() * 40;
+                velocity[i] = moving ? random.nextFloat() * 6 - 3 : 0;
+                layer[i] = moving
+                        ? (random.nextBoolean() ? CollisionBroadphase.LAYER_ENEMY : CollisionBroadphase.LAYER_SPELL)
+                        : (random.nextBoolean() ? CollisionBroadphase.LAYER_PLATFORM : CollisionBroadphase.LAYER_TRAP);
+                ids[i] = broadphase.add(null, layer[i], left[i], top[i], left[i] + width[i], top[i] + height[i]);
+            }
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                queryLeft[i] = random.nextFloat() * 480;
+                queryTop[i] = random.nextFloat() * 300;
+                queryLayerMask[i] = 1 << random.nextInt(4);
+            }
+
+            // Both ways find the same colliders
+            for (int i = 0; i < QUERY_COUNT; i++) {
+                int found = queryBroadphase(i);
+                int expected = queryEveryCollider(i);
+                if (found != expected) {
+                    throw new IllegalStateException("Broadphase found " + found + " colliders, expected " + expected);
+                }
+            }
+        }
+
+        private int queryBroadphase(int query) {
+            float queryX = windowX + queryLeft[query];
+            return broadphase.query(queryX, queryTop[query], queryX + 40, queryTop[query] + 60, queryLayerMask[query], result);
+        }
+
+        private int queryEveryCollider(int query) {
+            float queryX = windowX + queryLeft[query];
+            float queryRight = queryX + 40;
+            float queryBottom = queryTop[query] + 60;
+            int found = 0;
+            for (int i = 0; i < colliderCount; i++) {
+                if ((layer[i] & queryLayerMask[query]) != 0
+                        && left[i] < queryRight && left[i] + width[i] > queryX
+                        && top[i] < queryBottom && top[i] + height[i] > queryTop[query]) {
+                    found++;
+                }
+            }
+            return found;
+        }
+
+        /**
+         * Move the game window and the moving colliders (enemies and spells)
+         */
+        private void move() {
+            windowX = (windowX + 5) % BROADPHASE_LEVEL_LENGTH;
+            for (int i = 0; i < colliderCount; i++) {
+                if (velocity[i] != 0) {
+                    left[i] += velocity[i];
+                    broadphase.move(ids[i], left[i], top[i], left[i] + width[i], top[i] + height[i]);
+                }
+            }
+        }
+
+        @Override
+        public long run(int operations) {
+            long found = 0;
+            for (int i = 0; i < operations; i++) {
+                found += useBroadphase ? queryBroadphase(next) : queryEveryCollider(next);
+                next++;
+                if (next == QUERY_COUNT) {
+                    next = 0;
+                    move();
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Check that the parallel update of the pool gives the same slimes as the sequential update (bit for bit)
+     *
+     * @return operation of the parallel update
+     */
+    private static SlimeAi checkParallelUpdate(ForkJoinPool pool) {
+        SlimeAi sequential = new SlimeAi(PARALLEL_SLIMES, true, null);
+        SlimeAi parallel = new SlimeAi(PARALLEL_SLIMES, true, pool);
+        sequential.run(PARALLEL_CHECK_TICKS);
+        parallel.run(PARALLEL_CHECK_TICKS);
+        SlimeStore expected = sequential.slimes;
+        SlimeStore actual = parallel.slimes;
+        for (int i = 0; i < expected.getCount(); i++) {
+            if (Double.doubleToRawLongBits(expected.getPositionOnLevelX(i)) != Double.doubleToRawLongBits(actual.getPositionOnLevelX(i))
+                    || Double.doubleToRawLongBits(expected.getDirectionX(i)) != Double.doubleToRawLongBits(actual.getDirectionX(i))
+                    || Double.doubleToRawLongBits(expected.getDirectionY(i)) != Double.doubleToRawLongBits(actual.getDirectionY(i))
+                    || expected.getHealthPoints(i) != actual.getHealthPoints(i)
+                    || expected.getSpellToCast(i) != actual.getSpellToCast(i)
+                    || expected.isTimeToCountHitDamage(i) != actual.isTimeToCountHitDamage(i)) {
+                throw new IllegalStateException("Slime " + i + " differs after the parallel update");
+            }
+        }
+        return parallel;
+    }
+
+    /**
+     * Operation: first phase of the enemy update of a tick (AI of all slimes, with the AI level of detail
+     * or every slime every tick), slimes are spread around the standing player
+     */
+    private static class SlimeAi implements Operation {
+
+        private final SlimeStore slimes;
+        private final AiLodScheduler aiLodScheduler;
+        private final boolean aiLod;
+        private final ForkJoinPool pool;
+        private final double playerCenterX;
+        private final double playerCenterY;
+
+        /**
+         * @param pool - pool of the parallel update, null for the sequential update (used only with the AI level of detail)
+         */
+        SlimeAi(int slimeCount, boolean aiLod, ForkJoinPool pool) {
+            this.aiLod = aiLod;
+            this.pool = pool;
+            GameWorld world = createWorld(0, new HeadlessGame.ScriptedControl(0));
+            slimes = world.getSlimes();
+            aiLodScheduler = world.getAiLodScheduler();
+            AnimalCharacter player = world.getPlayer();
+            playerCenterX = player.getPositionOnLevelX() + player.getCharacterFrameWidth() / 2;
+            playerCenterY = player.getPositionOnLevelY() + player.getCharacterFrameHeight() / 2;
+
+            Random random = new Random(SEED);
+            for (int i = 0; i < slimeCount; i++) {
+                world.spawnEnemy(SlimeStore.NO_PLACEMENT, (int) (playerCenterX + (random.nextDouble() * 2 - 1) * SPREAD), (int) SLIME_POSITION_Y);
+            }
+        }
+
+        @Override
+        public long run(int operations) {
+            for (int i = 0; i < operations; i++) {
+                if (aiLod) {
+                    aiLodScheduler.startUpdate();
+                    slimes.update(playerCenterX, playerCenterY, aiLodScheduler, pool);
+                } else {
+                    slimes.update(playerCenterX, playerCenterY);
+                }
+            }
+            return slimes.getCount();
+        }
+    }
+
+    /**
+     * Operation: spells of a tick are moved and tested for a hit with the player,
+     * spells that finished the hit animation or flew away are replaced with new ones (the number of spells stays the same)
+     */
+    private static class SpellUpdate implements Operation {
+
+        private final SpellStore spells;
+        private final Random random = new Random(SEED);
+        private final double playerCenterX;
+        private final double playerCenterY;
+        private final double hitRadius;
+
+        SpellUpdate(int spellCount) {
+            GameWorld world = createWorld(0, new HeadlessGame.ScriptedControl(0));
+            spells = world.getSpells();
+            AnimalCharacter player = world.getPlayer();
+            playerCenterX = player.getPositionOnLevelX() + player.getCharacterFrameWidth() / 2;
+            playerCenterY = player.getPositionOnLevelY() + player.getCharacterFrameHeight() / 2;
+            hitRadius = player.getCharacterFrameWidth() - 27;
+            if (spellCount > spells.getCapacity()) {
+                throw new IllegalArgumentException("Spell count " + spellCount + " is above the capacity of the spell store");
+            }
+            for (int i = 0; i < spellCount; i++) {
+                addSpell();
+            }
+        }
+
+        /**
+         * Add spell near the player flying in a random direction (spells are casted from both sides of the player)
+         */
+        private void addSpell() {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            spells.add(playerCenterX + (random.nextDouble() * 2 - 1) * SPREAD, playerCenterY,
+                    Math.cos(angle), Math.sin(angle), 0);
+        }
+
+        @Override
+        public long run(int operations) {
+            long hits = 0;
+            for (int i = 0; i < operations; i++) {
+                int spell = 0;
+                while (spell < spells.getCount()) {
+                    spells.update(spell);
+                    if (spells.isHit(spell, playerCenterX, playerCenterY, hitRadius)) {
+                        spells.setAnimationHit(spell);
+                        hits++;
+                    }
+                    if (spells.isFinishedAnimation(spell) || Math.abs(spells.getPositionOnLevelX(spell) - playerCenterX) > SPREAD) {
+                        spells.remove(spell);
+                        addSpell();
+                        continue;
+                    }
+                    spell++;
+                }
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * Operation: the whole GameWorld.update() tick, the scripted player walks right through the endless level
+     * (bites, jumps and heals as in the HeadlessGame)
+     */
+    private static class WorldTick implements Operation {
+
+        private final GameWorld world;
+        private int tick = 0;
+
+        WorldTick(double density) {
+            world = createWorld(density, new HeadlessGame.ScriptedControl(1));
+        }
+
+        @Override
+        public long run(int operations) {
+            for (int i = 0; i < operations; i++) {
+                HeadlessGame.playScript(world, tick++);
+                world.update();
+            }
+            return world.getSpells().getCount();
+        }
+    }
+
+    /**
+     * Operation: a VectorMath helper or the math that it replaced, over random points
+     * (distance threshold, normalize, angle bucket of the direction)
+     */
+    private static class VectorMathCase implements Operation {
+
+        static final int THRESHOLD_POW = 0;
+        static final int THRESHOLD_SQUARED = 1;
+        static final int NORMALIZE_POW = 2;
+        static final int NORMALIZE_INVERSE = 3;
+        static final int ANGLE_BUCKET_MATH = 4;
+        static final int ANGLE_BUCKET_TABLE = 5;
+
+        private final int math;
+        private final double[] pointsX = new double[POINT_COUNT];
+        private final double[] pointsY = new double[POINT_COUNT];
+        private int next = 0;
+
+        VectorMathCase(int math) {
+            this.math = math;
+            Random random = new Random(SEED);
+            for (int i = 0; i < POINT_COUNT; i++) {
+                pointsX[i] = (random.nextDouble() * 2 - 1) * POINT_SPREAD;
+                pointsY[i] = (random.nextDouble() * 2 - 1) * POINT_SPREAD;
+            }
+
+            // Table angle buckets may only differ for directions within the atan2 error from a border between two buckets
+            for (int i = 0; i < POINT_COUNT; i++) {
+                int difference = VectorMath.getAngleBucket(pointsX[i], pointsY[i], ANGLE_BUCKETS) - getMathAngleBucket(pointsX[i], pointsY[i]);
+                if (difference != 0 && Math.abs(difference) != 1 && Math.abs(difference) != ANGLE_BUCKETS - 1) {
+                    throw new IllegalStateException("Angle bucket of point " + i + " differs from Math.atan2() by " + difference);
+                }
+            }
+        }
+
+        @Override
+        public long run(int operations) {
+            double sum = 0;
+            for (int i = 0; i < operations; i++) {
+                double x = pointsX[next];
+                double y = pointsY[next];
+                switch (math) {
+                    case THRESHOLD_POW:
+                        sum += Math.sqrt(Math.pow(x - 0, 2) + Math.pow(y - 0, 2)) < DISTANCE_THRESHOLD ? 1 : 0;
+                        break;
+                    case THRESHOLD_SQUARED:
+                        sum += VectorMath.isCloserThan(0, 0, x, y, DISTANCE_THRESHOLD) ? 1 : 0;
+                        break;
+                    case NORMALIZE_POW:
+                        double distance = Math.sqrt(Math.pow(x - 0, 2) + Math.pow(y - 0, 2));
+                        sum += x / distance + y / distance;
+                        break;
+                    case NORMALIZE_INVERSE:
+                        double inverseDistance = VectorMath.getInverseLength(x, y);
+                        sum += x * inverseDistance + y * inverseDistance;
+                        break;
+                    case ANGLE_BUCKET_MATH:
+                        sum += getMathAngleBucket(x, y);
+                        break;
+                    case ANGLE_BUCKET_TABLE:
+                        sum += VectorMath.getAngleBucket(x, y, ANGLE_BUCKETS);
+                        break;
+                }
+                next = (next + 1) % POINT_COUNT;
+            }
+            return (long) sum;
+        }
+
+        /**
+         * Angle bucket as it was found before VectorMath
+         */
+        private static int getMathAngleBucket(double directionX, double directionY) {
+            double turns = Math.atan2(directionY, directionX) / (2 * Math.PI);
+            int bucket = (int) Math.round(turns * ANGLE_BUCKETS) % ANGLE_BUCKETS;
+            return bucket < 0 ? bucket + ANGLE_BUCKETS : bucket;
+        }
+    }
+}
@@ -1,17 +1,17 @@
 package com.example.dogvillev2.controls;
 
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 
+import com.example.dogvillev2.utilities.AtlasRegion;
+
 /**
  * Button class represents a single bitmap button with two states: pressed or released.
  * It is used in Game to control player jumps / attacks.
  */
 public class Button {
 
-    private final Bitmap[] buttonBitmaps;
-    private final Rect buttonBitmapRect;
+    private final AtlasRegion[] buttonBitmaps;
     private final Rect buttonOnScreenRect;
     private final int PRESSED = 1;
     private final int RELEASED = 0;
@@ -20,25 +20,19 @@ public class Button {
     private int buttonFrameUsed = 0;
     private int updatesTillRelease; // Number of game loop updates per second is controlled in game loop
 
-    public Button(int centerPositionX, int centerPositionY, Bitmap releasedBitmap, Bitmap pressedBitmap) {
+    public Button(int centerPositionX, int centerPositionY, AtlasRegion releasedBitmap, AtlasRegion pressedBitmap) {
 
-        buttonBitmaps = new Bitmap[2];
+        // Button frames (regions of the texture atlas)
+        buttonBitmaps = new AtlasRegion[2];
         buttonBitmaps[RELEASED] = releasedBitmap;
         buttonBitmaps[PRESSED] = pressedBitmap;
 
-        buttonBitmapRect = new Rect(
-                0,
-                0,
-                releasedBitmap.getWidth(),
-                releasedBitmap.getHeight()
-        );
-
         // Position of button on the game screen
         buttonOnScreenRect = new Rect(
-                (int) (centerPositionX - buttonBitmapRect.width() * sizeMultiplier / 2),
-                (int) (centerPositionY - buttonBitmapRect.height() * sizeMultiplier / 2),
-                (int) (centerPositionX - buttonBitmapRect.width() * sizeMultiplier / 2 + buttonBitmapRect.width() * sizeMultiplier),
-                (int) (centerPositionY - buttonBitmapRect.height() * sizeMultiplier / 2 + buttonBitmapRect.height() * sizeMultiplier)
+                (int) (centerPositionX - releasedBitmap.getWidth() * sizeMultiplier / 2),
+                (int) (centerPositionY - releasedBitmap.getHeight() * sizeMultiplier / 2),
+                (int) (centerPositionX - releasedBitmap.getWidth() * sizeMultiplier / 2 + releasedBitmap.getWidth() * sizeMultiplier),
+                (int) (centerPositionY - releasedBitmap.getHeight() * sizeMultiplier / 2 + releasedBitmap.getHeight() * sizeMultiplier)
         );
     }
 
@@ -83,8 +77,8 @@ public class Button {
     public void draw(Canvas canvas) {
 
         canvas.drawBitmap(
-                buttonBitmaps[buttonFrameUsed],
-                buttonBitmapRect,
+                buttonBitmaps[buttonFrameUsed].getBitmap(),
+                buttonBitmaps[buttonFrameUsed].getRect(),
                 buttonOnScreenRect,
                 null);
     }
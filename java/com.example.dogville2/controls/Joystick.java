@@ -1,17 +1,18 @@
 package com.example.dogvillev2.controls;
 
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Rect;
 
 import com.example.dogvillev2.R;
-import com.example.dogvillev2.utilities.BitmapLoader;
-import com.example.dogvillev2.utilities.Utils;
+import com.example.dogvillev2.gameObjects.characters.AnimalCharacter;
+import com.example.dogvillev2.utilities.AtlasRegion;
+import com.example.dogvillev2.utilities.TextureAtlas;
+import com.example.dogvillev2.utilities.VectorMath;
 
 /**
  * Joystick class creates a virtual joystick that controls movement of player
  */
-public class Joystick {
+public class Joystick implements AnimalCharacter.MovementControl {
 
     private final int outerCircleRadius;
     private final int outerCircleCenterPositionX;
@@ -21,15 +22,14 @@ public class Joystick {
     private final int LEFT = 0;
     private final int UP = 3;
     private final int DOWN = 4;
-    private final Bitmap[] joystickBitmaps;
-    private final Rect joystickBitmapRect;
+    private final AtlasRegion[] joystickBitmaps;
     private final Rect joystickOnScreenRect;
     private boolean isPressed;
     private double actuatorX;
     private double actuatorY;
     private int joystickFrameUsed = 1;
 
-    public Joystick(int centerPositionX, int centerPositionY, BitmapLoader bitmapLoader) {
+    public Joystick(int centerPositionX, int centerPositionY, TextureAtlas textureAtlas) {
 
         // Radius of the circles
         outerCircleRadius = 25 + 20;
@@ -41,26 +41,22 @@ public class Joystick {
         outerCircleCenterPositionX = centerPositionX;
         outerCircleCenterPositionY = centerPositionY;
 
-        // Joystick frames
-        joystickBitmaps = new Bitmap[5];
-        joystickBitmaps[LEFT] = bitmapLoader.loadBitmap(R.drawable.joystick_2);
-        joystickBitmaps[MIDDLE] = bitmapLoader.loadBitmap(R.drawable.joystick_0);
-        joystickBitmaps[RIGHT] = bitmapLoader.loadBitmap(R.drawable.joystick_1);
-        joystickBitmaps[UP] = bitmapLoader.loadBitmap(R.drawable.joystick_up);
-        joystickBitmaps[DOWN] = bitmapLoader.loadBitmap(R.drawable.joystick_down);
-
-        joystickBitmapRect = new Rect(
-                0,
-                0,
-                joystickBitmaps[MIDDLE].getWidth(),
-                joystickBitmaps[MIDDLE].getHeight()
-        );
+        // Joystick frames (regions of the texture atlas)
+        joystickBitmaps = new AtlasRegion[5];
+        joystickBitmaps[LEFT] = textureAtlas.getRegion(R.drawable.joystick_2);
+        joystickBitmaps[MIDDLE] = textureAtlas.getRegion(R.drawable.joystick_0);
+        joystickBitmaps[RIGHT] = textureAtlas.getRegion(R.drawable.joystick_1);
+        joystickBitmaps[UP] = textureAtlas.getRegion(R.drawable.joystick_up);
+        joystickBitmaps[DOWN] = textureAtlas.getRegion(R.drawable.joystick_down);
+
+        int joystickBitmapWidth = joystickBitmaps[MIDDLE].getWidth();
+        int joystickBitmapHeight = joystickBitmaps[MIDDLE].getHeight();
 
         joystickOnScreenRect = new Rect(
-                (int) (centerPositionX - joystickBitmapRect.width() * sizeMultiplier / 2),
-                (int) (centerPositionY - joystickBitmapRect.height() * sizeMultiplier / 2),
-                (int) (centerPositionX - joystickBitmapRect.width() * sizeMultiplier / 2 + joystickBitmapRect.width() * sizeMultiplier),
-                (int) (centerPositionY - joystickBitmapRect.height() * sizeMultiplier / 2 + joystickBitmapRect.height() * sizeMultiplier)
+                (int) (centerPositionX - joystickBitmapWidth * sizeMultiplier / 2),
+                (int) (centerPositionY - joystickBitmapHeight * sizeMultiplier / 2),
+                (int) (centerPositionX - joystickBitmapWidth * sizeMultiplier / 2 + joystickBitmapWidth * sizeMultiplier),
+                (int) (centerPositionY - joystickBitmapHeight * sizeMultiplier / 2 + joystickBitmapHeight * sizeMultiplier)
         );
 
     }
@@ -91,9 +87,9 @@ public class Joystick {
      */
     public void draw(Canvas canvas) {
 
-        // Draw joystick from bitmap
-        canvas.drawBitmap(joystickBitmaps[joystickFrameUsed],
-                joystickBitmapRect,
+        // Draw joystick from the texture atlas
+        canvas.drawBitmap(joystickBitmaps[joystickFrameUsed].getBitmap(),
+                joystickBitmaps[joystickFrameUsed].getRect(),
                 joystickOnScreenRect,
                 null);
     }
@@ -107,13 +103,13 @@ public class Joystick {
      */
     public boolean isPressed(double touchPositionX, double touchPositionY) {
 
-        double joystickCenterToTouchDistance = Utils.getDistanceBetweenPoints(
+        return VectorMath.isCloserThan(
                 outerCircleCenterPositionX,
                 outerCircleCenterPositionY,
                 touchPositionX,
-                touchPositionY
+                touchPositionY,
+                outerCircleRadius
         );
-        return joystickCenterToTouchDistance < outerCircleRadius;
     }
 
     public boolean getIsPressed() {
@@ -131,14 +127,15 @@ public class Joystick {
     public void setActuator(double touchPositionX, double touchPositionY) {
         double deltaX = touchPositionX - outerCircleCenterPositionX;
         double deltaY = touchPositionY - outerCircleCenterPositionY;
-        double deltaDistance = Utils.getDistanceBetweenPoints(0, 0, deltaX, deltaY);
 
-        if (deltaDistance < outerCircleRadius) {
+        if (deltaX * deltaX + deltaY * deltaY < outerCircleRadius * outerCircleRadius) {
             actuatorX = deltaX / outerCircleRadius;
             actuatorY = deltaY / outerCircleRadius;
         } else {
-            actuatorX = deltaX / deltaDistance;
-            actuatorY = deltaY / deltaDistance;
+            // Actuator stays on the outer circle
+            double inverseDistance = VectorMath.getInverseLength(deltaX, deltaY);
+            actuatorX = deltaX * inverseDistance;
+            actuatorY = deltaY * inverseDistance;
         }
     }
 
@@ -154,6 +151,7 @@ public class Joystick {
      * Return value of actuator on X axis,
      * used by the player object (or any other object that the joystick should control).
      */
+    @Override
     public double getActuatorX() {
         return actuatorX;
     }
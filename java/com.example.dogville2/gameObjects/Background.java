@@ -1,18 +1,17 @@
 package com.example.dogvillev2.gameObjects;
 
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
-import android.graphics.Rect;
 
 import com.example.dogvillev2.layout.GameDisplay;
 import com.example.dogvillev2.layout.GameView;
+import com.example.dogvillev2.utilities.AtlasRegion;
 
 /**
  * Background class represents looping background images
  */
 public class Background extends BitmapGameObject {
 
-    public Background(Bitmap image, GameView gameView, double positionOnLevelX, double positionOnLevelY) {
+    public Background(AtlasRegion image, GameView gameView, double positionOnLevelX, double positionOnLevelY) {
         super(image, gameView, positionOnLevelX, positionOnLevelY);
     }
 
@@ -26,11 +25,14 @@ public class Background extends BitmapGameObject {
 
         super.update();
 
+        double positionBeforeLoopX = positionOnLevelX;
         if (positionOnLevelX < gameView.getWindowPositionX() - GameDisplay.GAME_WIDTH_BUFF_CANVAS) {
             positionOnLevelX = gameView.getWindowPositionX();
         } else if (positionOnLevelX > gameView.getWindowPositionX()) {
             positionOnLevelX = gameView.getWindowPositionX() - GameDisplay.GAME_WIDTH_BUFF_CANVAS;
         }
+        // Move the previous position together with the looped image, so drawing between updates does not jump
+        previousPositionOnLevelX += positionOnLevelX - positionBeforeLoopX;
     }
 
 
@@ -42,27 +44,32 @@ public class Background extends BitmapGameObject {
     @Override
     public void draw(Canvas canvas) {
 
+        int drawPositionX = (int) this.getDrawPositionX();
+        int drawPositionY = (int) this.getDrawPositionY();
+
         // Draw left image
+        inGameWindowRectangle.set(drawPositionX,
+                drawPositionY,
+                drawPositionX + bitmapRectangle.width(),
+                drawPositionY + bitmapRectangle.height());
         canvas.drawBitmap(
                 image,
                 bitmapRectangle,
-                new Rect((int) this.getPositionX(),
-                        (int) this.getPositionY(),
-                        (int) this.getPositionX() + bitmapRectangle.width(),
-                        (int) this.getPositionY() + bitmapRectangle.height()),
+                inGameWindowRectangle,
                 //gameDisplay.getRectangleForBuffCanvas(this.getPositionX(), this.getPositionY(), bitmapRectangle.width(), bitmapRectangle.height()),
                 null
         );
 
         // Draw right image
-        if (positionOnLevelX < gameView.getWindowPositionX()) {
+        if (drawPositionX < 0) {
+            inGameWindowRectangle.set(drawPositionX - 1 + GameDisplay.GAME_WIDTH_BUFF_CANVAS,
+                    drawPositionY,
+                    drawPositionX - 1 + GameDisplay.GAME_WIDTH_BUFF_CANVAS + bitmapRectangle.width(),
+                    drawPositionY + bitmapRectangle.height());
             canvas.drawBitmap(
                     image,
                     bitmapRectangle,
-                    new Rect((int) this.getPositionX() - 1 + GameDisplay.GAME_WIDTH_BUFF_CANVAS,
-                            (int) this.getPositionY(),
-                            (int) this.getPositionX() - 1 + GameDisplay.GAME_WIDTH_BUFF_CANVAS + bitmapRectangle.width(),
-                            (int) this.getPositionY() + bitmapRectangle.height()),
+                    inGameWindowRectangle,
                     //gameDisplay.getRectangleForBuffCanvas(this.getPositionX() - 1 + GameDisplay.GAME_WIDTH_BUFF_CANVAS, this.getPositionY(), bitmapRectangle.width(), bitmapRectangle.height()),
                     null);
         }
@@ -5,26 +5,30 @@ import android.graphics.Canvas;
 import android.graphics.Rect;
 
 import com.example.dogvillev2.layout.GameView;
+import com.example.dogvillev2.utilities.AtlasRegion;
 
 /**
  * Bitmap Game Object represents bitmap game objects (not animated)
+ * drawn from a region of the texture atlas, for example backgrounds of the LevelRenderer.
  */
 public class BitmapGameObject extends GameObject {
 
-    public Bitmap image;
-    public Rect bitmapRectangle;
+    public Bitmap image; // Atlas page
+    public Rect bitmapRectangle; // Region of the image on the atlas page
+    // Place of the bitmap in game window, reused each frame
+    protected final Rect inGameWindowRectangle = new Rect();
 
     private double speedMultiplier = 1.0; // Speed relative to player (for parallax movement effect)
 
-    public BitmapGameObject(Bitmap image, GameView gameView, double positionOnLevelX, double positionOnLevelY) {
+    public BitmapGameObject(AtlasRegion image, GameView gameView, double positionOnLevelX, double positionOnLevelY) {
         super(
                 gameView,
                 positionOnLevelX,
                 positionOnLevelY
         );
 
-        this.image = image;
-        this.bitmapRectangle = new Rect(0, 0, image.getWidth(), image.getHeight());
+        this.image = image.getBitmap();
+        this.bitmapRectangle = image.getRect();
     }
 
     /**
@@ -43,6 +47,8 @@ public class BitmapGameObject extends GameObject {
     @Override
     public void update() {
 
+        savePreviousPosition();
+
         // Update position relative to player movement
         if (gameView.isMoving()) {
             positionOnLevelX += gameView.getLevelVelocityX() * (1 - speedMultiplier);
@@ -53,18 +59,19 @@ public class BitmapGameObject extends GameObject {
     }
 
     /**
-     * Draw BitmapGameObject on canvas, called by the Game object
+     * Draw BitmapGameObject on canvas, called by the LevelRenderer
      *
      * @param canvas - any canvas from the Game class
      */
-    @Override
     public void draw(Canvas canvas) {
 
-        Rect inGameWindowRectangle = new Rect(
-                (int) (this.getPositionX()),
-                (int) (this.getPositionY()),
-                (int) (this.getPositionX() + bitmapRectangle.width()),
-                (int) (this.getPositionY() + bitmapRectangle.height())
+        double drawPositionX = this.getDrawPositionX();
+        double drawPositionY = this.getDrawPositionY();
+        inGameWindowRectangle.set(
+                (int) (drawPositionX),
+                (int) (drawPositionY),
+                (int) (drawPositionX + bitmapRectangle.width()),
+                (int) (drawPositionY + bitmapRectangle.height())
         );
 
         canvas.drawBitmap(
@@ -1,12 +1,12 @@
 package com.example.dogvillev2.gameObjects;
 
-import android.graphics.Canvas;
-
+import com.example.dogvillev2.layout.CollisionBroadphase;
 import com.example.dogvillev2.layout.GameView;
 
 /**
  * Game object is an abstract class that represents all objects in the game
  * Coordinates of game objects are related to the GameLevel.
+ * Game objects keep only the state of the simulation, they are drawn by the renderers (LevelRenderer, CharacterRenderer).
  */
 public abstract class GameObject {
 
@@ -15,6 +15,9 @@ public abstract class GameObject {
     // Position on game level
     protected double positionOnLevelX;
     protected double positionOnLevelY;
+    // Position on game level before the latest update (frames drawn between updates are interpolated)
+    protected double previousPositionOnLevelX;
+    protected double previousPositionOnLevelY;
 
     // Initial movement
     protected double velocityX = 0;
@@ -24,23 +27,57 @@ public abstract class GameObject {
     protected double directionX = 1;
     protected double directionY = 0;
 
+    // Id of the object in the collision broadphase
+    private int colliderId = CollisionBroadphase.NO_COLLIDER;
+
     public GameObject(GameView gameView, double positionOnLevelX, double positionOnLevelY) {
         this.gameView = gameView;
         this.positionOnLevelX = positionOnLevelX;
         this.positionOnLevelY = positionOnLevelY;
+        savePreviousPosition();
     }
 
     /**
-     * Draw method is used by the game loop to draw game object on the canvas.
-     *
-     * @param canvas - surface to draw game on
+     * Update method is called by the game loop to update state of the game object (coordinates, animation frame etc.)
      */
-    public abstract void draw(Canvas canvas);
+    public abstract void update();
 
     /**
-     * Update method is called by the game loop to update state of the game object (coordinates, animation frame etc.)
+     * Move the object to a new place on the level without movement between the positions
+     * (used when a removed object is reused). Objects with own state reset it here too.
      */
-    public abstract void update();
+    public void resetPosition(double positionOnLevelX, double positionOnLevelY) {
+        this.positionOnLevelX = positionOnLevelX;
+        this.positionOnLevelY = positionOnLevelY;
+        savePreviousPosition();
+    }
+
+    /**
+     * Remember current position as the position before update,
+     * called at the start of update() by the objects that move.
+     */
+    protected void savePreviousPosition() {
+        previousPositionOnLevelX = positionOnLevelX;
+        previousPositionOnLevelY = positionOnLevelY;
+    }
+
+    /**
+     * Get position X in game window to draw the object at:
+     * position between the previous and the current update (see GameView.setInterpolation())
+     */
+    public double getDrawPositionX() {
+        double interpolation = gameView.getInterpolation();
+        return gameView.getInDrawWindowPositionX(previousPositionOnLevelX + (positionOnLevelX - previousPositionOnLevelX) * interpolation);
+    }
+
+    /**
+     * Get position Y in game window to draw the object at:
+     * position between the previous and the current update (see GameView.setInterpolation())
+     */
+    public double getDrawPositionY() {
+        double interpolation = gameView.getInterpolation();
+        return gameView.getInWindowPositionY(previousPositionOnLevelY + (positionOnLevelY - previousPositionOnLevelY) * interpolation);
+    }
 
     public double getPositionX() {
         return gameView.getInWindowPositionX(positionOnLevelX);
@@ -58,6 +95,17 @@ public abstract class GameObject {
         return positionOnLevelY;
     }
 
+    /**
+     * Get id of the object in the collision broadphase (NO_COLLIDER if the object is not registered)
+     */
+    public int getColliderId() {
+        return colliderId;
+    }
+
+    public void setColliderId(int colliderId) {
+        this.colliderId = colliderId;
+    }
+
     public double getDirectionX() {
         return directionX;
     }
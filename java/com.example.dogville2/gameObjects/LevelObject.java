@@ -0,0 +1,36 @@
+package com.example.dogvillev2.gameObjects;
+
+import com.example.dogvillev2.layout.GameView;
+
+/**
+ * Level Object represents static objects of the level (trees, stones, platforms) created by the GameLevelLayout.
+ * Keeps only the size of the object image (platforms are collided by it),
+ * the image of the object type is drawn by the LevelRenderer.
+ */
+public class LevelObject extends GameObject {
+
+    private final int width;
+    private final int height;
+
+    public LevelObject(GameView gameView, double positionOnLevelX, double positionOnLevelY, int width, int height) {
+        super(gameView, positionOnLevelX, positionOnLevelY);
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Static objects do not move on the level, only the position before update is kept for drawing
+     */
+    @Override
+    public void update() {
+        savePreviousPosition();
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+}
@@ -1,82 +1,57 @@
 package com.example.dogvillev2.gameObjects.animated;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Rect;
-
-import com.example.dogvillev2.GameLoop;
 import com.example.dogvillev2.gameObjects.GameObject;
 import com.example.dogvillev2.layout.GameView;
-import com.example.dogvillev2.sounds.GameSounds;
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.sounds.SoundPlayer;
 
 /**
  * Bear Trap object represents a single trap that can be placed anywhere on the game level.
  * It is activated by player.
+ * The trap keeps the number of its current frame, frames of the source image are drawn by the LevelRenderer.
  */
 public class BearTrap extends GameObject {
 
     // Rate of changing animation frames
     private static final double FRAMES_PER_SECOND = 10;
-    private static final int UPDATES_PER_FRAME = (int) (GameLoop.MAX_UPS / FRAMES_PER_SECOND);
-    // Bitmap frames of the trap
+    private static final int UPDATES_PER_FRAME = (int) (GameWorld.MAX_UPS / FRAMES_PER_SECOND);
+    // Number of frames in the source image (the image is cut into FRAME_COUNT squares)
+    public static final int FRAME_COUNT = 4; // USED + 1
+    // Size of a single frame
     private final int frameWidth;
     private final int frameHeight;
-    private final Rect frameRect;
-    private final Bitmap[] frames;
     // Trap state is always unactivated on creation
     private final int UNACTIVATED = 0;
     private final int IN_ACTION = 2;
     private final int USED = 3; // the last frame in source bitmap, can add more frames
-    GameSounds gameSounds;
+    SoundPlayer gameSounds;
     private int updatesTillNextFrame = UPDATES_PER_FRAME;
     private int currentFrameUsed = UNACTIVATED;
 
-    public BearTrap(GameView gameView, double positionOnLevelX, double positionOnLevelY, Bitmap sourceImage, GameSounds gameSounds) {
+    /**
+     * @param frameWidth  - width of a single frame (width of the source image / FRAME_COUNT)
+     * @param frameHeight - height of the source image
+     */
+    public BearTrap(GameView gameView, double positionOnLevelX, double positionOnLevelY, int frameWidth, int frameHeight, SoundPlayer gameSounds) {
         super(gameView, positionOnLevelX, positionOnLevelY);
 
-        // Fill the array of frames from the source image ("cut" source image into squares)
-        frameWidth = sourceImage.getWidth() / (USED + 1);
-        frameHeight = sourceImage.getHeight();
-        frameRect = new Rect(0, 0, frameWidth, frameHeight);
-        frames = new Bitmap[USED + 1];
-        for (int col = 0; col < (USED + 1); col++) {
-            frames[col] = Bitmap.createBitmap(
-                    sourceImage,
-                    col * frameWidth,
-                    0,
-                    frameWidth,
-                    frameHeight
-            );
-        }
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
 
         this.gameSounds = gameSounds;
     }
 
-
     /**
-     * Draw BearTrap on canvas, called by the Game (inside GameLevelLayout.update)
-     *
-     * @param canvas - drawing surface
+     * Move reused trap to the new place, the trap is unactivated again
      */
     @Override
-    public void draw(Canvas canvas) {
-
-        // Get the rect of the frame in coordinates of the game view window (place to put the frame on the canvas)
-        Rect inGameWindowRect = new Rect(
-                (int) (this.getPositionX()),
-                (int) (this.getPositionY()),
-                (int) (this.getPositionX() + frameWidth),
-                (int) (this.getPositionY() + frameHeight)
-        );
-
-        // Draw frame on canvas
-        canvas.drawBitmap(
-                frames[currentFrameUsed],
-                frameRect,
-                inGameWindowRect,
-                null);
+    public void resetPosition(double positionOnLevelX, double positionOnLevelY) {
+        super.resetPosition(positionOnLevelX, positionOnLevelY);
+        currentFrameUsed = UNACTIVATED;
+        updatesTillNextFrame = UPDATES_PER_FRAME;
     }
 
+
     /**
      * Update trap frame, called by the Game (inside GameLevelLayout.update)
      * Updates only for traps in the activated state.
@@ -116,6 +91,22 @@ public class BearTrap extends GameObject {
         return currentFrameUsed == IN_ACTION;
     }
 
+    /**
+     * Get state of the trap: number of the current frame (0 - unactivated, 3 - used), saved when the trap leaves the game window
+     * and drawn by the LevelRenderer
+     */
+    public int getTrapState() {
+        return currentFrameUsed;
+    }
+
+    /**
+     * Restore saved state of the trap (animation of the activated trap continues from the saved frame)
+     */
+    public void setTrapState(int trapState) {
+        currentFrameUsed = trapState;
+        updatesTillNextFrame = UPDATES_PER_FRAME;
+    }
+
     /**
      * Get frame with (used for collision calculations)
      */
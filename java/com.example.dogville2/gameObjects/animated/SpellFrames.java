@@ -0,0 +1,52 @@
+package com.example.dogvillev2.gameObjects.animated;
+
+import com.example.dogvillev2.utilities.VectorMath;
+
+/**
+ * SpellFrames describes animation of the flying spell without images: size of a single frame,
+ * number of frames in each row (launch - flight - hit) and number of rotation angles of the frames.
+ * The SpellStore is animated with it, SpellSpriteSheet adds the frames of the source image and the rotation atlas.
+ */
+public class SpellFrames {
+
+    // Number of frames in each row (inconsistent value in the source)
+    protected static int[] ROW_MAX_FRAMES = {7, 14, 15};
+    // Number of row in a source image starting from 0
+    protected static final int ROW_LAUNCH = 0;
+    protected static final int ROW_FLIGHT = 1;
+    protected static final int ROW_HIT = 2;
+    // Single frame size
+    protected final int frameWidth;
+    protected final int frameHeight;
+    // Number of rotation angles of the frames
+    protected final int angleBuckets;
+
+    public SpellFrames(int frameWidth, int frameHeight, int angleBuckets) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.angleBuckets = angleBuckets;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * Get number of frames in each row of animation (launch - flight - hit)
+     */
+    public int[] getRowMaxFrames() {
+        return ROW_MAX_FRAMES;
+    }
+
+    /**
+     * Get the nearest angle bucket for the direction of the spell.
+     * Called once when the spell is casted, as the spell direction does not change during the flight.
+     */
+    public int getAngleBucket(double directionX, double directionY) {
+        return VectorMath.getAngleBucket(directionX, directionY, angleBuckets);
+    }
+}
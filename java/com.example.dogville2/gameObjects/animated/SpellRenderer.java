@@ -0,0 +1,68 @@
+package com.example.dogvillev2.gameObjects.animated;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.example.dogvillev2.layout.GameView;
+
+/**
+ * SpellRenderer draws spells of the SpellStore with the spell sprite sheet
+ * (pre-rotated frames of the rotation atlas, or frames rotated on canvas if there is no atlas).
+ */
+public class SpellRenderer {
+
+    private final SpellSpriteSheet spellSpriteSheet;
+    private final GameView gameView;
+    private final Rect atlasFrameRect = new Rect();
+    // Place of the frame in game window, reused for each spell
+    private final Rect inGameWindowRectangle = new Rect();
+
+    public SpellRenderer(SpellSpriteSheet spellSpriteSheet, GameView gameView) {
+        this.spellSpriteSheet = spellSpriteSheet;
+        this.gameView = gameView;
+    }
+
+    /**
+     * Draw all spells of the store, called by the draw() method of the Game
+     */
+    public void draw(Canvas canvas, SpellStore spells) {
+        double interpolation = gameView.getInterpolation();
+        for (int i = 0; i < spells.getCount(); i++) {
+            // Spells are drawn between their previous and current positions
+            double drawPositionX = gameView.getInDrawWindowPositionX(
+                    spells.previousPositionX[i] + (spells.positionX[i] - spells.previousPositionX[i]) * interpolation);
+            double drawPositionY = gameView.getInWindowPositionY(
+                    spells.previousPositionY[i] + (spells.positionY[i] - spells.previousPositionY[i]) * interpolation);
+            inGameWindowRectangle.set(
+                    (int) (drawPositionX),
+                    (int) (drawPositionY),
+                    (int) (drawPositionX + spellSpriteSheet.frameWidth),
+                    (int) (drawPositionY + spellSpriteSheet.frameHeight)
+            );
+            int row = spells.rowUsingAnimationFrame[i];
+            int col = spells.colUsingAnimationFrame[i];
+
+            // Draw pre-rotated frame from the rotation atlas
+            if (spellSpriteSheet.hasRotationAtlas()) {
+                spellSpriteSheet.getRotatedFrameRect(row, col, spells.angleBucket[i], atlasFrameRect);
+                canvas.drawBitmap(
+                        spellSpriteSheet.getRotationAtlas(),
+                        atlasFrameRect,
+                        inGameWindowRectangle,
+                        null);
+                continue;
+            }
+
+            // Rotation atlas is not available, rotate canvas around the center of the frame instead
+            canvas.save();
+            canvas.rotate(spellSpriteSheet.getAngleOfBucket(spells.angleBucket[i]),
+                    inGameWindowRectangle.exactCenterX(), inGameWindowRectangle.exactCenterY());
+            canvas.drawBitmap(
+                    spellSpriteSheet.getSheetBitmap(),
+                    spellSpriteSheet.getFrame(row, col),
+                    inGameWindowRectangle,
+                    null);
+            canvas.restore();
+        }
+    }
+}
@@ -1,98 +1,169 @@
 package com.example.dogvillev2.gameObjects.animated;
 
 import android.graphics.Bitmap;
-import android.graphics.Matrix;
+import android.graphics.Canvas;
+import android.graphics.Paint;
 import android.graphics.Rect;
 
+import com.example.dogvillev2.utilities.AtlasRegion;
+
 /**
- * Sprite sheet for the flying spell,
- * a single sprite sheet is used by multiple spell objects
+ * Sprite sheet for the flying spell (region of the texture atlas),
+ * a single sprite sheet is used by multiple spell objects.
+ * All frames are pre-rotated once into the rotation atlas (one row of frames per angle bucket),
+ * so spells are drawn without rotating bitmaps in every frame.
+ * Frame size, rows of animation and angle buckets are kept by the SpellFrames (used by the simulation without images).
  */
-public class SpellSpriteSheet {
-
-    // Number of frames in each row (inconsistent value in the source)
-    protected static int[] ROW_MAX_FRAMES = {7, 14, 15};
-    // Single frame size
-    protected final int frameWidth;
-    protected final int frameHeight;
-    protected final Rect frameRect;
-    // Number of row in a source image starting from 0
-    protected final int ROW_LAUNCH = 0;
-    protected final int ROW_FLIGHT = 1;
-    protected final int ROW_HIT = 2;
-    // Array of frames for different status
-    private final Bitmap[] launchBitmaps;
-    private final Bitmap[] flightBitmaps;
-    private final Bitmap[] hitBitmaps;
-    // For rotation of frames
-    protected Matrix matrixOfBitmap = new Matrix();
-    protected Matrix matrixFlipped = new Matrix();
+public class SpellSpriteSheet extends SpellFrames {
+
+    // Default number of rotation angles prepared for each frame and maximum size of the rotation atlas
+    public static final int DEFAULT_ANGLE_BUCKETS = 32;
+    public static final int DEFAULT_ATLAS_MEMORY_BUDGET_BYTES = 8 * 1024 * 1024;
+    private static final int BYTES_PER_PIXEL = 4; // ARGB_8888
+    // Atlas page with the source image and frames for different status (rectangles on the atlas page)
+    private final Bitmap sheetBitmap;
+    private final Rect[] launchFrames;
+    private final Rect[] flightFrames;
+    private final Rect[] hitFrames;
+    // Position of the first frame of each row in the rotation atlas
+    private final int[] rowAtlasOffsets;
+    // Frames rotated by each angle bucket, null if the atlas does not fit into the memory budget
+    private final Bitmap rotationAtlas;
 
     /**
-     * Initialize sprite sheet (called by Game constructor)
+     * Initialize sprite sheet with default rotation atlas settings (called by Game constructor)
      */
-    public SpellSpriteSheet(Bitmap sourceImage, int colCountInSourceImage, int rowCountInSourceImage) {
+    public SpellSpriteSheet(AtlasRegion sourceImage, int colCountInSourceImage, int rowCountInSourceImage) {
+        this(sourceImage, colCountInSourceImage, rowCountInSourceImage, DEFAULT_ANGLE_BUCKETS, DEFAULT_ATLAS_MEMORY_BUDGET_BYTES);
+    }
 
-        frameWidth = sourceImage.getWidth() / colCountInSourceImage;
-        frameHeight = sourceImage.getHeight() / rowCountInSourceImage;
-        this.frameRect = new Rect(0, 0, frameWidth, frameHeight);
+    /**
+     * Initialize sprite sheet and prepare rotation atlas.
+     *
+     * @param angleBuckets      number of rotation angles prepared for each frame (for example 32 or 64)
+     * @param memoryBudgetBytes maximum size of the rotation atlas, spells are rotated on canvas if the atlas is bigger
+     */
+    public SpellSpriteSheet(AtlasRegion sourceImage, int colCountInSourceImage, int rowCountInSourceImage, int angleBuckets, int memoryBudgetBytes) {
 
-        matrixFlipped.postScale(-1, 1);
+        super(sourceImage.getWidth() / colCountInSourceImage, sourceImage.getHeight() / rowCountInSourceImage, angleBuckets);
+        sheetBitmap = sourceImage.getBitmap();
 
-        // Fill arrays with bitmap frames (sub-images of the source image)
-        launchBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_LAUNCH]];
-        flightBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_FLIGHT]];
-        hitBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_HIT]];
+        // Fill arrays with frames (sub-rectangles of the source image)
+        launchFrames = new Rect[ROW_MAX_FRAMES[ROW_LAUNCH]];
+        flightFrames = new Rect[ROW_MAX_FRAMES[ROW_FLIGHT]];
+        hitFrames = new Rect[ROW_MAX_FRAMES[ROW_HIT]];
 
         for (int col = 0; col < colCountInSourceImage; col++) {
             if (col < ROW_MAX_FRAMES[ROW_LAUNCH]) {
-                launchBitmaps[col] = createFrameImageAt(sourceImage, ROW_LAUNCH, col);
+                launchFrames[col] = createFrameRectAt(sourceImage, ROW_LAUNCH, col);
             }
             if (col < ROW_MAX_FRAMES[ROW_FLIGHT]) {
-                flightBitmaps[col] = createFrameImageAt(sourceImage, ROW_FLIGHT, col);
+                flightFrames[col] = createFrameRectAt(sourceImage, ROW_FLIGHT, col);
             }
             if (col < ROW_MAX_FRAMES[ROW_HIT]) {
-                hitBitmaps[col] = createFrameImageAt(sourceImage, ROW_HIT, col);
+                hitFrames[col] = createFrameRectAt(sourceImage, ROW_HIT, col);
+            }
+        }
+
+        // Frames of all rows are placed one after another in a single atlas row
+        rowAtlasOffsets = new int[ROW_MAX_FRAMES.length];
+        int framesCount = 0;
+        for (int row = 0; row < ROW_MAX_FRAMES.length; row++) {
+            rowAtlasOffsets[row] = framesCount;
+            framesCount += ROW_MAX_FRAMES[row];
+        }
+
+        long atlasSizeBytes = (long) framesCount * frameWidth * angleBuckets * frameHeight * BYTES_PER_PIXEL;
+        if (atlasSizeBytes <= memoryBudgetBytes) {
+            rotationAtlas = createRotationAtlas(framesCount);
+        } else {
+            rotationAtlas = null;
+        }
+    }
+
+    /**
+     * Draw every frame rotated by every angle bucket onto a single bitmap.
+     * Frames are rotated around their centers and keep their original size.
+     */
+    private Bitmap createRotationAtlas(int framesCount) {
+        Bitmap atlas = Bitmap.createBitmap(framesCount * frameWidth, angleBuckets * frameHeight, Bitmap.Config.ARGB_8888);
+        Canvas atlasCanvas = new Canvas(atlas);
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        Rect rotatedFrameRect = new Rect();
+
+        for (int bucket = 0; bucket < angleBuckets; bucket++) {
+            for (int row = 0; row < ROW_MAX_FRAMES.length; row++) {
+                for (int col = 0; col < ROW_MAX_FRAMES[row]; col++) {
+                    getRotatedFrameRect(row, col, bucket, rotatedFrameRect);
+
+                    // Corners of the rotated frame are cut, so they do not overlap neighbour frames
+                    atlasCanvas.save();
+                    atlasCanvas.clipRect(rotatedFrameRect.left, rotatedFrameRect.top, rotatedFrameRect.right, rotatedFrameRect.bottom);
+                    atlasCanvas.rotate(getAngleOfBucket(bucket), rotatedFrameRect.exactCenterX(), rotatedFrameRect.exactCenterY());
+                    atlasCanvas.drawBitmap(sheetBitmap, getFrame(row, col), rotatedFrameRect, paint);
+                    atlasCanvas.restore();
+                }
             }
         }
+        return atlas;
     }
 
     /**
-     * Get a single frame from the bitmap source (to fill the bitmap frames array)
+     * Get a single frame from the source image (to fill the frames arrays)
      */
-    private Bitmap createFrameImageAt(Bitmap image, int row, int col) {
-        return Bitmap.createBitmap(
-                image,
-                col * frameWidth,
-                row * frameHeight,
-                frameWidth,
-                frameHeight
-        );
+    private Rect createFrameRectAt(AtlasRegion image, int row, int col) {
+        int left = image.getRect().left + col * frameWidth;
+        int top = image.getRect().top + row * frameHeight;
+        return new Rect(left, top, left + frameWidth, top + frameHeight);
+    }
+
+    /**
+     * Get atlas page that contains frames of the sprite sheet (not rotated)
+     */
+    public Bitmap getSheetBitmap() {
+        return sheetBitmap;
     }
 
     /**
      * Get frame from the array of frames that corresponds to current animation type (launch - flight - hit)
      */
-    public Bitmap getFrame(int rowFrameUsing, int colFrameUsing) {
-        Bitmap currentFrame;
+    public Rect getFrame(int rowFrameUsing, int colFrameUsing) {
         if (rowFrameUsing == ROW_LAUNCH) {
-            currentFrame = launchBitmaps[colFrameUsing];
+            return launchFrames[colFrameUsing];
         } else if (rowFrameUsing == ROW_FLIGHT) {
-            currentFrame = flightBitmaps[colFrameUsing];
-        } else {
-            currentFrame = hitBitmaps[colFrameUsing];
+            return flightFrames[colFrameUsing];
         }
-        return currentFrame;
+        return hitFrames[colFrameUsing];
+    }
+
+    /**
+     * Check if pre-rotated frames are available (false when the atlas exceeded its memory budget)
+     */
+    public boolean hasRotationAtlas() {
+        return rotationAtlas != null;
+    }
+
+    /**
+     * Get bitmap with all pre-rotated frames, frames are located with getRotatedFrameRect()
+     */
+    public Bitmap getRotationAtlas() {
+        return rotationAtlas;
+    }
+
+    /**
+     * Get rotation angle in degrees that corresponds to the angle bucket
+     */
+    public float getAngleOfBucket(int angleBucket) {
+        return angleBucket * 360f / angleBuckets;
     }
 
     /**
-     * Get current animation frame of the spell
-     * (rotated direction is towards the position of the player when the spell was casted)
+     * Fill the rectangle of the rotated frame in the rotation atlas
+     * (the rectangle is passed in by the caller so no new objects are created while drawing)
      */
-    public Bitmap getFrame(int rowFrameUsing, int colFrameUsing, double directionX, double directionY) {
-        Bitmap currentFrame = getFrame(rowFrameUsing, colFrameUsing);
-        double angle = Math.atan2(directionY, directionX) * 180 / Math.PI;
-        matrixOfBitmap.setRotate((float) angle);
-        return Bitmap.createBitmap(currentFrame, 0, 0, frameWidth, frameHeight, matrixOfBitmap, true);
+    public void getRotatedFrameRect(int rowFrameUsing, int colFrameUsing, int angleBucket, Rect rotatedFrameRect) {
+        int left = (rowAtlasOffsets[rowFrameUsing] + colFrameUsing) * frameWidth;
+        int top = angleBucket * frameHeight;
+        rotatedFrameRect.set(left, top, left + frameWidth, top + frameHeight);
     }
 }
@@ -0,0 +1,339 @@
+package com.example.dogvillev2.gameObjects.animated;
+
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.utilities.VectorMath;
+
+import java.util.Arrays;
+
+/**
+ * SpellStore keeps all flying water spells in parallel primitive arrays (one array per field, index is the spell),
+ * spell movement and animation run as one tight loop over the arrays.
+ * Spells are removed by moving the last spell into the freed index (swap-remove), so the indices after the last spell
+ * are the free list: casting takes the first free index and removing is O(1), the arrays are allocated once.
+ * The store has a fixed capacity, the overflow policy decides what happens to a spell cast when all indices are taken:
+ * the oldest spell is dropped, the cast is refused, or the arrays grow.
+ * Counters (peak number of spells, dropped and refused casts) are shown by the performance panel.
+ * The store has no Android dependencies: spells are drawn by SpellRenderer.
+ */
+public class SpellStore {
+
+    public static final int NO_SPELL = -1;
+    // Overflow policies: what to do with a new spell when the store is full
+    public static final int OVERFLOW_DROP_OLDEST = 0;
+    public static final int OVERFLOW_REFUSE = 1;
+    public static final int OVERFLOW_GROW = 2;
+
+    // Maximum speed of the spell
+    public static final double SPEED_PIXELS_PER_SECOND = 100; // Spell flows fast
+    private static final double MAX_SPEED = SPEED_PIXELS_PER_SECOND / GameWorld.MAX_UPS; // pixels per update
+    // The rate of changing frames
+    private static final double FRAMES_PER_SECOND = 10;
+    private static final int UPDATES_PER_FRAME = (int) (GameWorld.MAX_UPS / FRAMES_PER_SECOND);
+
+    // Sprite sheet parameters shared by all spells
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int[] rowMaxFrames;
+
+    private final int overflowPolicy;
+    private int count = 0;
+    private long castCount = 0; // Number of the next cast, spells are ordered by their cast numbers
+    private int peakCount = 0;
+    private int droppedCount = 0;
+    private int refusedCount = 0;
+    private int growCount = 0;
+
+    // Position on game level and position before the latest update (for drawing between updates)
+    double[] positionX;
+    double[] positionY;
+    double[] previousPositionX;
+    double[] previousPositionY;
+    private double[] velocityX;
+    private double[] velocityY;
+
+    // Animation, rotation of the spell frames is chosen once on launch
+    int[] rowUsingAnimationFrame;
+    int[] colUsingAnimationFrame;
+    private int[] updatesTillNextFrame;
+    int[] angleBucket;
+    private boolean[] isFinishedAnimation;
+    private boolean[] countedHit;
+
+    private long[] castNumber;
+
+    /**
+     * @param frameWidth     - width of the spell frame
+     * @param frameHeight    - height of the spell frame
+     * @param rowMaxFrames   - number of frames in each row of animation (see SpellFrames)
+     * @param capacity       - number of spells the store holds without growing
+     * @param overflowPolicy - one of the OVERFLOW_ constants
+     */
+    public SpellStore(int frameWidth, int frameHeight, int[] rowMaxFrames, int capacity, int overflowPolicy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity of the spell store should be positive");
+        }
+        if (overflowPolicy < OVERFLOW_DROP_OLDEST || overflowPolicy > OVERFLOW_GROW) {
+            throw new IllegalArgumentException("Unknown overflow policy " + overflowPolicy);
+        }
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.rowMaxFrames = rowMaxFrames;
+        this.overflowPolicy = overflowPolicy;
+        positionX = new double[capacity];
+        positionY = new double[capacity];
+        previousPositionX = new double[capacity];
+        previousPositionY = new double[capacity];
+        velocityX = new double[capacity];
+        velocityY = new double[capacity];
+        rowUsingAnimationFrame = new int[capacity];
+        colUsingAnimationFrame = new int[capacity];
+        updatesTillNextFrame = new int[capacity];
+        angleBucket = new int[capacity];
+        isFinishedAnimation = new boolean[capacity];
+        countedHit = new boolean[capacity];
+        castNumber = new long[capacity];
+    }
+
+    /**
+     * Cast spell from the position in the direction, direction and velocity stay constant from launch.
+     * When the store is full the overflow policy is applied: with OVERFLOW_DROP_OLDEST the oldest spell is removed
+     * and counted as dropped, with OVERFLOW_REFUSE the spell is not cast.
+     *
+     * @param angleBucket - rotation of the spell frames (see SpellFrames.getAngleBucket())
+     * @return index of the spell, NO_SPELL if the cast is refused
+     */
+    public int add(double positionOnLevelX, double positionOnLevelY, double directionX, double directionY, int angleBucket) {
+        if (count == positionX.length) {
+            if (overflowPolicy == OVERFLOW_REFUSE) {
+                refusedCount++;
+                return NO_SPELL;
+            }
+            if (overflowPolicy == OVERFLOW_DROP_OLDEST) {
+                droppedCount++;
+                remove(getOldest());
+            } else {
+                grow();
+            }
+        }
+        int i = count++;
+        peakCount = Math.max(peakCount, count);
+        castNumber[i] = castCount++;
+        positionX[i] = positionOnLevelX;
+        positionY[i] = positionOnLevelY;
+        previousPositionX[i] = positionOnLevelX;
+        previousPositionY[i] = positionOnLevelY;
+        velocityX[i] = directionX * MAX_SPEED;
+        velocityY[i] = directionY * MAX_SPEED;
+        rowUsingAnimationFrame[i] = SpellFrames.ROW_LAUNCH;
+        colUsingAnimationFrame[i] = 0;
+        updatesTillNextFrame[i] = UPDATES_PER_FRAME;
+        this.angleBucket[i] = angleBucket;
+        isFinishedAnimation[i] = false;
+        countedHit[i] = false;
+        return i;
+    }
+
+    /**
+     * Remove spell: the last spell is moved into its index
+     *
+     * @return previous index of the moved spell (equals the removed index if the removed spell was the last one)
+     */
+    public int remove(int i) {
+        int last = --count;
+        if (i != last) {
+            positionX[i] = positionX[last];
+            positionY[i] = positionY[last];
+            previousPositionX[i] = previousPositionX[last];
+            previousPositionY[i] = previousPositionY[last];
+            velocityX[i] = velocityX[last];
+            velocityY[i] = velocityY[last];
+            rowUsingAnimationFrame[i] = rowUsingAnimationFrame[last];
+            colUsingAnimationFrame[i] = colUsingAnimationFrame[last];
+            updatesTillNextFrame[i] = updatesTillNextFrame[last];
+            angleBucket[i] = angleBucket[last];
+            isFinishedAnimation[i] = isFinishedAnimation[last];
+            countedHit[i] = countedHit[last];
+            castNumber[i] = castNumber[last];
+        }
+        return last;
+    }
+
+    /**
+     * Find spell with the lowest cast number (spells are reordered by swap-remove, so the oldest one is searched for,
+     * only when the store overflows)
+     */
+    private int getOldest() {
+        int oldest = 0;
+        for (int i = 1; i < count; i++) {
+            if (castNumber[i] < castNumber[oldest]) {
+                oldest = i;
+            }
+        }
+        return oldest;
+    }
+
+    /**
+     * Update all spells (position on level, animation frame)
+     */
+    public void update() {
+        for (int i = 0; i < count; i++) {
+            update(i);
+        }
+    }
+
+    /**
+     * Update single spell (the Game updates spells one by one, as hit spells and missed spells are removed in the same loop)
+     */
+    public void update(int i) {
+        // ------------------------ Manage X Y coordinates---------------------------//
+        previousPositionX[i] = positionX[i];
+        previousPositionY[i] = positionY[i];
+        positionX[i] += velocityX[i];
+        positionY[i] += velocityY[i];
+
+        // ------------------------ Manage animation ------------------------------//
+        // Wait until updates pass before switching frame
+        if (--updatesTillNextFrame[i] > 0) {
+            return;
+        }
+
+        // Change animation frame
+        int row = rowUsingAnimationFrame[i];
+        int col = ++colUsingAnimationFrame[i];
+        if (row == SpellFrames.ROW_LAUNCH && col >= rowMaxFrames[SpellFrames.ROW_LAUNCH]) {
+            // Transition from launch to flight animation
+            colUsingAnimationFrame[i] = 0;
+            rowUsingAnimationFrame[i] = SpellFrames.ROW_FLIGHT;
+        } else if (row == SpellFrames.ROW_FLIGHT && col >= rowMaxFrames[SpellFrames.ROW_FLIGHT]) {
+            // Repeat flight animation
+            colUsingAnimationFrame[i] = 0;
+        } else if (row == SpellFrames.ROW_HIT && col == rowMaxFrames[SpellFrames.ROW_HIT]) {
+            colUsingAnimationFrame[i]--;
+            // Set animation status finished on end of hit
+            isFinishedAnimation[i] = true;
+        }
+
+        // Number of updates before next frame change
+        updatesTillNextFrame[i] = UPDATES_PER_FRAME;
+    }
+
+    /**
+     * Trigger hit animation, called after check for collision with the player in Game
+     */
+    public void setAnimationHit(int i) {
+        if (rowUsingAnimationFrame[i] != SpellFrames.ROW_HIT) {
+            rowUsingAnimationFrame[i] = SpellFrames.ROW_HIT;
+            colUsingAnimationFrame[i] = 0;
+        }
+        velocityX[i] = 0;
+        velocityY[i] = 0;
+    }
+
+    /**
+     * Check for the collision of the spell with a round target (distance between the centers is less than the radius)
+     *
+     * @param centerX - center of the target on the level
+     * @param centerY - center of the target on the level
+     */
+    public boolean isHit(int i, double centerX, double centerY, double radius) {
+        return VectorMath.isCloserThan(positionX[i] + frameWidth / 2, positionY[i] + frameHeight / 2, centerX, centerY, radius);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Check if the spell is ready to be removed from the game
+     */
+    public boolean isFinishedAnimation(int i) {
+        return isFinishedAnimation[i];
+    }
+
+    /**
+     * Hit animation takes multiple updates, the countedHit flag helps to count damage only once.
+     * Called by the Game before taking health points.
+     */
+    public void countHit(int i) {
+        countedHit[i] = true;
+    }
+
+    /**
+     * Is spell damage already counted
+     */
+    public boolean isCountedHit(int i) {
+        return countedHit[i];
+    }
+
+    public double getPositionOnLevelX(int i) {
+        return positionX[i];
+    }
+
+    public double getPositionOnLevelY(int i) {
+        return positionY[i];
+    }
+
+    /**
+     * Get number of spells the store holds without dropping, refusing or growing
+     */
+    public int getCapacity() {
+        return positionX.length;
+    }
+
+    /**
+     * Get the largest number of spells at the same time
+     */
+    public int getPeakCount() {
+        return peakCount;
+    }
+
+    /**
+     * Get number of spells dropped to cast new ones (OVERFLOW_DROP_OLDEST)
+     */
+    public int getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * Get number of refused casts (OVERFLOW_REFUSE)
+     */
+    public int getRefusedCount() {
+        return refusedCount;
+    }
+
+    /**
+     * Get number of times the arrays grew (OVERFLOW_GROW)
+     */
+    public int getGrowCount() {
+        return growCount;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * Double capacity of the arrays (only with OVERFLOW_GROW, when the store is full)
+     */
+    private void grow() {
+        growCount++;
+        int capacity = positionX.length * 2;
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        previousPositionX = Arrays.copyOf(previousPositionX, capacity);
+        previousPositionY = Arrays.copyOf(previousPositionY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        velocityY = Arrays.copyOf(velocityY, capacity);
+        rowUsingAnimationFrame = Arrays.copyOf(rowUsingAnimationFrame, capacity);
+        colUsingAnimationFrame = Arrays.copyOf(colUsingAnimationFrame, capacity);
+        updatesTillNextFrame = Arrays.copyOf(updatesTillNextFrame, capacity);
+        angleBucket = Arrays.copyOf(angleBucket, capacity);
+        isFinishedAnimation = Arrays.copyOf(isFinishedAnimation, capacity);
+        countedHit = Arrays.copyOf(countedHit, capacity);
+        castNumber = Arrays.copyOf(castNumber, capacity);
+    }
+}
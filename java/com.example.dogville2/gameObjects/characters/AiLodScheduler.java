@@ -0,0 +1,92 @@
+package com.example.dogvillev2.gameObjects.characters;
+
+/**
+ * AiLodScheduler decides how often the AI of a character (slimes, the cat) is updated, by the distance to the player:
+ * characters in the near band are updated every game update, in the mid band every MID_INTERVAL updates,
+ * far characters sleep and only check their distance every FAR_INTERVAL updates.
+ * Rules are deterministic: a character updated at tick t gets its band from the distance at t
+ * and is updated next at t + interval of the band, skipped updates are caught up in the animation.
+ * Slimes only move, cast spells and attack within 400 pixels from the player, the bands keep enough margin
+ * for the player to not come that close between two updates of a mid or far character.
+ * Counts of characters in each band are collected for the performance panel.
+ */
+public class AiLodScheduler {
+
+    public static final int BAND_NEAR = 0;
+    public static final int BAND_MID = 1;
+    public static final int BAND_FAR = 2;
+    public static final int BAND_COUNT = 3;
+
+    // Distance to the player where the mid and far bands start (pixels)
+    public static final double NEAR_DISTANCE = 480;
+    public static final double MID_DISTANCE = 960;
+    // Updates between AI updates of characters of the mid and far bands
+    public static final int MID_INTERVAL = 4;
+    public static final int FAR_INTERVAL = 32;
+    // Skipped updates are caught up in the animation, but not more than this (a long sleeping character wakes up)
+    public static final int MAX_CATCH_UP_UPDATES = 2 * FAR_INTERVAL;
+
+    private final int[] intervals = {1, MID_INTERVAL, FAR_INTERVAL};
+    private final int[] bandCounts = new int[BAND_COUNT];
+    private final int[] lastBandCounts = new int[BAND_COUNT];
+    private long tick = 0;
+
+    /**
+     * Start a game update: the tick moves forward and band counts of the previous update are kept for reading
+     */
+    public void startUpdate() {
+        tick++;
+        for (int band = 0; band < BAND_COUNT; band++) {
+            lastBandCounts[band] = bandCounts[band];
+            bandCounts[band] = 0;
+        }
+    }
+
+    /**
+     * Get number of the current game update
+     */
+    public long getTick() {
+        return tick;
+    }
+
+    /**
+     * Get band of a character by its distance to the player
+     */
+    public int getBand(double distanceToPlayer) {
+        if (distanceToPlayer < NEAR_DISTANCE) {
+            return BAND_NEAR;
+        }
+        return distanceToPlayer < MID_DISTANCE ? BAND_MID : BAND_FAR;
+    }
+
+    /**
+     * Get number of updates between AI updates of characters of the band
+     */
+    public int getInterval(int band) {
+        return intervals[band];
+    }
+
+    /**
+     * Get number of updates passed since the last AI update of a character (1 for characters that were never updated)
+     */
+    public int getElapsedUpdates(long lastUpdateTick) {
+        if (lastUpdateTick < 0) {
+            return 1;
+        }
+        return (int) Math.min(tick - lastUpdateTick, MAX_CATCH_UP_UPDATES);
+    }
+
+    /**
+     * Count character in the band (called for each character each update, updated or skipped)
+     */
+    public void count(int band) {
+        bandCounts[band]++;
+    }
+
+    /**
+     * Get number of characters in the band during the last finished update
+     */
+    public int getBandCount(int band) {
+        return lastBandCounts[band];
+    }
+}
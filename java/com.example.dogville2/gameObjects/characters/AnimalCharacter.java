@@ -1,29 +1,42 @@
 package com.example.dogvillev2.gameObjects.characters;
 
-import com.example.dogvillev2.GameLoop;
-import com.example.dogvillev2.controls.Joystick;
 import com.example.dogvillev2.layout.GameLevelLayout;
 import com.example.dogvillev2.layout.GameView;
-import com.example.dogvillev2.sounds.GameSounds;
-import com.example.dogvillev2.utilities.Utils;
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.sounds.SoundPlayer;
+import com.example.dogvillev2.utilities.VectorMath;
 
 /**
  * AnimalCharacter object represents player in game,
  * its movement is controlled with virtual joystick and actions controlled with taps on screen
+ * (the headless simulation controls the player with its own MovementControl)
  */
 public class AnimalCharacter extends Sprite {
 
     // Maximum speed of the character
     public static final double SPEED_PIXELS_PER_SECOND = 50.0;
     public static final double GRAVITY = 0.15;
-    private static final double MAX_SPEED = SPEED_PIXELS_PER_SECOND / GameLoop.MAX_UPS; // pixels per update
+    private static final double MAX_SPEED = SPEED_PIXELS_PER_SECOND / GameWorld.MAX_UPS; // pixels per update
     // Controls movement
-    private final Joystick joystick;
+    private final MovementControl joystick;
+    // Platforms and traps the player collides with
+    private final GameLevelLayout gameLevelLayout;
     private boolean inJump = false;
 
-    public AnimalCharacter(GameView gameView, CharacterSpriteSheet characterSpriteSheet, Joystick joystick, double positionOnLevelX, double positionOnLevelY, GameSounds gameSounds) {
-        super(gameView, positionOnLevelX, positionOnLevelY, characterSpriteSheet, gameSounds);
+    /**
+     * Controls movement of the player, implemented by the Joystick
+     */
+    public interface MovementControl {
+        /**
+         * Get horizontal movement from -1 (full speed to the left) to 1 (full speed to the right)
+         */
+        double getActuatorX();
+    }
+
+    public AnimalCharacter(GameView gameView, CharacterFrames characterFrames, MovementControl joystick, GameLevelLayout gameLevelLayout, double positionOnLevelX, double positionOnLevelY, SoundPlayer gameSounds) {
+        super(gameView, positionOnLevelX, positionOnLevelY, characterFrames, gameSounds);
         this.joystick = joystick;
+        this.gameLevelLayout = gameLevelLayout;
 
     }
 
@@ -35,6 +48,8 @@ public class AnimalCharacter extends Sprite {
     @Override
     public void update() {
 
+        savePreviousPosition();
+
         // Don't update dead player
         if (isSpriteDead) {
             return;
@@ -55,7 +70,7 @@ public class AnimalCharacter extends Sprite {
             }
 
             // Check for collision with platforms from the game level layout
-            int onPlatformY = GameLevelLayout.isOnPlatform(getPositionOnLevelX(), getPositionOnLevelY() + getCharacterFrameHeight(), getCharacterFrameWidth(), getCharacterFrameHeight());
+            int onPlatformY = gameLevelLayout.isOnPlatform(getPositionOnLevelX(), getPositionOnLevelY() + getCharacterFrameHeight(), getCharacterFrameWidth(), getCharacterFrameHeight());
 
             if (velocityY > 0 && onPlatformY != 0) {
                 velocityY = 0;
@@ -69,12 +84,12 @@ public class AnimalCharacter extends Sprite {
         }
 
         // Fall down from platform
-        if (!inJump && GameLevelLayout.isOnPlatform(getPositionOnLevelX(), getPositionOnLevelY() + getCharacterFrameHeight(), getCharacterFrameWidth(), getCharacterFrameHeight()) == 0 && positionOnLevelY < 243) {
+        if (!inJump && gameLevelLayout.isOnPlatform(getPositionOnLevelX(), getPositionOnLevelY() + getCharacterFrameHeight(), getCharacterFrameWidth(), getCharacterFrameHeight()) == 0 && positionOnLevelY < 243) {
             inJump = true;
         }
 
         // Check for collision with traps
-        if (GameLevelLayout.isOnTrap(getPositionOnLevelX(), getPositionOnLevelY() + getCharacterFrameHeight(), getCharacterFrameWidth(), getCharacterFrameHeight())) {
+        if (gameLevelLayout.isOnTrap(getPositionOnLevelX(), getPositionOnLevelY() + getCharacterFrameHeight(), getCharacterFrameWidth(), getCharacterFrameHeight())) {
             changeHealthPoint(-1);
         }
 
@@ -84,9 +99,9 @@ public class AnimalCharacter extends Sprite {
 
         // Update direction (for casting spells etc.)
         if (velocityX != 0 || velocityY != 0) {
-            double distance = Utils.getDistanceBetweenPoints(0, 0, velocityX, velocityY);
-            directionX = velocityX / distance;
-            directionY = velocityY / distance;
+            double inverseSpeed = VectorMath.getInverseLength(velocityX, velocityY);
+            directionX = velocityX * inverseSpeed;
+            directionY = velocityY * inverseSpeed;
         }
 
         // Update current animation frame
@@ -94,15 +109,15 @@ public class AnimalCharacter extends Sprite {
 
         // Update current type of animation
         if (velocityX != 0 || velocityY != 0) {
-            setAnimation(CharacterSpriteSheet.ROW_WALK);
+            setAnimation(CharacterFrames.ROW_WALK);
         } else {
-            setAnimation(CharacterSpriteSheet.ROW_IDLE);
+            setAnimation(CharacterFrames.ROW_IDLE);
         }
     }
 
 
     public void attack() {
-        this.setAnimation(CharacterSpriteSheet.ROW_ATTACK, true);
+        this.setAnimation(CharacterFrames.ROW_ATTACK, true);
     }
 
 
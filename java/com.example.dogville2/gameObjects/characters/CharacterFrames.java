@@ -0,0 +1,43 @@
+package com.example.dogvillev2.gameObjects.characters;
+
+/**
+ * CharacterFrames describes animation of a character without images: size of a single frame
+ * and number of frames in each row of animation (type of action).
+ * Characters and the SlimeStore are animated with it, CharacterSpriteSheet adds the frames of the source image.
+ */
+public class CharacterFrames {
+
+    public static final int ROW_DEATH = 3;
+    public static final int ROW_HURT = 4;
+    // Possible types of action
+    protected static final int ROW_WALK = 0;
+    protected static final int ROW_IDLE = 1;
+    protected static final int ROW_ATTACK = 2;
+    // Single frame size parameters
+    protected final int frameWidth;
+    protected final int frameHeight;
+
+    // Number of frames for each action (inconsistent value in the source images)
+    protected int[] ROW_MAX_FRAMES;
+
+    public CharacterFrames(int frameWidth, int frameHeight, int[] actionMaxFrames) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        ROW_MAX_FRAMES = actionMaxFrames;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * Get number of frames in each row of animation (indexed by the ROW_ constants)
+     */
+    public int[] getRowMaxFrames() {
+        return ROW_MAX_FRAMES;
+    }
+}
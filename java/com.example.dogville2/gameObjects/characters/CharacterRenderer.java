@@ -0,0 +1,50 @@
+package com.example.dogvillev2.gameObjects.characters;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * CharacterRenderer draws a character (the player or the cat) with its sprite sheet
+ * (the character keeps only the state of its animation, so it can run without Android).
+ */
+public class CharacterRenderer {
+
+    private final CharacterSpriteSheet characterSpriteSheet;
+    // Place of the current frame in game window, reused each frame
+    private final Rect inGameWindowRectangle = new Rect();
+
+    public CharacterRenderer(CharacterSpriteSheet characterSpriteSheet) {
+        this.characterSpriteSheet = characterSpriteSheet;
+    }
+
+    /**
+     * Draw current frame of the character, called by the draw() method of the Game
+     */
+    public void draw(Canvas canvas, Sprite sprite) {
+        // Flip the frame if the direction of movement is reversed
+        boolean flipped = sprite.getDirectionX() < 0;
+        Rect currentFrame;
+
+        if (sprite.isSpriteDead) {
+            currentFrame = characterSpriteSheet.getCurrentMoveFrame(CharacterSpriteSheet.ROW_DEATH, characterSpriteSheet.ROW_MAX_FRAMES[CharacterSpriteSheet.ROW_DEATH] - 1, flipped);
+        } else {
+            currentFrame = characterSpriteSheet.getCurrentMoveFrame(sprite.getAnimationRow(), sprite.getAnimationFrame(), flipped);
+        }
+
+        double drawPositionX = sprite.getDrawPositionX();
+        double drawPositionY = sprite.getDrawPositionY();
+        inGameWindowRectangle.set(
+                (int) (drawPositionX),
+                (int) (drawPositionY),
+                (int) (drawPositionX + characterSpriteSheet.frameWidth),
+                (int) (drawPositionY + characterSpriteSheet.frameHeight)
+        );
+
+        canvas.drawBitmap(
+                characterSpriteSheet.getSheetBitmap(flipped),
+                currentFrame,
+                inGameWindowRectangle,
+                null
+        );
+    }
+}
@@ -1,75 +1,43 @@
 package com.example.dogvillev2.gameObjects.characters;
 
 import android.graphics.Bitmap;
-import android.graphics.Matrix;
 import android.graphics.Rect;
 
+import com.example.dogvillev2.utilities.AtlasRegion;
+
 /**
- * CharacterSpriteSheet class divides source image sprite sheet into arrays.
+ * CharacterSpriteSheet class divides source image sprite sheet (region of the texture atlas) into frames.
  * Character classes get current frame from CharacterSpriteSheet by number of row and number of column.
+ * Frames are rectangles on the atlas page, mirrored frames are taken from the mirrored copy of the sprite sheet
+ * that is packed into the atlas on loading.
+ * Frame size and rows of animation are kept by the CharacterFrames (used by the simulation without images).
  */
-public class CharacterSpriteSheet {
-
-    public static final int ROW_DEATH = 3;
-    public static final int ROW_HURT = 4;
-    // Possible types of action
-    protected static final int ROW_WALK = 0;
-    protected static final int ROW_IDLE = 1;
-    protected static final int ROW_ATTACK = 2;
-    // Single frame size parameters
-    protected final int frameWidth;
-    protected final int frameHeight;
-    protected final Rect frameRect;
-    // Arrays of frames for different types of action
-    private final Bitmap[] walkBitmaps;
-    private final Bitmap[] idleBitmaps;
-    private final Bitmap[] attackBitmaps;
-    private final Bitmap[] deathBitmaps;
-    private final Bitmap[] hurtBitmaps;
-
-    // Number of frames for each action (inconsistent value in the source images)
-    protected int[] ROW_MAX_FRAMES;
-
-    // Matrices for rotation of frames before drawing on canvas
-    protected Matrix matrixOfBitmap = new Matrix();
-    protected Matrix matrixFlipped = new Matrix();
-
-    public CharacterSpriteSheet(Bitmap sourceImage, int rowCountInSourceImage, int colCountInSourceImage, int[] movementRows, int[] actionMaxFrames) {
-
-        // Calculate frame size
-        frameWidth = sourceImage.getWidth() / colCountInSourceImage;
-        frameHeight = sourceImage.getHeight() / rowCountInSourceImage;
-        this.frameRect = new Rect(0, 0, frameWidth, frameHeight);
-
-        // Set flipped matrix
-        matrixFlipped.postScale(-1, 1);
-
-        // Save maximum number of frames for each type of action
-        ROW_MAX_FRAMES = actionMaxFrames;
-
-        // Initialize arrays to store bitmaps
-        walkBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_WALK]];
-        idleBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_IDLE]];
-        attackBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_ATTACK]];
-        deathBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_DEATH]];
-        hurtBitmaps = new Bitmap[ROW_MAX_FRAMES[ROW_HURT]];
-
-        // Fill arrays with frames (sub-images of the source image)
-        for (int col = 0; col < colCountInSourceImage; col++) {
-            if (col < ROW_MAX_FRAMES[ROW_WALK]) {
-                walkBitmaps[col] = createFrameImageAt(sourceImage, movementRows[ROW_WALK], col);
-            }
-            if (col < ROW_MAX_FRAMES[ROW_IDLE]) {
-                idleBitmaps[col] = createFrameImageAt(sourceImage, movementRows[ROW_IDLE], col);
-            }
-            if (col < ROW_MAX_FRAMES[ROW_ATTACK]) {
-                attackBitmaps[col] = createFrameImageAt(sourceImage, movementRows[ROW_ATTACK], col);
-            }
-            if (col < ROW_MAX_FRAMES[ROW_DEATH]) {
-                deathBitmaps[col] = createFrameImageAt(sourceImage, movementRows[ROW_DEATH], col);
-            }
-            if (col < ROW_MAX_FRAMES[ROW_HURT]) {
-                hurtBitmaps[col] = createFrameImageAt(sourceImage, movementRows[ROW_HURT], col);
+public class CharacterSpriteSheet extends CharacterFrames {
+
+    // Atlas pages that contain the sprite sheet and its mirrored copy
+    private final Bitmap sheetBitmap;
+    private final Bitmap flippedSheetBitmap;
+    // Frames for different types of action (indexed by row and column), rectangles on the atlas pages
+    private final Rect[][] frameRects;
+    private final Rect[][] flippedFrameRects;
+
+    public CharacterSpriteSheet(AtlasRegion sourceImage, AtlasRegion flippedSourceImage, int rowCountInSourceImage, int colCountInSourceImage, int[] movementRows, int[] actionMaxFrames) {
+
+        // Calculate frame size, save maximum number of frames for each type of action
+        super(sourceImage.getWidth() / colCountInSourceImage, sourceImage.getHeight() / rowCountInSourceImage, actionMaxFrames);
+
+        sheetBitmap = sourceImage.getBitmap();
+        flippedSheetBitmap = flippedSourceImage.getBitmap();
+
+        // Fill arrays with frames (sub-rectangles of the source image and of its mirrored copy)
+        frameRects = new Rect[ROW_MAX_FRAMES.length][];
+        flippedFrameRects = new Rect[ROW_MAX_FRAMES.length][];
+        for (int row = 0; row < ROW_MAX_FRAMES.length; row++) {
+            frameRects[row] = new Rect[ROW_MAX_FRAMES[row]];
+            flippedFrameRects[row] = new Rect[ROW_MAX_FRAMES[row]];
+            for (int col = 0; col < ROW_MAX_FRAMES[row]; col++) {
+                frameRects[row][col] = createFrameRectAt(sourceImage, movementRows[row], col, false);
+                flippedFrameRects[row][col] = createFrameRectAt(flippedSourceImage, movementRows[row], col, true);
             }
         }
     }
@@ -80,56 +48,28 @@ public class CharacterSpriteSheet {
      * @param image
      * @param row
      * @param col
+     * @param mirrored true if the image is flipped around vertical axe (columns go from right to left)
      * @return
      */
-    private Bitmap createFrameImageAt(Bitmap image, int row, int col) {
-        return Bitmap.createBitmap(
-                image,
-                col * frameWidth,
-                row * frameHeight,
-                frameWidth,
-                frameHeight
-        );
-    }
-
-    /**
-     * Helper method to get array of bitmap for current type of action
-     *
-     * @param rowUsingFrame
-     * @return
-     */
-
-    private Bitmap[] getMoveFrames(int rowUsingFrame) {
-        switch (rowUsingFrame) {
-            case ROW_WALK:
-                return this.walkBitmaps;
-            case ROW_IDLE:
-                return this.idleBitmaps;
-            case ROW_ATTACK:
-                return this.attackBitmaps;
-            case ROW_DEATH:
-                return this.deathBitmaps;
-            case ROW_HURT:
-                return this.hurtBitmaps;
-            default:
-                return null;
-        }
+    private Rect createFrameRectAt(AtlasRegion image, int row, int col, boolean mirrored) {
+        int left = image.getRect().left + (mirrored ? image.getWidth() - (col + 1) * frameWidth : col * frameWidth);
+        int top = image.getRect().top + row * frameHeight;
+        return new Rect(left, top, left + frameWidth, top + frameHeight);
     }
 
     /**
-     * Get current bitmap frame from the sprite sheet.
+     * Get atlas page that contains the frames of the sprite sheet.
      * Called by the draw() method of the character.
      *
-     * @param rowUsingFrame
-     * @param colUsingFrame
+     * @param flipped true for the page with frames flipped around vertical axe.
      * @return
      */
-    public Bitmap getCurrentMoveFrame(int rowUsingFrame, int colUsingFrame) {
-        return this.getMoveFrames(rowUsingFrame)[colUsingFrame];
+    public Bitmap getSheetBitmap(boolean flipped) {
+        return flipped ? flippedSheetBitmap : sheetBitmap;
     }
 
     /**
-     * Get current bitmap frame from the sprite sheet.
+     * Get rectangle of the current frame on the atlas page.
      * Called by the draw() method of the character.
      *
      * @param rowUsingFrame
@@ -137,29 +77,10 @@ public class CharacterSpriteSheet {
      * @param flipped       true for flipping the image around vertical axe.
      * @return
      */
-    public Bitmap getCurrentMoveFrame(int rowUsingFrame, int colUsingFrame, boolean flipped) {
-        Bitmap currentFrame = getCurrentMoveFrame(rowUsingFrame, colUsingFrame);
+    public Rect getCurrentMoveFrame(int rowUsingFrame, int colUsingFrame, boolean flipped) {
         if (flipped) {
-            currentFrame = Bitmap.createBitmap(currentFrame, 0, 0, frameWidth, frameHeight, matrixFlipped, true);
+            return flippedFrameRects[rowUsingFrame][colUsingFrame];
         }
-        return currentFrame;
-    }
-
-    /**
-     * Get current bitmap frame from the sprite sheet rotated,
-     * angle of rotation calculated from the directionX and directionY parameters.
-     * Called by the draw() method of the character.
-     *
-     * @param rowUsingFrame
-     * @param colUsingFrame
-     * @param directionX
-     * @param directionY
-     * @return
-     */
-    public Bitmap getCurrentMoveFrame(int rowUsingFrame, int colUsingFrame, double directionX, double directionY) {
-        Bitmap currentFrame = getCurrentMoveFrame(rowUsingFrame, colUsingFrame);
-        double angle = Math.atan2(directionY, directionX) * 180 / Math.PI;
-        matrixOfBitmap.setRotate((float) angle);
-        return Bitmap.createBitmap(currentFrame, 0, 0, frameWidth, frameHeight, matrixOfBitmap, true);
+        return frameRects[rowUsingFrame][colUsingFrame];
     }
 }
@@ -1,7 +1,8 @@
 package com.example.dogvillev2.gameObjects.characters;
 
 import com.example.dogvillev2.layout.GameView;
-import com.example.dogvillev2.sounds.GameSounds;
+import com.example.dogvillev2.sounds.SoundPlayer;
+import com.example.dogvillev2.utilities.VectorMath;
 
 /**
  * The cat is supposed to sit on the car and wait until the player saves him.
@@ -10,18 +11,22 @@ import com.example.dogvillev2.sounds.GameSounds;
 public class FriendlyCat extends Sprite {
 
     private final AnimalCharacter player;
+    // AI level of detail: band of the distance to the player and ticks of the last and the next update
+    private int lodBand = AiLodScheduler.BAND_NEAR;
+    private long lastUpdateTick = -1;
+    private long nextUpdateTick = 0;
 
-    public FriendlyCat(GameView gameView, CharacterSpriteSheet characterSpriteSheet, AnimalCharacter player, double positionOnLevelX, double positionOnLevelY, GameSounds gameSounds) {
+    public FriendlyCat(GameView gameView, CharacterFrames characterFrames, AnimalCharacter player, double positionOnLevelX, double positionOnLevelY, SoundPlayer gameSounds) {
         super(
                 gameView,
                 positionOnLevelX,
                 positionOnLevelY,
-                characterSpriteSheet,
+                characterFrames,
                 gameSounds
         );
 
         this.player = player;
-        this.setAnimation(CharacterSpriteSheet.ROW_IDLE);
+        this.setAnimation(CharacterFrames.ROW_IDLE);
     }
 
     @Override
@@ -29,21 +34,43 @@ public class FriendlyCat extends Sprite {
 
     }
 
+    /**
+     * Update the cat if it is due by the AI level of detail (called after aiLodScheduler.startUpdate())
+     */
+    public void update(AiLodScheduler aiLodScheduler) {
+        long tick = aiLodScheduler.getTick();
+        if (nextUpdateTick <= tick) {
+            double distanceToPlayer = updateDirection();
+            updateAnimation(aiLodScheduler.getElapsedUpdates(lastUpdateTick));
+            lodBand = aiLodScheduler.getBand(distanceToPlayer);
+            lastUpdateTick = tick;
+            nextUpdateTick = tick + aiLodScheduler.getInterval(lodBand);
+        }
+        aiLodScheduler.count(lodBand);
+    }
+
     @Override
     public void update() {
+        updateDirection();
+
+        // Update animation state
+        super.update();
+    }
 
+    /**
+     * Turn the cat to the player
+     *
+     * @return distance to the player
+     */
+    private double updateDirection() {
         // Calculate vector from center of enemy to center of player (in x and y coordinates)
         double distanceToPlayerX = player.getPositionOnLevelX() + player.getCharacterFrameWidth() / 2 - this.positionOnLevelX - this.getCharacterFrameWidth() / 2;
         double distanceToPlayerY = player.getPositionOnLevelY() + player.getCharacterFrameHeight() / 2 - this.positionOnLevelY - this.getCharacterFrameHeight() / 2;
 
-        // Calculate absolute distance between enemy (this) and player
-        double distanceToPlayer = Sprite.getDistanceBetweenSprites(this, player);
-
-        // Calculate direction from enemy to player
-        directionX = distanceToPlayerX / distanceToPlayer;
-        directionY = distanceToPlayerY / distanceToPlayer;
-
-        // Update animation state
-        super.update();
+        // Calculate direction from the cat to player
+        double inverseDistance = VectorMath.getInverseLength(distanceToPlayerX, distanceToPlayerY);
+        directionX = distanceToPlayerX * inverseDistance;
+        directionY = distanceToPlayerY * inverseDistance;
+        return VectorMath.getLength(distanceToPlayerX, distanceToPlayerY);
     }
 }
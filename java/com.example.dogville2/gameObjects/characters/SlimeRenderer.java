@@ -0,0 +1,63 @@
+package com.example.dogvillev2.gameObjects.characters;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.example.dogvillev2.layout.GameView;
+
+/**
+ * SlimeRenderer draws slimes of the SlimeStore with the slime sprite sheet
+ * (the store keeps only the state of the slimes, so it can run without Android).
+ */
+public class SlimeRenderer {
+
+    private final CharacterSpriteSheet characterSpriteSheet;
+    private final GameView gameView;
+    // Place of the current frame in game window, reused for each slime
+    private final Rect inGameWindowRectangle = new Rect();
+
+    public SlimeRenderer(CharacterSpriteSheet characterSpriteSheet, GameView gameView) {
+        this.characterSpriteSheet = characterSpriteSheet;
+        this.gameView = gameView;
+    }
+
+    /**
+     * Draw slimes of the store that are in the game window, called by the draw() method of the Game
+     */
+    public void draw(Canvas canvas, SlimeStore slimes) {
+        double interpolation = gameView.getInterpolation();
+        for (int i = 0; i < slimes.getCount(); i++) {
+            // Slimes are drawn between their previous and current positions, slimes outside the game window are skipped
+            double drawPositionX = gameView.getInDrawWindowPositionX(
+                    slimes.previousPositionX[i] + (slimes.positionX[i] - slimes.previousPositionX[i]) * interpolation);
+            if (drawPositionX + characterSpriteSheet.frameWidth < 0 || drawPositionX > gameView.getWindowWidth()) {
+                continue;
+            }
+            double drawPositionY = gameView.getInWindowPositionY(
+                    slimes.previousPositionY[i] + (slimes.positionY[i] - slimes.previousPositionY[i]) * interpolation);
+
+            // Flip the frame if the direction of movement is reversed
+            boolean flipped = slimes.directionX[i] < 0;
+            Rect currentFrame;
+            if (slimes.isSpriteDead[i]) {
+                currentFrame = characterSpriteSheet.getCurrentMoveFrame(CharacterSpriteSheet.ROW_DEATH, characterSpriteSheet.ROW_MAX_FRAMES[CharacterSpriteSheet.ROW_DEATH] - 1, flipped);
+            } else {
+                currentFrame = characterSpriteSheet.getCurrentMoveFrame(slimes.rowUsingFrame[i], slimes.colUsingFrame[i], flipped);
+            }
+
+            inGameWindowRectangle.set(
+                    (int) (drawPositionX),
+                    (int) (drawPositionY),
+                    (int) (drawPositionX + characterSpriteSheet.frameWidth),
+                    (int) (drawPositionY + characterSpriteSheet.frameHeight)
+            );
+
+            canvas.drawBitmap(
+                    characterSpriteSheet.getSheetBitmap(flipped),
+                    currentFrame,
+                    inGameWindowRectangle,
+                    null
+            );
+        }
+    }
+}
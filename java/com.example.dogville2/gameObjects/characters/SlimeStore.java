@@ -0,0 +1,528 @@
+package com.example.dogvillev2.gameObjects.characters;
+
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.utilities.VectorMath;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * SlimeStore keeps all enemy slimes of the game in parallel primitive arrays (one array per field, index is the slime),
+ * so the slime AI runs as one tight loop over the arrays instead of calling update() of a heap object per slime.
+ * Slimes are removed by moving the last slime into the freed index (swap-remove), indices of the other slimes do not change.
+ * With an AiLodScheduler only slimes near the player are updated every game update, far slimes are updated rarely.
+ * Update of a slime only changes the state of this slime (spells to cast and attacks are left for the Game to apply),
+ * so large numbers of slimes are updated in parallel on a ForkJoinPool, with the same result as the sequential update.
+ * The store has no Android dependencies: slimes are drawn by SlimeRenderer, sounds are played by the Game.
+ */
+public class SlimeStore {
+
+    // Maximum speed of the slime
+    public static final double SPEED_PIXELS_PER_SECOND = AnimalCharacter.SPEED_PIXELS_PER_SECOND * 0.8; // Enemy is slightly slower than player
+    private static final double MAX_SPEED = SPEED_PIXELS_PER_SECOND / GameWorld.MAX_UPS; // pixels per update
+    // Rate of changing animation frames
+    private static final double FRAMES_PER_SECOND = 10;
+    private static final int UPDATES_PER_FRAME = (int) (GameWorld.MAX_UPS / FRAMES_PER_SECOND);
+    private static final int INITIAL_CAPACITY = 16;
+    // Slimes are updated in parallel only above this number (smaller updates take less time than the task handoff)
+    public static final int PARALLEL_THRESHOLD = 4096;
+    // Number of slimes updated by one task of the parallel update
+    private static final int SLIMES_PER_TASK = 1024;
+    // Placement of the slimes that are not spawned from the level records (never despawned with a chunk)
+    public static final int NO_PLACEMENT = -1;
+
+    // Sprite sheet parameters shared by all slimes
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int[] rowMaxFrames;
+
+    private int count = 0;
+
+    // Id of the level record the slime was spawned from (see GameLevelLayout.EnemySpawner)
+    private int[] placement = new int[INITIAL_CAPACITY];
+
+    // Position on game level and position before the latest update (for drawing between updates)
+    double[] positionX = new double[INITIAL_CAPACITY];
+    double[] positionY = new double[INITIAL_CAPACITY];
+    double[] previousPositionX = new double[INITIAL_CAPACITY];
+    double[] previousPositionY = new double[INITIAL_CAPACITY];
+    private double[] velocityX = new double[INITIAL_CAPACITY];
+    double[] directionX = new double[INITIAL_CAPACITY];
+    private double[] directionY = new double[INITIAL_CAPACITY];
+
+    // Health and animation
+    private int[] healthPoints = new int[INITIAL_CAPACITY];
+    int[] rowUsingFrame = new int[INITIAL_CAPACITY];
+    int[] colUsingFrame = new int[INITIAL_CAPACITY];
+    private int[] updatesTillNextFrame = new int[INITIAL_CAPACITY];
+    private boolean[] isLockedAnimation = new boolean[INITIAL_CAPACITY];
+    boolean[] isSpriteDead = new boolean[INITIAL_CAPACITY]; // Death animation is finished
+
+    // Behaviour timers
+    private int[] spellToCast = new int[INITIAL_CAPACITY];
+    private int[] updatesTillNextSpell = new int[INITIAL_CAPACITY];
+    private int[] updatesTillNextAttack = new int[INITIAL_CAPACITY];
+    private int[] updatesTillAttackRegister = new int[INITIAL_CAPACITY];
+    private int[] updatesTillNextFastMovement = new int[INITIAL_CAPACITY];
+    private int[] updatesTillNextFastReach = new int[INITIAL_CAPACITY];
+    private int[] fastReachLength = new int[INITIAL_CAPACITY];
+
+
+    // AI level of detail: band of the distance to the player and ticks of the last and the next AI update
+    private int[] lodBand = new int[INITIAL_CAPACITY];
+    private long[] lastUpdateTick = new long[INITIAL_CAPACITY];
+    private long[] nextUpdateTick = new long[INITIAL_CAPACITY];
+
+    /**
+     * @param frameWidth   - width of the slime frame
+     * @param frameHeight  - height of the slime frame
+     * @param rowMaxFrames - number of frames in each row of animation (see CharacterFrames)
+     */
+    public SlimeStore(int frameWidth, int frameHeight, int[] rowMaxFrames) {
+        this.frameWidth = frameWidth;
+        this.frameHeight = frameHeight;
+        this.rowMaxFrames = rowMaxFrames;
+    }
+
+    /**
+     * Add slime that is not spawned from the level records to the store
+     *
+     * @return index of the slime
+     */
+    public int add(double positionOnLevelX, double positionOnLevelY) {
+        return add(NO_PLACEMENT, positionOnLevelX, positionOnLevelY);
+    }
+
+    /**
+     * Add slime of the level record to the store
+     *
+     * @param placement - id of the level record (placement id of the slime)
+     * @return index of the slime
+     */
+    public int add(int placement, double positionOnLevelX, double positionOnLevelY) {
+        if (count == positionX.length) {
+            grow();
+        }
+        int i = count++;
+        this.placement[i] = placement;
+        positionX[i] = positionOnLevelX;
+        positionY[i] = positionOnLevelY;
+        previousPositionX[i] = positionOnLevelX;
+        previousPositionY[i] = positionOnLevelY;
+        velocityX[i] = 0;
+        directionX[i] = 1;
+        directionY[i] = 0;
+        healthPoints[i] = Sprite.MAX_HEALTH_POINTS;
+        rowUsingFrame[i] = CharacterFrames.ROW_WALK;
+        colUsingFrame[i] = 0;
+        updatesTillNextFrame[i] = UPDATES_PER_FRAME;
+        isLockedAnimation[i] = false;
+        isSpriteDead[i] = false;
+        spellToCast[i] = 0;
+        updatesTillNextSpell[i] = 0;
+        updatesTillNextAttack[i] = 0;
+        updatesTillAttackRegister[i] = -1;
+        updatesTillNextFastMovement[i] = 0;
+        updatesTillNextFastReach[i] = 0;
+        fastReachLength[i] = 0;
+        // New slimes are updated with the next update
+        lodBand[i] = AiLodScheduler.BAND_NEAR;
+        lastUpdateTick[i] = -1;
+        nextUpdateTick[i] = 0;
+        return i;
+    }
+
+    /**
+     * Remove slime: the last slime is moved into its index
+     *
+     * @return previous index of the moved slime (equals the removed index if the removed slime was the last one)
+     */
+    public int remove(int i) {
+        int last = --count;
+        if (i != last) {
+            placement[i] = placement[last];
+            positionX[i] = positionX[last];
+            positionY[i] = positionY[last];
+            previousPositionX[i] = previousPositionX[last];
+            previousPositionY[i] = previousPositionY[last];
+            velocityX[i] = velocityX[last];
+            directionX[i] = directionX[last];
+            directionY[i] = directionY[last];
+            healthPoints[i] = healthPoints[last];
+            rowUsingFrame[i] = rowUsingFrame[last];
+            colUsingFrame[i] = colUsingFrame[last];
+            updatesTillNextFrame[i] = updatesTillNextFrame[last];
+            isLockedAnimation[i] = isLockedAnimation[last];
+            isSpriteDead[i] = isSpriteDead[last];
+            spellToCast[i] = spellToCast[last];
+            updatesTillNextSpell[i] = updatesTillNextSpell[last];
+            updatesTillNextAttack[i] = updatesTillNextAttack[last];
+            updatesTillAttackRegister[i] = updatesTillAttackRegister[last];
+            updatesTillNextFastMovement[i] = updatesTillNextFastMovement[last];
+            updatesTillNextFastReach[i] = updatesTillNextFastReach[last];
+            fastReachLength[i] = fastReachLength[last];
+            lodBand[i] = lodBand[last];
+            lastUpdateTick[i] = lastUpdateTick[last];
+            nextUpdateTick[i] = nextUpdateTick[last];
+        }
+        return last;
+    }
+
+    /**
+     * Update all slimes: movement towards the player, spells, attacks and animation.
+     *
+     * @param playerCenterX - center of the player frame on the level
+     * @param playerCenterY - center of the player frame on the level
+     */
+    public void update(double playerCenterX, double playerCenterY) {
+        for (int i = 0; i < count; i++) {
+            updateSlime(i, playerCenterX, playerCenterY, 1);
+        }
+    }
+
+    /**
+     * Update slimes that are due by the AI level of detail (called after aiLodScheduler.startUpdate()).
+     * Skipped slimes are idle (far from the player) and only keep their position for drawing.
+     */
+    public void update(double playerCenterX, double playerCenterY, AiLodScheduler aiLodScheduler) {
+        update(playerCenterX, playerCenterY, aiLodScheduler, null);
+    }
+
+    /**
+     * Update slimes that are due by the AI level of detail, in parallel on the pool if there are many slimes
+     * (first phase of the enemy update: only the state of each slime changes, the Game then applies spells and attacks
+     * in the order of the slimes, so the result does not depend on the number of threads).
+     *
+     * @param pool - pool for the parallel update, null to update sequentially
+     */
+    public void update(double playerCenterX, double playerCenterY, AiLodScheduler aiLodScheduler, ForkJoinPool pool) {
+        if (pool == null || count < PARALLEL_THRESHOLD) {
+            updateRange(0, count, playerCenterX, playerCenterY, aiLodScheduler);
+        } else {
+            pool.invoke(new UpdateTask(0, count, playerCenterX, playerCenterY, aiLodScheduler));
+        }
+
+        // Bands are counted after the update, the scheduler is only read by the update tasks
+        for (int i = 0; i < count; i++) {
+            aiLodScheduler.count(lodBand[i]);
+        }
+    }
+
+    /**
+     * Update slimes from index "from" (inclusive) to index "to" (exclusive) that are due by the AI level of detail
+     */
+    private void updateRange(int from, int to, double playerCenterX, double playerCenterY, AiLodScheduler aiLodScheduler) {
+        long tick = aiLodScheduler.getTick();
+        for (int i = from; i < to; i++) {
+            if (nextUpdateTick[i] <= tick) {
+                double distanceToPlayer = updateSlime(i, playerCenterX, playerCenterY, aiLodScheduler.getElapsedUpdates(lastUpdateTick[i]));
+                lodBand[i] = aiLodScheduler.getBand(distanceToPlayer);
+                lastUpdateTick[i] = tick;
+                nextUpdateTick[i] = tick + aiLodScheduler.getInterval(lodBand[i]);
+            } else {
+                previousPositionX[i] = positionX[i];
+                previousPositionY[i] = positionY[i];
+            }
+        }
+    }
+
+    /**
+     * Task of the parallel update: splits its range of slimes in halves until the range is small enough
+     */
+    private class UpdateTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int from;
+        private final int to;
+        private final double playerCenterX;
+        private final double playerCenterY;
+        private final AiLodScheduler aiLodScheduler;
+
+        UpdateTask(int from, int to, double playerCenterX, double playerCenterY, AiLodScheduler aiLodScheduler) {
+            this.from = from;
+            this.to = to;
+            this.playerCenterX = playerCenterX;
+            this.playerCenterY = playerCenterY;
+            this.aiLodScheduler = aiLodScheduler;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SLIMES_PER_TASK) {
+                updateRange(from, to, playerCenterX, playerCenterY, aiLodScheduler);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new UpdateTask(from, middle, playerCenterX, playerCenterY, aiLodScheduler),
+                    new UpdateTask(middle, to, playerCenterX, playerCenterY, aiLodScheduler));
+        }
+    }
+
+    /**
+     * Update single slime
+     *
+     * @param elapsedUpdates - number of game updates since the previous update of the slime (for the animation)
+     * @return distance to the player (infinity for dead slimes)
+     */
+    private double updateSlime(int i, double playerCenterX, double playerCenterY, int elapsedUpdates) {
+        previousPositionX[i] = positionX[i];
+        previousPositionY[i] = positionY[i];
+
+        // Don't update dead enemies
+        if (isSpriteDead[i]) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        // Calculate vector from center of enemy to center of player (in x and y coordinates)
+        double distanceToPlayerX = playerCenterX - positionX[i] - frameWidth / 2;
+        double distanceToPlayerY = playerCenterY - positionY[i] - frameHeight / 2;
+        double distanceToPlayer = VectorMath.getLength(distanceToPlayerX, distanceToPlayerY);
+
+        // Calculate direction from enemy to player
+        double dirX = distanceToPlayerX / distanceToPlayer;
+        directionX[i] = dirX;
+        directionY[i] = distanceToPlayerY / distanceToPlayer;
+
+        // Enemy behavior logic
+        double velocity = velocityX[i];
+        if (distanceToPlayer > 400) {
+            // Idle
+            velocity = 0;
+        } else if (distanceToPlayer > 250) {
+            if (castSpell(i)) {
+                velocity = 0;
+            }
+        } else if (distanceToPlayer > 150) {
+            velocity = dirX * MAX_SPEED;
+        } else if (distanceToPlayer > 70) {
+            // Fast move towards the player
+            int xSpeed = updatesTillNextFastMovement[i] / 1000;
+            velocity = dirX * MAX_SPEED * Math.max(0.5, xSpeed);
+            updatesTillNextFastMovement[i]++;
+        } else if (distanceToPlayer > 30) {
+            // Fast reach and attack player
+            updatesTillNextFastReach[i]--;
+            velocity = dirX * MAX_SPEED;
+            if (updatesTillNextFastReach[i] <= 0) {
+                fastReachLength[i] = 10;
+                updatesTillNextFastReach[i] = 500;
+            }
+            if (fastReachLength[i] > 0) {
+                attack(i);
+                fastReachLength[i]--;
+                velocity = dirX * MAX_SPEED * distanceToPlayer / 30;
+            }
+        } else {
+            attack(i);
+            velocity = 0;
+        }
+        velocityX[i] = velocity;
+
+        // Update current position of the enemy
+        positionX[i] += velocity;
+
+        // Update current type of animation
+        setAnimation(i, velocity != 0 ? CharacterFrames.ROW_WALK : CharacterFrames.ROW_IDLE);
+
+        // Update current animation frame (skipped updates of far slimes are caught up)
+        updatesTillNextFrame[i] -= elapsedUpdates;
+        while (updatesTillNextFrame[i] <= 0 && !isSpriteDead[i]) {
+            updatesTillNextFrame[i] += UPDATES_PER_FRAME;
+            colUsingFrame[i]++;
+            if (colUsingFrame[i] == rowMaxFrames[rowUsingFrame[i]]) {
+                colUsingFrame[i] = 0;
+                // Release animation lock after finishing one row of animation
+                isLockedAnimation[i] = false;
+                // Make sure that death animation only played once
+                if (rowUsingFrame[i] == CharacterFrames.ROW_DEATH) {
+                    isSpriteDead[i] = true;
+                }
+            }
+        }
+        return distanceToPlayer;
+    }
+
+    /**
+     * Check if the slime was updated in this game update (slimes skipped by the AI level of detail do not move or act)
+     */
+    public boolean isUpdatedAt(int i, long tick) {
+        return lastUpdateTick[i] == tick;
+    }
+
+    /**
+     * Count down to the next spell, the spell is cast when the time comes
+     *
+     * @return true if the spell is cast (the slime stops)
+     */
+    private boolean castSpell(int i) {
+        if (updatesTillNextSpell[i] <= 0) {
+            spellToCast[i]++;
+            setLockedAnimation(i, CharacterFrames.ROW_WALK);
+            updatesTillNextSpell[i] = 250;
+            return true;
+        }
+        updatesTillNextSpell[i]--;
+        return false;
+    }
+
+    private void attack(int i) {
+        if (updatesTillNextAttack[i] == 0) {
+            // Launch attack
+            setLockedAnimation(i, CharacterFrames.ROW_ATTACK);
+            updatesTillNextAttack[i] = rowMaxFrames[CharacterFrames.ROW_ATTACK] * updatesTillNextFrame[i] * 5;
+            updatesTillAttackRegister[i] = rowMaxFrames[CharacterFrames.ROW_ATTACK] * updatesTillNextFrame[i] / 2;
+            return;
+        }
+
+        updatesTillNextAttack[i]--;
+        // Register attack for the player in the middle of the attack animation
+        updatesTillAttackRegister[i]--;
+    }
+
+    private void setAnimation(int i, int animationRow) {
+        if (rowUsingFrame[i] != animationRow && !isLockedAnimation[i]) {
+            rowUsingFrame[i] = animationRow;
+            colUsingFrame[i] = 0;
+        }
+    }
+
+    /**
+     * Set animation that can not be interrupted (except by death animation)
+     */
+    private void setLockedAnimation(int i, int animationRow) {
+        if (rowUsingFrame[i] != animationRow && (!isLockedAnimation[i] || animationRow == CharacterFrames.ROW_DEATH)) {
+            rowUsingFrame[i] = animationRow;
+            isLockedAnimation[i] = true;
+            colUsingFrame[i] = 0;
+        }
+    }
+
+    /**
+     * Change health of the slime (hurt or death animation is started)
+     *
+     * @return true if the slime died (the caller plays the death sound)
+     */
+    public boolean changeHealthPoints(int i, int points) {
+        healthPoints[i] += points;
+        if (healthPoints[i] <= 0) {
+            healthPoints[i] = 0;
+            setLockedAnimation(i, CharacterFrames.ROW_DEATH);
+            return true;
+        }
+        setLockedAnimation(i, CharacterFrames.ROW_HURT);
+        return false;
+    }
+
+    /**
+     * Get distance from the center of the slime frame to the point on the level
+     */
+    public double getDistanceTo(int i, double centerX, double centerY) {
+        return VectorMath.getDistance(getCenterX(i), getCenterY(i), centerX, centerY);
+    }
+
+    /**
+     * Get center of the slime frame on the level
+     */
+    public double getCenterX(int i) {
+        return positionX[i] + frameWidth / 2;
+    }
+
+    /**
+     * Get center of the slime frame on the level
+     */
+    public double getCenterY(int i) {
+        return positionY[i] + frameHeight / 2;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public boolean isDead(int i) {
+        return healthPoints[i] == 0;
+    }
+
+    /**
+     * Check if the death animation of the slime has been played (the slime can be removed from the store)
+     */
+    public boolean isDeathAnimationFinished(int i) {
+        return isSpriteDead[i];
+    }
+
+    public int getPlacement(int i) {
+        return placement[i];
+    }
+
+    public int getHealthPoints(int i) {
+        return healthPoints[i];
+    }
+
+    public double getPositionOnLevelX(int i) {
+        return positionX[i];
+    }
+
+    public double getPositionOnLevelY(int i) {
+        return positionY[i];
+    }
+
+    public double getDirectionX(int i) {
+        return directionX[i];
+    }
+
+    public double getDirectionY(int i) {
+        return directionY[i];
+    }
+
+    public int getSpellToCast(int i) {
+        return spellToCast[i];
+    }
+
+    public void registerSpellCasted(int i) {
+        if (spellToCast[i] > 0) {
+            spellToCast[i]--;
+        }
+    }
+
+    public boolean isTimeToCountHitDamage(int i) {
+        return updatesTillAttackRegister[i] == 0;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * Double capacity of the arrays (only when slimes are added)
+     */
+    private void grow() {
+        int capacity = positionX.length * 2;
+        placement = Arrays.copyOf(placement, capacity);
+        positionX = Arrays.copyOf(positionX, capacity);
+        positionY = Arrays.copyOf(positionY, capacity);
+        previousPositionX = Arrays.copyOf(previousPositionX, capacity);
+        previousPositionY = Arrays.copyOf(previousPositionY, capacity);
+        velocityX = Arrays.copyOf(velocityX, capacity);
+        directionX = Arrays.copyOf(directionX, capacity);
+        directionY = Arrays.copyOf(directionY, capacity);
+        healthPoints = Arrays.copyOf(healthPoints, capacity);
+        rowUsingFrame = Arrays.copyOf(rowUsingFrame, capacity);
+        colUsingFrame = Arrays.copyOf(colUsingFrame, capacity);
+        updatesTillNextFrame = Arrays.copyOf(updatesTillNextFrame, capacity);
+        isLockedAnimation = Arrays.copyOf(isLockedAnimation, capacity);
+        isSpriteDead = Arrays.copyOf(isSpriteDead, capacity);
+        spellToCast = Arrays.copyOf(spellToCast, capacity);
+        updatesTillNextSpell = Arrays.copyOf(updatesTillNextSpell, capacity);
+        updatesTillNextAttack = Arrays.copyOf(updatesTillNextAttack, capacity);
+        updatesTillAttackRegister = Arrays.copyOf(updatesTillAttackRegister, capacity);
+        updatesTillNextFastMovement = Arrays.copyOf(updatesTillNextFastMovement, capacity);
+        updatesTillNextFastReach = Arrays.copyOf(updatesTillNextFastReach, capacity);
+        fastReachLength = Arrays.copyOf(fastReachLength, capacity);
+        lodBand = Arrays.copyOf(lodBand, capacity);
+        lastUpdateTick = Arrays.copyOf(lastUpdateTick, capacity);
+        nextUpdateTick = Arrays.copyOf(nextUpdateTick, capacity);
+    }
+}
@@ -1,17 +1,14 @@
 package com.example.dogvillev2.gameObjects.characters;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Rect;
-
-import com.example.dogvillev2.GameLoop;
 import com.example.dogvillev2.gameObjects.GameObject;
 import com.example.dogvillev2.layout.GameView;
-import com.example.dogvillev2.sounds.GameSounds;
-import com.example.dogvillev2.utilities.Utils;
+import com.example.dogvillev2.simulation.GameWorld;
+import com.example.dogvillev2.sounds.SoundPlayer;
+import com.example.dogvillev2.utilities.VectorMath;
 
 /**
- * Represents game characters and player, each sprite is animated with the characterSpriteSheet object
+ * Represents game characters and player, each sprite is animated with the characterFrames object
+ * (rows of animation of the sprite sheet), sprites are drawn by the CharacterRenderer.
  */
 public abstract class Sprite extends GameObject {
 
@@ -19,20 +16,20 @@ public abstract class Sprite extends GameObject {
     public static final int MAX_HEALTH_POINTS = 100;
     // Rate of changing animation frames
     private static final double FRAMES_PER_SECOND = 10;
-    private static final int UPDATES_PER_FRAME = (int) (GameLoop.MAX_UPS / FRAMES_PER_SECOND);
-    protected final CharacterSpriteSheet characterSpriteSheet;
+    private static final int UPDATES_PER_FRAME = (int) (GameWorld.MAX_UPS / FRAMES_PER_SECOND);
+    protected final CharacterFrames characterFrames;
     public int updatesTillNextFrame = UPDATES_PER_FRAME;
     public boolean isSpriteDead = false;
     public boolean playedLastSound = false;
     protected int rowUsingFrame; // current type of action
     protected int colUsingFrame; // current frame of movement
     protected boolean isLockedAnimation = false;
-    protected GameSounds gameSounds;
+    protected SoundPlayer gameSounds;
     private int healthPoints = MAX_HEALTH_POINTS;
 
-    public Sprite(GameView gameView, double positionX, double positionY, CharacterSpriteSheet spriteSheet, GameSounds gameSounds) {
+    public Sprite(GameView gameView, double positionX, double positionY, CharacterFrames characterFrames, SoundPlayer gameSounds) {
         super(gameView, positionX, positionY);
-        this.characterSpriteSheet = spriteSheet;
+        this.characterFrames = characterFrames;
         this.gameSounds = gameSounds;
     }
 
@@ -40,7 +37,7 @@ public abstract class Sprite extends GameObject {
      * Distance between sprites is calculated as distance center points of the sprite frame rectangles.
      */
     public static double getDistanceBetweenSprites(Sprite sprite1, Sprite sprite2) {
-        return Utils.getDistanceBetweenPoints(
+        return VectorMath.getDistance(
                 sprite2.getPositionX() + sprite2.getCharacterFrameWidth() / 2,
                 sprite2.getPositionY() + sprite2.getCharacterFrameHeight() / 2,
                 sprite1.getPositionX() + sprite1.getCharacterFrameWidth() / 2,
@@ -58,11 +55,11 @@ public abstract class Sprite extends GameObject {
 
         if (healthPoints <= 0) {
             healthPoints = 0;
-            setAnimation(CharacterSpriteSheet.ROW_DEATH, true);
+            setAnimation(CharacterFrames.ROW_DEATH, true);
             playLastSound();
             return;
         }
-        setAnimation(CharacterSpriteSheet.ROW_HURT, true);
+        setAnimation(CharacterFrames.ROW_HURT, true);
     }
 
     protected abstract void playLastSound();
@@ -73,6 +70,14 @@ public abstract class Sprite extends GameObject {
 
     @Override
     public void update() {
+        updateAnimation(1);
+    }
+
+    /**
+     * Move animation forward by the number of game updates
+     * (more than one for characters that are not updated every game update, see AiLodScheduler)
+     */
+    protected void updateAnimation(int elapsedUpdates) {
 
         // Don't update statement of the dead characters
         if (isSpriteDead) {
@@ -80,49 +85,23 @@ public abstract class Sprite extends GameObject {
         }
 
         // Update current animation frame
-        updatesTillNextFrame--;
-        if (updatesTillNextFrame <= 0) {
-            updatesTillNextFrame = UPDATES_PER_FRAME;
+        updatesTillNextFrame -= elapsedUpdates;
+        while (updatesTillNextFrame <= 0 && !isSpriteDead) {
+            updatesTillNextFrame += UPDATES_PER_FRAME;
             colUsingFrame++;
-            if (colUsingFrame == characterSpriteSheet.ROW_MAX_FRAMES[rowUsingFrame]) {
+            if (colUsingFrame == characterFrames.ROW_MAX_FRAMES[rowUsingFrame]) {
                 colUsingFrame = 0;
                 // Release animation lock after finishing one row of animation
                 isLockedAnimation = false;
 
                 // Make sure that death animation only played once
-                if (rowUsingFrame == CharacterSpriteSheet.ROW_DEATH) {
+                if (rowUsingFrame == CharacterFrames.ROW_DEATH) {
                     isSpriteDead = true;
                 }
             }
         }
     }
 
-    @Override
-    public void draw(Canvas canvas) {
-        Bitmap currentFrame;
-
-        if (isSpriteDead) {
-            currentFrame = characterSpriteSheet.getCurrentMoveFrame(CharacterSpriteSheet.ROW_DEATH, characterSpriteSheet.ROW_MAX_FRAMES[CharacterSpriteSheet.ROW_DEATH] - 1, directionX < 0);
-        } else {
-            currentFrame = characterSpriteSheet.getCurrentMoveFrame(rowUsingFrame, colUsingFrame, directionX < 0);
-        }
-
-        Rect inGameWindowRectangle = new Rect(
-                (int) (this.getPositionX()),
-                (int) (this.getPositionY()),
-                (int) (this.getPositionX() + characterSpriteSheet.frameWidth),
-                (int) (this.getPositionY() + characterSpriteSheet.frameHeight)
-        );
-
-        canvas.drawBitmap(
-                // Flip the bitmap if the direction of movement is reversed
-                currentFrame,
-                characterSpriteSheet.frameRect,
-                inGameWindowRectangle,
-                null
-        );
-    }
-
     public void setAnimation(int animationRow) {
         if (rowUsingFrame != animationRow && !isLockedAnimation) {
             rowUsingFrame = animationRow;
@@ -136,18 +115,32 @@ public abstract class Sprite extends GameObject {
      */
     public void setAnimation(int animationRow, boolean lock) {
         // Set locked animation (can not be interrupted).
-        if (rowUsingFrame != animationRow && (!isLockedAnimation || animationRow == CharacterSpriteSheet.ROW_DEATH)) {
+        if (rowUsingFrame != animationRow && (!isLockedAnimation || animationRow == CharacterFrames.ROW_DEATH)) {
             rowUsingFrame = animationRow;
             isLockedAnimation = true;
             colUsingFrame = 0;
         }
     }
 
+    /**
+     * Get current row of animation (type of action), used by the CharacterRenderer
+     */
+    public int getAnimationRow() {
+        return rowUsingFrame;
+    }
+
+    /**
+     * Get current frame in the row of animation, used by the CharacterRenderer
+     */
+    public int getAnimationFrame() {
+        return colUsingFrame;
+    }
+
     public int getCharacterFrameWidth() {
-        return characterSpriteSheet.frameWidth;
+        return characterFrames.frameWidth;
     }
 
     public int getCharacterFrameHeight() {
-        return characterSpriteSheet.frameHeight;
+        return characterFrames.frameHeight;
     }
 }
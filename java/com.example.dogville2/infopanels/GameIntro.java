@@ -52,7 +52,7 @@ public class GameIntro {
     }
 
     /**
-     * Draw panel on canvas and update state, called by the game loop.
+     * Draw panel on canvas, called by the game loop.
      *
      * @param canvas - drawing surface
      */
@@ -63,8 +63,12 @@ public class GameIntro {
 
         // Draw text
         canvas.drawText(text, gameWindowX, gameWindowY, paint);
+    }
 
-        // Update background opacity
+    /**
+     * Update background opacity, called by the game loop (fading speed does not depend on the frame rate).
+     */
+    public void update() {
         backPaint.setAlpha(opacity);
         paint.setAlpha(opacity);
         if (isFading) {
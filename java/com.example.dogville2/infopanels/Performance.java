@@ -8,43 +8,217 @@ import androidx.core.content.ContextCompat;
 
 import com.example.dogvillev2.GameLoop;
 import com.example.dogvillev2.R;
+import com.example.dogvillev2.gameObjects.animated.SpellStore;
+import com.example.dogvillev2.gameObjects.characters.AiLodScheduler;
+import com.example.dogvillev2.layout.GameObjectPool;
+import com.example.dogvillev2.utilities.FrameTimings;
 
 /**
- * Performance class is responsible for drawing current UPS and FPS on screen.
- * Average UPS and FPS values are calculated in the GameLoop.
+ * Performance class is responsible for drawing current UPS and FPS on screen,
+ * with vsync pacing also the number of missed display refreshes per second.
+ * Below them a table of frame phase times is drawn (p50, p95, p99 and worst of the recent frames, ms)
+ * and a table of level object pools (objects in use, peak of objects in use, free objects and misses),
+ * the last row of the pool table is the spell store (misses are dropped and refused spells).
+ * The last table shows numbers of characters in the AI level of detail bands.
+ * Average UPS and FPS values are calculated in the GameLoop, phase times are collected in FrameTimings.
+ * Text is written into reused char arrays, so drawing the panel does not create new objects.
  */
 public class Performance {
+    // Show table of frame phase times
+    public static final boolean SHOW_FRAME_TIMINGS = true;
+    // Show table of level object pools
+    public static final boolean SHOW_POOL_STATS = true;
+    // Show table of AI level of detail bands
+    public static final boolean SHOW_AI_LOD_STATS = true;
+    private static final String[] PHASE_LABELS = {"INP ", "UPD ", "BCK ", "CHR ", "FRT ", "HUD ", "PRS ", "FRM "};
+    private static final int LABEL_LENGTH = 4;
+    private static final int COLUMN_WIDTH = 6;
+    private static final int STAT_COUNT = 4;
     private final GameLoop gameLoop;
-    private final Context context;
+    private final FrameTimings frameTimings;
+    private final Paint paint;
+    private final Paint tablePaint;
+    private final char[] tableHeader = "ms     p50   p95   p99 worst".toCharArray();
+    private final char[][] tableRows = new char[FrameTimings.PHASE_COUNT][];
+    private final GameObjectPool[] objectPools;
+    private final char[] poolHeader = "pool  used  peak  free  miss".toCharArray();
+    private final char[][] poolRows;
+    private final SpellStore spells;
+    private final char[] spellRow = "SPEL     0     0     0     0".toCharArray();
+    private final AiLodScheduler aiLodScheduler;
+    private final char[] aiLodHeader = "ai    near   mid   far".toCharArray();
+    private final char[] aiLodRow = "CHAR     0     0     0".toCharArray();
+    private final char[] textUPS = "UPS: 0000.00".toCharArray();
+    private final char[] textFPS = "FPS: 0000.00".toCharArray();
+    private final char[] textMissedVsyncs = "VSM: 0000".toCharArray(); // Vsyncs missed
+    private static final int VALUE_START = 5; // Values are written after the "UPS: ", "FPS: " and "VSM: " labels
 
-    public Performance(Context context, GameLoop gameLoop) {
-        this.context = context;
+    public Performance(Context context, GameLoop gameLoop, FrameTimings frameTimings, GameObjectPool[] objectPools, SpellStore spells,
+                       AiLodScheduler aiLodScheduler) {
         this.gameLoop = gameLoop;
+        this.aiLodScheduler = aiLodScheduler;
+        this.spells = spells;
+        this.frameTimings = frameTimings;
+        this.objectPools = objectPools;
+
+        paint = new Paint();
+        int color = ContextCompat.getColor(context, R.color.magenta);
+        paint.setColor(color);
+        paint.setTextSize(20);
+
+        tablePaint = new Paint();
+        tablePaint.setColor(color);
+        tablePaint.setTextSize(10);
+        for (int phase = 0; phase < FrameTimings.PHASE_COUNT; phase++) {
+            tableRows[phase] = (PHASE_LABELS[phase] + "   0.0   0.0   0.0   0.0").toCharArray();
+        }
+        poolRows = new char[objectPools.length][];
+        for (int i = 0; i < objectPools.length; i++) {
+            poolRows[i] = (objectPools[i].getName() + "     0     0     0     0").toCharArray();
+        }
     }
 
     public void draw(Canvas canvas) {
         drawUPS(canvas);
         drawFPS(canvas);
+        if (GameLoop.VSYNC_PACING) {
+            drawMissedVsyncs(canvas);
+        }
+        if (SHOW_FRAME_TIMINGS) {
+            drawFrameTimings(canvas);
+        }
+        if (SHOW_POOL_STATS) {
+            drawPoolStats(canvas);
+        }
+        if (SHOW_AI_LOD_STATS) {
+            drawAiLodStats(canvas);
+        }
     }
 
     public void drawUPS(Canvas canvas) {
-        //String averageUPS = Double.toString(gameLoop.getAverageUPS());
-        String averageUPS = String.format("%04.2f", gameLoop.getAverageUPS());
-        Paint paint = new Paint();
-        int color = ContextCompat.getColor(context, R.color.magenta);
-        paint.setColor(color);
-        paint.setTextSize(20);
-        canvas.drawText("UPS: " + averageUPS, 350, 30, paint);
+        int length = writeAverage(textUPS, gameLoop.getAverageUPS());
+        canvas.drawText(textUPS, 0, length, 350, 30, paint);
     }
 
     public void drawFPS(Canvas canvas) {
-        //String averageFPS = Double.toString(gameLoop.getAverageFPS());
-        String averageFPS = String.format("%04.2f", gameLoop.getAverageFPS());
+        int length = writeAverage(textFPS, gameLoop.getAverageFPS());
+        canvas.drawText(textFPS, 0, length, 350, 50, paint);
+    }
 
-        Paint paint = new Paint();
-        int color = ContextCompat.getColor(context, R.color.magenta);
-        paint.setColor(color);
-        paint.setTextSize(20);
-        canvas.drawText("FPS: " + averageFPS, 350, 50, paint);
+    public void drawMissedVsyncs(Canvas canvas) {
+        int length = writeCount(textMissedVsyncs, gameLoop.getAverageMissedVsyncs());
+        canvas.drawText(textMissedVsyncs, 0, length, 350, 70, paint);
+    }
+
+    public void drawFrameTimings(Canvas canvas) {
+        canvas.drawText(tableHeader, 0, tableHeader.length, 320, 85, tablePaint);
+        for (int phase = 0; phase < FrameTimings.PHASE_COUNT; phase++) {
+            char[] row = tableRows[phase];
+            for (int stat = 0; stat < STAT_COUNT; stat++) {
+                writeMillis(row, LABEL_LENGTH + (stat + 1) * COLUMN_WIDTH, frameTimings.getStat(phase, stat));
+            }
+            canvas.drawText(row, 0, row.length, 320, 97 + phase * 11, tablePaint);
+        }
+    }
+
+    public void drawPoolStats(Canvas canvas) {
+        canvas.drawText(poolHeader, 0, poolHeader.length, 320, 190, tablePaint);
+        for (int i = 0; i < objectPools.length; i++) {
+            char[] row = poolRows[i];
+            writeColumn(row, LABEL_LENGTH + COLUMN_WIDTH, objectPools[i].getUsedCount());
+            writeColumn(row, LABEL_LENGTH + 2 * COLUMN_WIDTH, objectPools[i].getPeakUsedCount());
+            writeColumn(row, LABEL_LENGTH + 3 * COLUMN_WIDTH, objectPools[i].getFreeCount());
+            writeColumn(row, LABEL_LENGTH + 4 * COLUMN_WIDTH, objectPools[i].getMissCount());
+            canvas.drawText(row, 0, row.length, 320, 202 + i * 11, tablePaint);
+        }
+        writeColumn(spellRow, LABEL_LENGTH + COLUMN_WIDTH, spells.getCount());
+        writeColumn(spellRow, LABEL_LENGTH + 2 * COLUMN_WIDTH, spells.getPeakCount());
+        writeColumn(spellRow, LABEL_LENGTH + 3 * COLUMN_WIDTH, spells.getCapacity() - spells.getCount());
+        writeColumn(spellRow, LABEL_LENGTH + 4 * COLUMN_WIDTH, spells.getDroppedCount() + spells.getRefusedCount());
+        canvas.drawText(spellRow, 0, spellRow.length, 320, 202 + objectPools.length * 11, tablePaint);
+    }
+
+    public void drawAiLodStats(Canvas canvas) {
+        // Below the pool table (pools and the spell store)
+        int top = 202 + (objectPools.length + 1) * 11 + 4;
+        canvas.drawText(aiLodHeader, 0, aiLodHeader.length, 320, top, tablePaint);
+        for (int band = 0; band < AiLodScheduler.BAND_COUNT; band++) {
+            writeColumn(aiLodRow, LABEL_LENGTH + (band + 1) * COLUMN_WIDTH, aiLodScheduler.getBandCount(band));
+        }
+        canvas.drawText(aiLodRow, 0, aiLodRow.length, 320, top + 11, tablePaint);
+    }
+
+    /**
+     * Write whole value right-aligned in the column that ends before columnEnd (values above 99999 are shown as 99999).
+     */
+    private static void writeColumn(char[] text, int columnEnd, int value) {
+        int count = Math.max(0, Math.min(value, 99999));
+        int position = columnEnd - 1;
+        do {
+            text[position--] = (char) ('0' + count % 10);
+            count /= 10;
+        } while (count > 0);
+        while (position >= columnEnd - COLUMN_WIDTH) {
+            text[position--] = ' ';
+        }
+    }
+
+    /**
+     * Write time in milliseconds with one decimal place, right-aligned in the column that ends before columnEnd
+     * (values above 999.9 ms are shown as 999.9, so columns are always separated with a space).
+     */
+    private static void writeMillis(char[] text, int columnEnd, int micros) {
+        int tenths = Math.min((micros + 50) / 100, 9999);
+        int position = columnEnd - 1;
+        text[position--] = (char) ('0' + tenths % 10);
+        text[position--] = '.';
+        tenths /= 10;
+        do {
+            text[position--] = (char) ('0' + tenths % 10);
+            tenths /= 10;
+        } while (tenths > 0);
+        while (position >= columnEnd - COLUMN_WIDTH) {
+            text[position--] = ' ';
+        }
+    }
+
+    /**
+     * Write whole value after the label in the text array (values above 9999 are shown as 9999).
+     *
+     * @return length of the resulting text
+     */
+    private static int writeCount(char[] text, int value) {
+        int count = Math.max(0, Math.min(value, 9999));
+        int digits = count >= 1000 ? 4 : count >= 100 ? 3 : count >= 10 ? 2 : 1;
+        int length = VALUE_START + digits;
+
+        // Write digits from the end of the text
+        for (int position = length - 1; position >= VALUE_START; position--) {
+            text[position] = (char) ('0' + count % 10);
+            count /= 10;
+        }
+        return length;
+    }
+
+    /**
+     * Write value with two decimal places after the label in the text array (same as "%04.2f" for values below 10000).
+     *
+     * @return length of the resulting text
+     */
+    private static int writeAverage(char[] text, double value) {
+        long hundredths = Math.max(0, Math.min(Math.round(value * 100), 999999));
+        int digits = hundredths >= 100000 ? 6 : hundredths >= 10000 ? 5 : hundredths >= 1000 ? 4 : 3;
+        int length = VALUE_START + digits + 1;
+
+        // Write digits from the end of the text
+        int position = length - 1;
+        for (int digit = 0; digit < digits; digit++) {
+            if (digit == 2) {
+                text[position--] = '.';
+            }
+            text[position--] = (char) ('0' + hundredths % 10);
+            hundredths /= 10;
+        }
+        return length;
     }
 }
@@ -0,0 +1,242 @@
+package com.example.dogvillev2.layout;
+
+import java.util.Arrays;
+
+/**
+ * CollisionBroadphase quickly finds colliders (boxes of game objects on the level) that overlap a given box,
+ * the exact collision check is then done only for the found colliders.
+ * Colliders are kept sorted by the left side of the box (sweep and prune along X axe - the level is long
+ * and narrow), a query only looks at colliders whose left side is between the query box and the widest collider.
+ * Boxes are stored in primitive arrays, queries write collider ids into the given array and do not create new objects.
+ * Sorting is done before the query if colliders moved (insertion sort, nearly sorted colliders are sorted in linear time).
+ */
+public class CollisionBroadphase {
+
+    public static final int NO_COLLIDER = -1;
+
+    // Layers of colliders, a query selects layers with the bit mask
+    public static final int LAYER_PLATFORM = 1;
+    public static final int LAYER_TRAP = 1 << 1;
+    public static final int LAYER_ENEMY = 1 << 2;
+    public static final int LAYER_SPELL = 1 << 3;
+    public static final int ALL_LAYERS = LAYER_PLATFORM | LAYER_TRAP | LAYER_ENEMY | LAYER_SPELL;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Colliders by id
+    private float[] minX = new float[INITIAL_CAPACITY];
+    private float[] minY = new float[INITIAL_CAPACITY];
+    private float[] maxX = new float[INITIAL_CAPACITY];
+    private float[] maxY = new float[INITIAL_CAPACITY];
+    private int[] layers = new int[INITIAL_CAPACITY];
+    private Object[] owners = new Object[INITIAL_CAPACITY];
+    private int[] ownerIndices = new int[INITIAL_CAPACITY]; // place of the entity in its owner store
+    private int[] orderIndex = new int[INITIAL_CAPACITY]; // place of the collider in the sorted order
+    // Ids of removed colliders for reuse
+    private int[] freeIds = new int[INITIAL_CAPACITY];
+    private int freeIdCount = 0;
+    private int idCount = 0;
+
+    // Ids of active colliders sorted by minX
+    private int[] order = new int[INITIAL_CAPACITY];
+    private int colliderCount = 0;
+    private boolean isSorted = true;
+    private float maxWidth = 0; // Width of the widest collider added
+
+    /**
+     * Register collider on the level.
+     *
+     * @param owner - game object of the collider (returned by getOwner())
+     * @param layer - one of the LAYER_ constants
+     * @return id of the collider, used to move or remove it
+     */
+    public int add(Object owner, int layer, float left, float top, float right, float bottom) {
+        return add(owner, -1, layer, left, top, right, bottom);
+    }
+
+    /**
+     * Register collider of an entity kept in a store of entities (for example SlimeStore).
+     *
+     * @param owner      - store of the entity (returned by getOwner())
+     * @param ownerIndex - index of the entity in the store (returned by getOwnerIndex())
+     * @param layer      - one of the LAYER_ constants
+     * @return id of the collider, used to move or remove it
+     */
+    public int add(Object owner, int ownerIndex, int layer, float left, float top, float right, float bottom) {
+        int id;
+        if (freeIdCount > 0) {
+            id = freeIds[--freeIdCount];
+        } else {
+            if (idCount == minX.length) {
+                grow();
+            }
+            id = idCount++;
+        }
+
+        owners[id] = owner;
+        ownerIndices[id] = ownerIndex;
+        layers[id] = layer;
+        setBox(id, left, top, right, bottom);
+
+        order[colliderCount] = id;
+        orderIndex[id] = colliderCount;
+        colliderCount++;
+        isSorted = false;
+        return id;
+    }
+
+    /**
+     * Change box of the collider (called when the game object moves).
+     */
+    public void move(int id, float left, float top, float right, float bottom) {
+        if (minX[id] != left) {
+            isSorted = false;
+        }
+        setBox(id, left, top, right, bottom);
+    }
+
+    /**
+     * Remove collider from the level, its id can be given to a new collider.
+     */
+    public void remove(int id) {
+        int index = orderIndex[id];
+        System.arraycopy(order, index + 1, order, index, colliderCount - index - 1);
+        colliderCount--;
+        for (int i = index; i < colliderCount; i++) {
+            orderIndex[order[i]] = i;
+        }
+        owners[id] = null;
+        layers[id] = 0;
+        freeIds[freeIdCount++] = id;
+    }
+
+    /**
+     * Find colliders that overlap the box (touching sides do not overlap).
+     *
+     * @param layerMask - layers of colliders to look for (LAYER_ constants joined with "|")
+     * @param result    - array to write ids of found colliders to
+     * @return number of found colliders (not more than the length of the result array)
+     */
+    public int query(float left, float top, float right, float bottom, int layerMask, int[] result) {
+        if (!isSorted) {
+            sort();
+        }
+
+        // Colliders with the left side before this position can not reach the box
+        int index = findFirstStartingAfter(left - maxWidth);
+        int found = 0;
+        while (index < colliderCount && found < result.length) {
+            int id = order[index++];
+            if (minX[id] >= right) {
+                break; // All next colliders start after the box
+            }
+            if ((layers[id] & layerMask) != 0
+                    && maxX[id] > left && minY[id] < bottom && maxY[id] > top) {
+                result[found++] = id;
+            }
+        }
+        return found;
+    }
+
+    public Object getOwner(int id) {
+        return owners[id];
+    }
+
+    /**
+     * Get index of the entity in the owner store (-1 for colliders of game objects)
+     */
+    public int getOwnerIndex(int id) {
+        return ownerIndices[id];
+    }
+
+    /**
+     * Change index of the entity in the owner store (the store moved the entity to another index)
+     */
+    public void setOwnerIndex(int id, int ownerIndex) {
+        ownerIndices[id] = ownerIndex;
+    }
+
+    public float getLeft(int id) {
+        return minX[id];
+    }
+
+    public float getTop(int id) {
+        return minY[id];
+    }
+
+    public float getRight(int id) {
+        return maxX[id];
+    }
+
+    public float getBottom(int id) {
+        return maxY[id];
+    }
+
+    /**
+     * Get number of registered colliders
+     */
+    public int getColliderCount() {
+        return colliderCount;
+    }
+
+    private void setBox(int id, float left, float top, float right, float bottom) {
+        minX[id] = left;
+        minY[id] = top;
+        maxX[id] = right;
+        maxY[id] = bottom;
+        maxWidth = Math.max(maxWidth, right - left);
+    }
+
+    /**
+     * Insertion sort of colliders by the left side
+     */
+    private void sort() {
+        for (int i = 1; i < colliderCount; i++) {
+            int id = order[i];
+            float key = minX[id];
+            int j = i - 1;
+            while (j >= 0 && minX[order[j]] > key) {
+                order[j + 1] = order[j];
+                orderIndex[order[j + 1]] = j + 1;
+                j--;
+            }
+            order[j + 1] = id;
+            orderIndex[id] = j + 1;
+        }
+        isSorted = true;
+    }
+
+    /**
+     * Binary search for the first collider in the sorted order with the left side after the position
+     */
+    private int findFirstStartingAfter(float position) {
+        int low = 0;
+        int high = colliderCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (minX[order[middle]] <= position) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Double capacity of the arrays (only when colliders are added)
+     */
+    private void grow() {
+        int capacity = minX.length * 2;
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        maxX = Arrays.copyOf(maxX, capacity);
+        maxY = Arrays.copyOf(maxY, capacity);
+        layers = Arrays.copyOf(layers, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        ownerIndices = Arrays.copyOf(ownerIndices, capacity);
+        orderIndex = Arrays.copyOf(orderIndex, capacity);
+        freeIds = Arrays.copyOf(freeIds, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
@@ -1,6 +1,11 @@
 package com.example.dogvillev2.layout;
 
 import android.content.res.Resources;
+import android.graphics.Rect;
+import android.os.Build;
+import android.view.Display;
+
+import androidx.annotation.RequiresApi;
 
 /**
  * GameDisplay object is responsible for scaling game to the device window.
@@ -30,10 +35,19 @@ public class GameDisplay {
     public static int DEVICE_WIDTH_REAL;
     public static int DEVICE_HEIGHT_REAL;
 
+    // Place of the game window on the capped screen (the whole screen, or smaller with letterboxing), set by FramePresenter
+    public static volatile Rect presentationRect;
+
+    // Highest refresh rate requested from the display (more frames drain the battery faster)
+    private static final float MAX_REFRESH_RATE = 120;
+    // Refresh rate of the display (vsync frequency), set by the main activity
+    public static float displayRefreshRate = 60;
+
     public GameDisplay(int deviceWidthPixelsCapped, int deviceHeightPixelsCapped) {
 
         deviceWidthCapped = deviceWidthPixelsCapped;
         deviceHeightCapped = deviceHeightPixelsCapped;
+        presentationRect = new Rect(0, 0, deviceWidthCapped, deviceHeightCapped);
 
         GAME_WIDTH_BUFF_CANVAS = GAME_WIDTH;
         GAME_HEIGHT_BUFF_CANVAS = GAME_HEIGHT;
@@ -59,6 +73,28 @@ public class GameDisplay {
         }
     }
 
+    /**
+     * Choose display mode with the highest refresh rate (up to MAX_REFRESH_RATE) and the same resolution
+     * as the current mode, so 90/120 Hz panels are not limited to 60 frames per second.
+     *
+     * @param display - display of the game window
+     * @return preferred display mode (current mode if the display does not support higher refresh rates)
+     */
+    @RequiresApi(api = Build.VERSION_CODES.M)
+    public static Display.Mode getPreferredDisplayMode(Display display) {
+        Display.Mode currentMode = display.getMode();
+        Display.Mode preferredMode = currentMode;
+        for (Display.Mode mode : display.getSupportedModes()) {
+            if (mode.getPhysicalWidth() == currentMode.getPhysicalWidth()
+                    && mode.getPhysicalHeight() == currentMode.getPhysicalHeight()
+                    && mode.getRefreshRate() <= MAX_REFRESH_RATE
+                    && mode.getRefreshRate() > preferredMode.getRefreshRate()) {
+                preferredMode = mode;
+            }
+        }
+        return preferredMode;
+    }
+
     /**
      * Recalculate touch coordinate X to the standard game window coordinates (devise width -> game window width)
      *
@@ -66,7 +102,8 @@ public class GameDisplay {
      * @return X coordinate relative to game window
      */
     public double realToGameWindowPositionX(double touchPositionX) {
-        return touchPositionX / DEVICE_WIDTH_REAL * GAME_WIDTH;
+        Rect rect = presentationRect;
+        return (touchPositionX / DEVICE_WIDTH_REAL * deviceWidthCapped - rect.left) / rect.width() * GAME_WIDTH;
     }
 
     /**
@@ -76,6 +113,7 @@ public class GameDisplay {
      * @return Y coordinate relative to game window
      */
     public double realToGameWindowPositionY(double touchPositionY) {
-        return touchPositionY / DEVICE_HEIGHT_REAL * GAME_HEIGHT;
+        Rect rect = presentationRect;
+        return (touchPositionY / DEVICE_HEIGHT_REAL * deviceHeightCapped - rect.top) / rect.height() * GAME_HEIGHT;
     }
 }
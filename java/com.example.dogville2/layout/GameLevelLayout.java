@@ -1,169 +1,198 @@
 package com.example.dogvillev2.layout;
 
-import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Rect;
-import android.os.Build;
-
-import androidx.annotation.RequiresApi;
-
-import com.example.dogvillev2.R;
-import com.example.dogvillev2.gameObjects.Background;
-import com.example.dogvillev2.gameObjects.BitmapGameObject;
 import com.example.dogvillev2.gameObjects.GameObject;
+import com.example.dogvillev2.gameObjects.LevelObject;
 import com.example.dogvillev2.gameObjects.animated.BearTrap;
-import com.example.dogvillev2.sounds.GameSounds;
-import com.example.dogvillev2.utilities.BitmapLoader;
-
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import com.example.dogvillev2.sounds.SoundPlayer;
 
+import java.util.Arrays;
 
 /**
- * GameLevelLayout class stores locations of all static objects in game in a hashmap "map".
- * Another hashmap "mapObjects" stores static objects that fill up current game window,
- * when leaving the game window objects are removed from memory, their locations are saved back to "map" hashmap.
- * Repeating background images are also stored and controlled in an instance of GameLevelLayout.
+ * GameLevelLayout class loads locations of all static objects in game from the level source
+ * (level file or procedural level) chunk by chunk:
+ * chunks that come near the game window are decoded into sorted positions of each object type (PlacementIndex),
+ * chunks that are far from the game window are unloaded, so memory does not depend on the length of the level.
+ * Objects are created only near the current game window,
+ * when leaving the game window objects are returned to the pool of their type (their positions stay in the index)
+ * and reused for the next objects of the type.
+ * Enemies of a chunk are given to the GameWorld when the chunk is loaded and taken back when it is unloaded,
+ * killed enemies are saved by their placement ids and are not spawned again.
+ * Static back scenery (houses, cars, trees behind the player) is not created as objects,
+ * records of the loaded chunks are given to the LevelImages (the LevelRenderer pre-renders them into level chunks).
+ * Created platforms and traps are registered in the collision broadphase, collisions are checked only with
+ * the objects found by the broadphase.
+ * The layout keeps only the state of the simulation, images and drawing of the level are in the LevelRenderer.
  */
-public class GameLevelLayout {
-
-    public static final double FINISH_POINT = 1680;
-    private static final int TREE1 = 0;
-    private static final int TREE2 = 1;
-    private static final int STONE = 2;
-    private static final int PLATFORM = 3;
-    private static final int HOUSE1 = 4;
-    private static final int HOUSE2 = 5;
-    private static final int CAR = 6;
-    private static final int BEAR_TRAP = 7;
+public class GameLevelLayout implements PlacementIndex.ObjectFactory {
+
+    private static final int TREE1 = LevelFile.TYPE_TREE1;
+    private static final int STONE = LevelFile.TYPE_STONE;
+    private static final int PLATFORM = LevelFile.TYPE_PLATFORM;
+    private static final int BEAR_TRAP = LevelFile.TYPE_BEAR_TRAP;
+    private static final int SLIME = LevelFile.TYPE_SLIME;
+    // Width of the chunks of back scenery pre-rendered by the SceneryChunkCache
+    public static final int SCENERY_CHUNK_WIDTH = 512;
+    // Chunks of the level file are loaded within this distance from the game window
+    // (back scenery is baked one scenery chunk ahead, scenery objects are not wider than a scenery chunk)
+    private static final int LOAD_DISTANCE = 3 * SCENERY_CHUNK_WIDTH;
     // Objects that are drawn in front of the player, the order of the drawing corresponds to the order in array
-    private static final int[] frontObjects = {TREE1, PLATFORM, BEAR_TRAP, STONE};
-    // Objects that are drawn behind the player, the order of the drawing corresponds to the order in array
-    private static final int[] backObjects = {HOUSE1, HOUSE2, CAR, TREE2};
-    // Game level objects: only objects in game window are created to reduce memory used
-    private static HashMap<Integer, List<Integer>> gameObjectsCoordinates; // Stores coordinates of not yet created objects
-    private static HashMap<Integer, List<GameObject>> gameObjectsCreated; // Stores created game objects
+    public static final int[] FRONT_OBJECTS = {TREE1, PLATFORM, BEAR_TRAP, STONE};
+    // Game level objects of the loaded chunks [firstLoadedChunk, lastLoadedChunk) by type:
+    // only objects in game window are created to reduce memory used
+    private final PlacementIndex[][] loadedChunks;
+    private int firstLoadedChunk = 0;
+    private int lastLoadedChunk = 0;
+    private final LevelSource levelSource;
+    private final EnemySpawner enemySpawner;
+    private final LevelImages levelImages;
+    // Number of records of the loaded chunks (placement ids of the chunk are from the first record id to first id + count)
+    private final int[] loadedChunkRecordCounts;
+    // Records of the chunk that is loaded (reused for all chunks)
+    private int[] recordTypes = new int[0];
+    private int[] recordPositionsX = new int[0];
+    private int[] recordPositionsY = new int[0];
+    private final int[] typeCounts = new int[LevelFile.TYPE_COUNT];
+    // Colliders of platforms and traps
+    private final CollisionBroadphase collisionBroadphase;
+    // Colliders found by the last collision check (only used by the game loop thread)
+    private final int[] collisionResults = new int[16];
     private final GameView gameView;
-    private final GameSounds gameSounds;
-    private final Bitmap[] bitmaps;
-    Background sky;
-    Background houses;
-    Background fence;
-    Background road;
-    private int platformCount = 0; // Used to adjust platform height
-
-    @RequiresApi(api = Build.VERSION_CODES.N)
-    public GameLevelLayout(GameView gameView, BitmapLoader bitmapLoader, GameSounds gameSounds) {
+    private final SoundPlayer gameSounds;
+    // Removed front objects by type, reused when objects of the type come near the game window
+    private final GameObjectPool[] objectPools;
+    private final GameObjectPool[] frontObjectPools;
+    // State of the traps by placement id (frame of the trap, 2 bits), kept when the trap object is removed
+    private final PlacementStateStore trapStates = new PlacementStateStore(2);
+    // State of the enemies by placement id (1 bit: killed enemies are not spawned again)
+    private static final int ENEMY_DEAD = 1;
+    private final PlacementStateStore enemyStates = new PlacementStateStore(1);
+
+    /**
+     * Creates enemies of the level, implemented by the GameWorld
+     */
+    public interface EnemySpawner {
+        /**
+         * Create enemy of the placement (id of the level record) when its chunk is loaded
+         */
+        void spawnEnemy(int placement, int positionOnLevelX, int positionOnLevelY);
+
+        /**
+         * Remove enemies of the placements from firstPlacement (inclusive) to lastPlacement (exclusive)
+         * when their chunk is unloaded
+         */
+        void despawnEnemies(int firstPlacement, int lastPlacement);
+    }
+
+    /**
+     * Images of the level objects, implemented by the LevelRenderer
+     * (the headless simulation only gives sizes of the images)
+     */
+    public interface LevelImages {
+        /**
+         * Get width of the image of the object type (LevelFile.TYPE_ constants)
+         */
+        int getImageWidth(int type);
+
+        /**
+         * Get height of the image of the object type (LevelFile.TYPE_ constants)
+         */
+        int getImageHeight(int type);
+
+        /**
+         * Add back scenery of the loaded chunk, records are valid only during the call
+         */
+        void addChunkScenery(int chunk, int count, int[] types, int[] positionsX, int[] positionsY);
+
+        /**
+         * Remove back scenery of the unloaded chunk
+         */
+        void removeChunkScenery(int chunk);
+    }
+
+    public GameLevelLayout(GameView gameView, SoundPlayer gameSounds, CollisionBroadphase collisionBroadphase,
+                           LevelSource levelSource, EnemySpawner enemySpawner, LevelImages levelImages) {
         this.gameView = gameView;
         this.gameSounds = gameSounds;
+        this.levelSource = levelSource;
+        this.enemySpawner = enemySpawner;
+        this.levelImages = levelImages;
+        this.collisionBroadphase = collisionBroadphase;
+
+        // Pools of removed objects for reuse
+        objectPools = new GameObjectPool[LevelFile.TYPE_COUNT];
+        objectPools[TREE1] = new GameObjectPool("TREE");
+        objectPools[PLATFORM] = new GameObjectPool("PLAT");
+        objectPools[BEAR_TRAP] = new GameObjectPool("TRAP");
+        objectPools[STONE] = new GameObjectPool("STON");
+        frontObjectPools = new GameObjectPool[FRONT_OBJECTS.length];
+        for (int i = 0; i < FRONT_OBJECTS.length; i++) {
+            frontObjectPools[i] = objectPools[FRONT_OBJECTS[i]];
+        }
 
-        // Load image resources
-        bitmaps = new Bitmap[8];
-        bitmaps[TREE1] = bitmapLoader.loadBitmap(R.drawable.trees_front);
-        bitmaps[TREE2] = bitmapLoader.loadBitmap(R.drawable.tree_2);
-        bitmaps[STONE] = bitmapLoader.loadBitmap(R.drawable.stone);
-        bitmaps[PLATFORM] = bitmapLoader.loadBitmap(R.drawable.platform);
-        bitmaps[HOUSE1] = bitmapLoader.loadBitmap(R.drawable.house_type1_front);
-        bitmaps[HOUSE2] = bitmapLoader.loadBitmap(R.drawable.house_type2_front);
-        bitmaps[CAR] = bitmapLoader.loadBitmap(R.drawable.car_front);
-        bitmaps[BEAR_TRAP] = bitmapLoader.loadBitmap(R.drawable.bear_trap);
-
-        // Initialize Background objects (images for parallax movement)
-        // Sky
-        Bitmap skyBitmap = bitmapLoader.loadBitmap(R.drawable.sky);
-        sky = new Background(skyBitmap, gameView, 0, 0);
-        sky.setVelocityX(-0.5); // Velocity of sky movement
-        sky.setSpeedMultiplier(0.7); // Velocity of sky relative to player movement
-        // Background houses
-        Bitmap housesBitmap = bitmapLoader.loadBitmap(R.drawable.houses);
-        houses = new Background(housesBitmap, gameView, 0, 0);
-        houses.setSpeedMultiplier(0.8); // Velocity of background houses relative to player movement
-        // Road fence
-        Bitmap fenceBitmap = bitmapLoader.loadBitmap(R.drawable.fence);
-        fence = new Background(fenceBitmap, gameView, 0, 50);
-        // Road
-        Bitmap roadBitmap = bitmapLoader.loadBitmap(R.drawable.road);
-        road = new Background(roadBitmap, gameView, 0, 50);
+        // Chunks that can be loaded at the same time: load range of the game window and a chunk partly in it on each side
+        int maxLoadedChunks = (gameView.getWindowWidth() + 2 * LOAD_DISTANCE) / levelSource.getChunkWidth() + 2;
+        loadedChunks = new PlacementIndex[maxLoadedChunks][];
+        loadedChunkRecordCounts = new int[maxLoadedChunks];
 
         // Initialize GameObjects that are in the initial game window view
-        initializeLevelLayout();
+        update();
     }
 
     /**
-     * Check for collision with Bear Traps (all existing bear trap objects),
+     * Check for collision with Bear Traps (traps found by the collision broadphase near the object),
      * activates the trap if needed and returns true only if it is time to count damage.
      */
-    public static boolean isOnTrap(double objectLeftBottomX, double objectLeftBottomY, int objectWidth, int objectHeight) {
+    public boolean isOnTrap(double objectLeftBottomX, double objectLeftBottomY, int objectWidth, int objectHeight) {
 
-        // Get platform coordinates X, Y and check for collision for each of the platforms:
-        List<GameObject> traps = gameObjectsCreated.get(BEAR_TRAP);
-        if (traps == null) {
-            return false;
-        }
+        // Trigger zone of the object (horizontal line)
+        int objectLeft = (int) objectLeftBottomX;
+        int objectRight = (int) (objectLeftBottomX + objectWidth);
+        int objectY = (int) (objectLeftBottomY - objectHeight / 3);
+
+        // Traps near the trigger zone (zone is one pixel larger, positions of the objects are rounded)
+        int found = collisionBroadphase.query(objectLeft - 1, objectY - 1, objectRight + 1, objectY + 1,
+                CollisionBroadphase.LAYER_TRAP, collisionResults);
 
-        // Trigger zone of the object
-        Rect objectRect = new Rect(
-                (int) objectLeftBottomX,
-                (int) (objectLeftBottomY - objectHeight / 3),
-                (int) (objectLeftBottomX + objectWidth),
-                (int) (objectLeftBottomY - objectHeight / 3)
-        );
-
-        for (GameObject trap : traps) {
-            int x = (int) trap.getPositionOnLevelX() + ((BearTrap) trap).getFrameWidth() / 3;
-            int y = (int) trap.getPositionOnLevelY() + ((BearTrap) trap).getFrameHeight() / 3;
-
-            // Trigger zone of the trap
-            Rect trapRect = new Rect(
-                    x + 10,
-                    y,
-                    x + ((BearTrap) trap).getFrameWidth() / 3 - 10,
-                    y + ((BearTrap) trap).getFrameHeight() / 3
-            );
-
-            if (trapRect.intersect(objectRect)) {
+        for (int i = 0; i < found; i++) {
+            BearTrap trap = (BearTrap) collisionBroadphase.getOwner(collisionResults[i]);
+            int x = (int) trap.getPositionOnLevelX() + trap.getFrameWidth() / 3;
+            int y = (int) trap.getPositionOnLevelY() + trap.getFrameHeight() / 3;
+
+            // Trigger zone of the trap: (x + 10, y) - (x + frameWidth / 3 - 10, y + frameHeight / 3)
+            if (x + 10 < objectRight && objectLeft < x + trap.getFrameWidth() / 3 - 10
+                    && y < objectY && objectY < y + trap.getFrameHeight() / 3) {
                 // Trap and object trigger zones intersect (player stands on the trap) -> try to trigger trap
-                ((BearTrap) trap).triggerTrap();
-                return ((BearTrap) trap).isInAction();
+                trap.triggerTrap();
+                return trap.isInAction();
             }
         }
         return false;
     }
 
     /**
-     * Check for collision with platforms (all existing platform game objects).
+     * Check for collision with platforms (platforms found by the collision broadphase near the object).
      * Returns 0 on no collision, or y coordinate of the collision.
      */
-    public static int isOnPlatform(double objectLeftBottomX, double objectLeftBottomY, int objectWidth, int objectHeight) {
-
-        // Get platform coordinates X, Y and check for collision for each of the platforms:
-        List<GameObject> platforms = gameObjectsCreated.get(PLATFORM);
-        if (platforms == null) {
-            return 0;
-        }
+    public int isOnPlatform(double objectLeftBottomX, double objectLeftBottomY, int objectWidth, int objectHeight) {
 
         // Trigger zone of a game object
-        Rect objectRect = new Rect(
-                (int) objectLeftBottomX,
-                (int) objectLeftBottomY - 3,
-                (int) (objectLeftBottomX + objectWidth),
-                (int) (objectLeftBottomY)
-        );
-
-        for (GameObject platform : platforms) {
+        int objectLeft = (int) objectLeftBottomX;
+        int objectTop = (int) objectLeftBottomY - 3;
+        int objectRight = (int) (objectLeftBottomX + objectWidth);
+        int objectBottom = (int) objectLeftBottomY;
+
+        // Platforms near the trigger zone
+        int found = collisionBroadphase.query(objectLeft - 1, objectTop - 1, objectRight + 1, objectBottom + 1,
+                CollisionBroadphase.LAYER_PLATFORM, collisionResults);
+
+        for (int i = 0; i < found; i++) {
+            LevelObject platform = (LevelObject) collisionBroadphase.getOwner(collisionResults[i]);
             int x = (int) platform.getPositionOnLevelX() + objectWidth / 2;
             int y = (int) platform.getPositionOnLevelY() + 10;
 
-            // Trigger zone of a platform
-            Rect platformRect = new Rect(
-                    x,
-                    y,
-                    x + ((BitmapGameObject) platform).bitmapRectangle.width() - objectWidth,
-                    y + 3 // only top surface of the platform
-            );
-
-            if (platformRect.intersect(objectRect)) {
+            // Trigger zone of a platform: only top surface of the platform (3 pixels)
+            if (x < objectRight && objectLeft < x + platform.getWidth() - objectWidth
+                    && y < objectBottom && objectTop < y + 3) {
                 return y - objectHeight + 3;
             }
         }
@@ -171,227 +200,256 @@ public class GameLevelLayout {
     }
 
     /**
-     * Load initial information about game objects locations.
-     */
-    @RequiresApi(api = Build.VERSION_CODES.N)
-    private void initializeLevelLayout() {
-
-        gameObjectsCoordinates = new HashMap<>();
-        gameObjectsCreated = new HashMap<>();
-
-        // Trees on the level
-        List<Integer> locations = new ArrayList<>();
-        locations.add(0);
-        locations.add(745);
-        locations.add(830);
-        locations.add(900);
-        gameObjectsCoordinates.put(TREE1, locations);
-
-        // Cars on the level
-        locations = new ArrayList<>();
-        locations.add(1520);
-        gameObjectsCoordinates.put(CAR, locations);
-
-        // Houses type 1 on the level
-        locations = new ArrayList<>();
-        locations.add(280);
-        gameObjectsCoordinates.put(HOUSE1, locations);
-
-        // Houses type 2 on the level
-        locations = new ArrayList<>();
-        locations.add(-40);
-        locations.add(482);
-        gameObjectsCoordinates.put(HOUSE2, locations);
-
-        // Trees type 2 on the level
-        locations = new ArrayList<>();
-        locations.add(1364);
-        gameObjectsCoordinates.put(TREE2, locations);
-
-        // Stones on the level
-        locations = new ArrayList<>();
-        locations.add(1442);
-        locations.add(1470);
-        gameObjectsCoordinates.put(STONE, locations);
-
-        // Platforms on the level
-        locations = new ArrayList<>();
-        locations.add(1070);
-        locations.add(1166);
-        locations.add(1264);
-        gameObjectsCoordinates.put(PLATFORM, locations);
-
-        // Bear traps on the level
-        locations = new ArrayList<>();
-
-        locations.add(400);
-        locations.add(600);
-        locations.add(630);
-        locations.add(1245);
-        locations.add(1275);
-        locations.add(1305);
-        locations.add(1335);
-        locations.add(1365);
-        gameObjectsCoordinates.put(BEAR_TRAP, locations);
-
-        // Call update first time on creation
-        this.update();
-    }
-
-    /**
-     * Add and remove static game objects from memory depending on the position of game window
+     * Load chunks of the level that come near the game window and unload chunks that are far from it,
+     * add and remove static game objects from memory depending on the position of game window
+     * (only objects that enter or leave the game window are checked).
      * While iterating also update state of each object
      */
-    @RequiresApi(api = Build.VERSION_CODES.N)
     public void update() {
 
-        // Update backgrounds
-        sky.update();
-        houses.update();
-        fence.update();
-        road.update();
-
-        // Create static objects that come within the game window
-        for (Integer key : gameObjectsCoordinates.keySet()) {
-            List<Integer> listOfLevelLocations = gameObjectsCoordinates.get(key);
-            for (int i = 0; i < listOfLevelLocations.size(); i++) {
-                Integer location = listOfLevelLocations.get(i);
-                if (gameView.isWithinGameWindow(location)) {
-                    gameObjectsCreated.putIfAbsent(key, new ArrayList<>());
-                    gameObjectsCreated.get(key).add(createObject(key, location));
-                    // Temporary remove location of object from the hashmap
-                    listOfLevelLocations.remove(location);
-                    i--;
-                }
-            }
+        // Move the range of loaded chunks with two cursors (same as PlacementIndex does with objects)
+        int lastChunk = Math.min(levelSource.getChunkCount(),
+                levelSource.getChunkAt(gameView.getWindowPositionX() + gameView.getWindowWidth() + LOAD_DISTANCE) + 1);
+        int firstChunk = Math.min(lastChunk, Math.max(0, levelSource.getChunkAt(gameView.getWindowPositionX() - LOAD_DISTANCE)));
+        while (firstLoadedChunk < lastLoadedChunk && firstLoadedChunk < firstChunk) {
+            unloadChunk(firstLoadedChunk++);
+        }
+        while (lastLoadedChunk > firstLoadedChunk && lastLoadedChunk > lastChunk) {
+            unloadChunk(--lastLoadedChunk);
+        }
+        if (firstLoadedChunk == lastLoadedChunk) {
+            firstLoadedChunk = firstChunk;
+            lastLoadedChunk = firstChunk;
+        }
+        while (lastLoadedChunk < lastChunk) {
+            loadChunk(lastLoadedChunk++);
+        }
+        while (firstLoadedChunk > firstChunk) {
+            loadChunk(--firstLoadedChunk);
         }
 
-        // Update state of each object and remove unused objects from memory
-        for (Integer key : gameObjectsCreated.keySet()) {
-            for (int i = 0; i < gameObjectsCreated.get(key).size(); i++) {
-                GameObject object = gameObjectsCreated.get(key).get(i);
-                object.update();
-                if (!gameView.isWithinGameWindow(object.getPositionOnLevelX())) {
-                    // Save location of object back to the hashmap
-                    gameObjectsCoordinates.putIfAbsent(key, new ArrayList<>());
-                    gameObjectsCoordinates.get(key).add((int) object.getPositionOnLevelX());
-                    gameObjectsCreated.get(key).remove(object);
-                    i--;
+        // Create static objects that come within the game window and remove objects that left it,
+        // then update state of each object
+        double windowLeft = gameView.getWindowPositionX() - gameView.getWindowWidth();
+        double windowRight = gameView.getWindowPositionX() + gameView.getWindowWidth();
+        for (int key : FRONT_OBJECTS) {
+            for (int chunk = firstLoadedChunk; chunk < lastLoadedChunk; chunk++) {
+                PlacementIndex placements = loadedChunks[chunk % loadedChunks.length][key];
+                placements.update(windowLeft, windowRight, this);
+                for (int i = placements.getFirst(); i < placements.getLast(); i++) {
+                    placements.getObject(i).update();
                 }
             }
         }
     }
 
+    /**
+     * Save that the enemy of the placement is killed, it is not spawned when its chunk is loaded again
+     */
+    public void setEnemyDead(int placement) {
+        enemyStates.setState(placement, ENEMY_DEAD);
+    }
 
     /**
-     * Draw all back game objects (relative to player),
-     * the order of drawing is determined in backObjects array.
+     * Get position X of the finish of the level (the player wins after it)
      */
-    public void drawBackObjects(Canvas canvas) {
+    public double getFinishPoint() {
+        return levelSource.getFinishPoint();
+    }
 
-        sky.draw(canvas);
-        houses.draw(canvas);
+    /**
+     * Get the first loaded chunk of the level
+     */
+    public int getFirstLoadedChunk() {
+        return firstLoadedChunk;
+    }
 
-        for (Integer key : backObjects) {
-            if (gameObjectsCreated.containsKey(key)) {
-                for (int i = 0; i < gameObjectsCreated.get(key).size(); i++) {
-                    GameObject object = gameObjectsCreated.get(key).get(i);
-                    object.draw(canvas);
-                }
-            }
-        }
+    /**
+     * Get the chunk after the last loaded chunk of the level
+     */
+    public int getLastLoadedChunk() {
+        return lastLoadedChunk;
+    }
 
-        fence.draw(canvas);
+    /**
+     * Get placements of the front object type in the loaded chunk, objects near the game window are
+     * from getFirst() to getLast() (used by the LevelRenderer to draw front objects)
+     */
+    public PlacementIndex getPlacements(int chunk, int type) {
+        return loadedChunks[chunk % loadedChunks.length][type];
     }
 
     /**
-     * Draw all front game objects (relative to player),
-     * the order of drawing is determined in frontObjects array.
+     * Decode records of the chunk: positions of front objects are put into placement indexes,
+     * back scenery is given to the level images, enemies that were not killed are spawned.
      */
-    public void drawFrontObjects(Canvas canvas) {
+    private void loadChunk(int chunk) {
+        int count = readChunkRecords(chunk);
 
-        for (Integer key : frontObjects) {
-            if (gameObjectsCreated.containsKey(key)) {
-                for (int i = 0; i < gameObjectsCreated.get(key).size(); i++) {
-                    GameObject object = gameObjectsCreated.get(key).get(i);
-                    object.draw(canvas);
+        Arrays.fill(typeCounts, 0);
+        for (int i = 0; i < count; i++) {
+            typeCounts[recordTypes[i]]++;
+        }
+
+        // Front objects, ids of their placements are ids of the chunk records (the same each time the chunk is loaded)
+        PlacementIndex[] placements = new PlacementIndex[LevelFile.TYPE_COUNT];
+        int placementId = levelSource.getFirstRecordId(chunk);
+        for (int key : FRONT_OBJECTS) {
+            int[] positionsX = new int[typeCounts[key]];
+            int[] positionsY = new int[typeCounts[key]];
+            int added = 0;
+            for (int i = 0; i < count; i++) {
+                if (recordTypes[i] == key) {
+                    positionsX[added] = recordPositionsX[i];
+                    positionsY[added] = recordPositionsY[i];
+                    added++;
+                }
+            }
+            placements[key] = new PlacementIndex(key, placementId, positionsX, positionsY);
+            placementId += typeCounts[key];
+        }
+        loadedChunks[chunk % loadedChunks.length] = placements;
+        loadedChunkRecordCounts[chunk % loadedChunks.length] = count;
+
+        // Back scenery is only drawn
+        levelImages.addChunkScenery(chunk, count, recordTypes, recordPositionsX, recordPositionsY);
+
+        // Enemies are controlled by the GameWorld until the chunk is unloaded,
+        // ids of their placements follow the placements of the front objects
+        for (int i = 0; i < count; i++) {
+            if (recordTypes[i] == SLIME) {
+                if (enemyStates.getState(placementId) != ENEMY_DEAD) {
+                    enemySpawner.spawnEnemy(placementId, recordPositionsX[i], recordPositionsY[i]);
                 }
+                placementId++;
             }
         }
+    }
 
-        road.draw(canvas);
+    /**
+     * Read records of the chunk into the reused record arrays
+     *
+     * @return number of records
+     */
+    private int readChunkRecords(int chunk) {
+        int count = levelSource.getRecordCount(chunk);
+        if (recordTypes.length < count) {
+            recordTypes = new int[count];
+            recordPositionsX = new int[count];
+            recordPositionsY = new int[count];
+        }
+        return levelSource.readRecords(chunk, recordTypes, recordPositionsX, recordPositionsY);
     }
 
     /**
-     * Call different constructor for different game object types ("trees", "houses1", "houses2", "cars", ...).
-     * Returns null for unrecognized type.
+     * Remove all objects and enemies of the chunk from memory.
+     */
+    private void unloadChunk(int chunk) {
+        PlacementIndex[] placements = loadedChunks[chunk % loadedChunks.length];
+        for (int key : FRONT_OBJECTS) {
+            placements[key].clear(this);
+        }
+        loadedChunks[chunk % loadedChunks.length] = null;
+        levelImages.removeChunkScenery(chunk);
+
+        int firstPlacement = levelSource.getFirstRecordId(chunk);
+        enemySpawner.despawnEnemies(firstPlacement, firstPlacement + loadedChunkRecordCounts[chunk % loadedChunks.length]);
+    }
+
+    /**
+     * Get object for the position that comes near the game window: reuse removed object of the same type from its pool
+     * or create a new one. Platforms and traps are registered in the collision broadphase.
+     * Returns null for unrecognized type. Called by PlacementIndex when the object comes near the game window.
      *
-     * @param type     - name of the object type, accept "trees", "cars", etc.
-     * @param location - position of the game object X on the game level
+     * @param type      - type of the object (front object types)
+     * @param placement - id of the object position on the level (saved state of the object is found by it)
+     * @param location  - position of the game object X on the game level
+     * @param locationY - position of the game object Y on the game level
      * @return object of type GameObject (parent of all game object classes)
      */
-    private GameObject createObject(Integer type, Integer location) {
+    @Override
+    public GameObject createObject(int type, int placement, int location, int locationY) {
+        if (objectPools[type] == null) {
+            return null;
+        }
+
+        GameObject object = objectPools[type].acquire();
+        if (object != null) {
+            object.resetPosition(location, locationY);
+        } else {
+            object = newObject(type, location, locationY);
+        }
+
+        if (type == PLATFORM) {
+            LevelObject platform = (LevelObject) object;
+            addCollider(platform, CollisionBroadphase.LAYER_PLATFORM, platform.getWidth(), platform.getHeight());
+        } else if (type == BEAR_TRAP) {
+            BearTrap trap = (BearTrap) object;
+            trap.setTrapState(trapStates.getState(placement));
+            addCollider(trap, CollisionBroadphase.LAYER_TRAP, trap.getFrameWidth(), trap.getFrameHeight());
+        }
+        return object;
+    }
+
+    /**
+     * Call different constructor for different game object types ("trees", "stones", "platforms", "traps").
+     * Called when the pool of the type has no free objects.
+     */
+    private GameObject newObject(int type, int location, int locationY) {
         switch (type) {
             case TREE1:
-                return new BitmapGameObject(
-                        bitmaps[TREE1],
-                        gameView,
-                        location,
-                        130
-                );
-            case TREE2:
-                return new BitmapGameObject(
-                        bitmaps[TREE2],
-                        gameView,
-                        location,
-                        142
-                );
             case STONE:
-                return new BitmapGameObject(
-                        bitmaps[STONE],
-                        gameView,
-                        location,
-                        202
-                );
             case PLATFORM:
-                platformCount++;
-                return new BitmapGameObject(
-                        bitmaps[PLATFORM],
+                return new LevelObject(
                         gameView,
                         location,
-                        280 - 40 * platformCount
-                );
-            case HOUSE1:
-                return new BitmapGameObject(
-                        bitmaps[HOUSE1],
-                        gameView,
-                        location,
-                        30
-                );
-            case HOUSE2:
-                return new BitmapGameObject(
-                        bitmaps[HOUSE2],
-                        gameView,
-                        location,
-                        30
-                );
-            case CAR:
-                return new BitmapGameObject(
-                        bitmaps[CAR],
-                        gameView,
-                        location,
-                        20
+                        locationY,
+                        levelImages.getImageWidth(type),
+                        levelImages.getImageHeight(type)
                 );
             case BEAR_TRAP:
                 return new BearTrap(
                         gameView,
                         location,
-                        260,
-                        bitmaps[BEAR_TRAP],
+                        locationY,
+                        levelImages.getImageWidth(BEAR_TRAP) / BearTrap.FRAME_COUNT,
+                        levelImages.getImageHeight(BEAR_TRAP),
                         gameSounds
                 );
             default:
                 return null;
         }
     }
+
+    /**
+     * Remove collider of the object that left the game window from the collision broadphase,
+     * save state of the trap and return the object to the pool of its type. Called by PlacementIndex.
+     */
+    @Override
+    public void removeObject(int type, int placement, GameObject object) {
+        if (type == BEAR_TRAP) {
+            trapStates.setState(placement, ((BearTrap) object).getTrapState());
+        }
+        if (object.getColliderId() != CollisionBroadphase.NO_COLLIDER) {
+            collisionBroadphase.remove(object.getColliderId());
+            object.setColliderId(CollisionBroadphase.NO_COLLIDER);
+        }
+        objectPools[type].release(object);
+    }
+
+    /**
+     * Get pools of the front object types (for the performance panel)
+     */
+    public GameObjectPool[] getObjectPools() {
+        return frontObjectPools;
+    }
+
+    /**
+     * Register static object in the collision broadphase with the box of its image
+     */
+    private void addCollider(GameObject object, int layer, int width, int height) {
+        float left = (float) object.getPositionOnLevelX();
+        float top = (float) object.getPositionOnLevelY();
+        object.setColliderId(collisionBroadphase.add(object, layer, left, top, left + width, top + height));
+    }
 }
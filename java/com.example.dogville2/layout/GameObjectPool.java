@@ -0,0 +1,89 @@
+package com.example.dogvillev2.layout;
+
+import com.example.dogvillev2.gameObjects.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * GameObjectPool keeps removed game objects of one type to reuse them when objects of this type
+ * come near the game window again (instead of creating new objects).
+ * acquire() gives a free object or null (a miss, then the caller creates a new object),
+ * the caller resets position and state of the reused object (GameObject.resetPosition()).
+ * Counters of the pool are shown by the performance panel.
+ */
+public class GameObjectPool {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final String name;
+    private GameObject[] freeObjects = new GameObject[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int usedCount = 0;
+    private int peakUsedCount = 0;
+    private int missCount = 0;
+
+    /**
+     * @param name - short name of the object type for the performance panel
+     */
+    public GameObjectPool(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Get free object of the pool, or null if there are no free objects (counted as a miss).
+     */
+    public GameObject acquire() {
+        usedCount++;
+        peakUsedCount = Math.max(peakUsedCount, usedCount);
+        if (freeCount == 0) {
+            missCount++;
+            return null;
+        }
+        GameObject object = freeObjects[--freeCount];
+        freeObjects[freeCount] = null;
+        return object;
+    }
+
+    /**
+     * Return object that is not used anymore to the pool.
+     */
+    public void release(GameObject object) {
+        if (freeCount == freeObjects.length) {
+            freeObjects = Arrays.copyOf(freeObjects, freeObjects.length * 2);
+        }
+        freeObjects[freeCount++] = object;
+        usedCount--;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get number of objects taken from the pool (or created on a miss) and not returned yet
+     */
+    public int getUsedCount() {
+        return usedCount;
+    }
+
+    /**
+     * Get the largest number of objects used at the same time
+     */
+    public int getPeakUsedCount() {
+        return peakUsedCount;
+    }
+
+    /**
+     * Get number of objects waiting in the pool
+     */
+    public int getFreeCount() {
+        return freeCount;
+    }
+
+    /**
+     * Get number of times the pool had no free object (a new object was created)
+     */
+    public int getMissCount() {
+        return missCount;
+    }
+}
@@ -7,7 +7,10 @@ package com.example.dogvillev2.layout;
  */
 public class GameView {
 
+    private final int windowWidth; // Width of the game window (GameDisplay.GAME_WIDTH_BUFF_CANVAS on the device)
     private double windowPositionX;
+    private double previousWindowPositionX; // Position before the latest update
+    private double interpolation = 1; // Part of the update step passed since the latest update, for drawing
     private double levelVelocityX;
     private boolean isMoving = false; // Is game view moving or not (controlled by the actions of the player in game class)
 
@@ -15,16 +18,49 @@ public class GameView {
     private double windowPositionY;
     private double levelVelocityY;
 
+    public GameView(int windowWidth) {
+        this.windowWidth = windowWidth;
+    }
+
     /**
      * Update position of the game view (game window) relative to static level layer coordinates
      */
     public void update() {
+        previousWindowPositionX = windowPositionX;
         if (isMoving) {
             windowPositionX += levelVelocityX;
             //windowPositionY += levelVelocityY;
         }
     }
 
+    /**
+     * Set part of the simulation step (0..1) passed since the latest update, called by the game loop before drawing.
+     * Objects are drawn at positions between the previous and the current update,
+     * so the movement looks smooth when frames are drawn more often or unevenly relative to updates.
+     */
+    public void setInterpolation(double interpolation) {
+        this.interpolation = interpolation;
+    }
+
+    public double getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Get position of game window view to draw the frame at (between the previous and the current update)
+     */
+    public double getDrawWindowPositionX() {
+        return previousWindowPositionX + (windowPositionX - previousWindowPositionX) * interpolation;
+    }
+
+    /**
+     * Convert level layer coordinate into coordinate X of the drawn game window view
+     * (to draw game objects at interpolated position of the game window)
+     */
+    public double getInDrawWindowPositionX(double positionOnLevelX) {
+        return positionOnLevelX - getDrawWindowPositionX();
+    }
+
     /**
      * Get velocity between game window view and game level layer
      */
@@ -46,6 +82,13 @@ public class GameView {
         return windowPositionX;
     }
 
+    /**
+     * Get width of the game window (objects within this distance from the game window are created and updated)
+     */
+    public int getWindowWidth() {
+        return windowWidth;
+    }
+
     /**
      * Check if game window view is moving
      */
@@ -81,6 +124,6 @@ public class GameView {
      * only objects that can be viewed, not the whole game level
      */
     public boolean isWithinGameWindow(double location) {
-        return windowPositionX - GameDisplay.GAME_WIDTH_BUFF_CANVAS < location && location < windowPositionX + GameDisplay.GAME_WIDTH_BUFF_CANVAS;
+        return windowPositionX - windowWidth < location && location < windowPositionX + windowWidth;
     }
 }
@@ -0,0 +1,42 @@
+package com.example.dogvillev2.layout;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * LevelAssets opens level files (LevelFile) from the app assets on the device.
+ */
+public class LevelAssets {
+
+    /**
+     * Open level file from the app assets. Uncompressed asset is mapped into memory,
+     * compressed asset is read through a buffered channel.
+     *
+     * @throws FileNotFoundException if there is no such asset
+     */
+    public static LevelFile open(AssetManager assets, String fileName) throws IOException {
+        AssetFileDescriptor descriptor = null;
+        try {
+            descriptor = assets.openFd(fileName);
+        } catch (FileNotFoundException e) {
+            // Compressed asset does not have a file descriptor (or there is no asset, then open() throws too)
+        }
+
+        if (descriptor != null) {
+            try (FileInputStream stream = descriptor.createInputStream()) {
+                FileChannel channel = stream.getChannel();
+                // Mapping stays valid after the channel is closed
+                return new LevelFile(channel.map(FileChannel.MapMode.READ_ONLY, descriptor.getStartOffset(), descriptor.getLength()));
+            } finally {
+                descriptor.close();
+            }
+        }
+
+        return LevelFile.read(assets.open(fileName));
+    }
+}
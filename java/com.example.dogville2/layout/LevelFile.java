@@ -0,0 +1,189 @@
+package com.example.dogvillev2.layout;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * LevelFile reads the binary game level file (written by LevelFileWriter). The level is divided into chunks
+ * of fixed width along X axe, the file has a header, a chunk table and the records of the chunks:
+ * - header: magic number "DVL1", version, chunk width, position X of the first chunk, number of chunks,
+ * finish point, start positions of the player and the cat (ints, big-endian);
+ * - chunk table: offset of the first record and number of records of each chunk (two ints per chunk);
+ * - records: type (byte), reserved byte, position Y (short), position X (int), records of a chunk are sorted by X.
+ * Opening the file only checks the header, records of a chunk are decoded when the chunk is needed,
+ * so opening takes the same time and memory for a level of any length.
+ */
+public class LevelFile implements LevelSource {
+
+    public static final int MAGIC = 0x44564C31; // "DVL1"
+    public static final int VERSION = 1;
+
+    // Types of level objects
+    public static final int TYPE_TREE1 = 0;
+    public static final int TYPE_TREE2 = 1;
+    public static final int TYPE_STONE = 2;
+    public static final int TYPE_PLATFORM = 3;
+    public static final int TYPE_HOUSE1 = 4;
+    public static final int TYPE_HOUSE2 = 5;
+    public static final int TYPE_CAR = 6;
+    public static final int TYPE_BEAR_TRAP = 7;
+    public static final int TYPE_SLIME = 8;
+    public static final int TYPE_COUNT = 9;
+
+    static final int HEADER_SIZE = 40;
+    static final int TABLE_ENTRY_SIZE = 8;
+    static final int RECORD_SIZE = 8;
+
+    private final ByteBuffer buffer;
+    private final int chunkWidth;
+    private final int firstChunkX;
+    private final int chunkCount;
+    private final int finishPoint;
+    private final int playerX;
+    private final int playerY;
+    private final int catX;
+    private final int catY;
+
+    /**
+     * Read level from the buffer with the level file (position 0 is the start of the file)
+     */
+    public LevelFile(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a level file");
+        }
+        if (buffer.getShort(4) != VERSION) {
+            throw new IllegalArgumentException("Unsupported level file version " + buffer.getShort(4));
+        }
+        chunkWidth = buffer.getInt(8);
+        firstChunkX = buffer.getInt(12);
+        chunkCount = buffer.getInt(16);
+        finishPoint = buffer.getInt(20);
+        playerX = buffer.getInt(24);
+        playerY = buffer.getInt(28);
+        catX = buffer.getInt(32);
+        catY = buffer.getInt(36);
+        if (chunkWidth <= 0 || chunkCount < 0 || buffer.limit() < HEADER_SIZE + (long) chunkCount * TABLE_ENTRY_SIZE) {
+            throw new IllegalArgumentException("Corrupted level file header");
+        }
+    }
+
+    /**
+     * Read the whole level file from the stream (for example a compressed app asset or a file of the headless simulation)
+     */
+    public static LevelFile read(InputStream stream) throws IOException {
+        try (ReadableByteChannel channel = Channels.newChannel(stream)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Math.max(stream.available(), HEADER_SIZE));
+            while (channel.read(buffer) >= 0) {
+                if (!buffer.hasRemaining()) {
+                    ByteBuffer largerBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+                    buffer.flip();
+                    largerBuffer.put(buffer);
+                    buffer = largerBuffer;
+                }
+            }
+            buffer.flip();
+            return new LevelFile(buffer);
+        }
+    }
+
+    /**
+     * Get number of the chunk that contains the position X on the level
+     * (can be outside of range 0..getChunkCount() - 1 for positions outside of the level)
+     */
+    @Override
+    public int getChunkAt(double positionOnLevelX) {
+        return (int) Math.floor((positionOnLevelX - firstChunkX) / chunkWidth);
+    }
+
+    /**
+     * Get position X of the left side of the chunk
+     */
+    @Override
+    public int getChunkLeft(int chunk) {
+        return firstChunkX + chunk * chunkWidth;
+    }
+
+    @Override
+    public int getChunkWidth() {
+        return chunkWidth;
+    }
+
+    @Override
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Get number of object records in the chunk
+     */
+    @Override
+    public int getRecordCount(int chunk) {
+        return buffer.getInt(HEADER_SIZE + chunk * TABLE_ENTRY_SIZE + 4);
+    }
+
+    /**
+     * Get id of the first record of the chunk: records of the level are numbered from 0 in the order of the file,
+     * so the id of a record does not change when the chunk is loaded again
+     */
+    @Override
+    public int getFirstRecordId(int chunk) {
+        int offset = buffer.getInt(HEADER_SIZE + chunk * TABLE_ENTRY_SIZE);
+        return (offset - HEADER_SIZE - chunkCount * TABLE_ENTRY_SIZE) / RECORD_SIZE;
+    }
+
+    /**
+     * Decode records of the chunk into the arrays (arrays should have at least getRecordCount(chunk) elements).
+     *
+     * @return number of decoded records
+     */
+    @Override
+    public int readRecords(int chunk, int[] types, int[] positionsX, int[] positionsY) {
+        int offset = buffer.getInt(HEADER_SIZE + chunk * TABLE_ENTRY_SIZE);
+        int count = getRecordCount(chunk);
+        if (offset < 0 || count < 0 || offset + (long) count * RECORD_SIZE > buffer.limit()) {
+            throw new IllegalArgumentException("Corrupted level file chunk " + chunk);
+        }
+        for (int i = 0; i < count; i++) {
+            int position = offset + i * RECORD_SIZE;
+            types[i] = buffer.get(position);
+            if (types[i] < 0 || types[i] >= TYPE_COUNT) {
+                throw new IllegalArgumentException("Corrupted level file chunk " + chunk + ": unknown object type " + types[i]);
+            }
+            positionsY[i] = buffer.getShort(position + 2);
+            positionsX[i] = buffer.getInt(position + 4);
+        }
+        return count;
+    }
+
+    /**
+     * Get position X of the finish of the level (the player wins after it)
+     */
+    @Override
+    public int getFinishPoint() {
+        return finishPoint;
+    }
+
+    @Override
+    public int getPlayerX() {
+        return playerX;
+    }
+
+    @Override
+    public int getPlayerY() {
+        return playerY;
+    }
+
+    @Override
+    public int getCatX() {
+        return catX;
+    }
+
+    @Override
+    public int getCatY() {
+        return catY;
+    }
+}
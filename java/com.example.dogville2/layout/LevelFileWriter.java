@@ -0,0 +1,173 @@
+package com.example.dogvillev2.layout;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * LevelFileWriter builds the binary game level file read by LevelFile: objects are added one by one,
+ * then they are split into chunks and written with the header and the chunk table.
+ * Uses only plain Java, so level files can be made without a device:
+ * java -cp classes com.example.dogvillev2.layout.LevelFileWriter app/src/main/assets/levels/level1.dvl
+ * writes the default game level.
+ */
+public class LevelFileWriter {
+
+    public static final int DEFAULT_CHUNK_WIDTH = 1024;
+
+    private final int chunkWidth;
+    private int finishPoint;
+    private int playerX;
+    private int playerY;
+    private int catX;
+    private int catY;
+    // Added objects: type, position X and position Y
+    private final List<int[]> records = new ArrayList<>();
+
+    public LevelFileWriter(int chunkWidth) {
+        if (chunkWidth <= 0) {
+            throw new IllegalArgumentException("Chunk width should be positive");
+        }
+        this.chunkWidth = chunkWidth;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: LevelFileWriter <level file>");
+            return;
+        }
+        try (FileOutputStream stream = new FileOutputStream(args[0]); FileChannel channel = stream.getChannel()) {
+            ByteBuffer level = createDefaultLevel().write();
+            while (level.hasRemaining()) {
+                channel.write(level);
+            }
+        }
+    }
+
+    /**
+     * Level of the game (used when there is no level file in the assets)
+     */
+    public static LevelFileWriter createDefaultLevel() {
+        LevelFileWriter level = new LevelFileWriter(DEFAULT_CHUNK_WIDTH);
+        level.setFinishPoint(1680);
+        level.setPlayerStart(100, 243);
+        level.setCatStart(1730, 124);
+
+        // Trees
+        for (int x : new int[]{0, 745, 830, 900}) {
+            level.addObject(LevelFile.TYPE_TREE1, x, 130);
+        }
+        level.addObject(LevelFile.TYPE_TREE2, 1364, 142);
+        // Stones
+        level.addObject(LevelFile.TYPE_STONE, 1442, 202);
+        level.addObject(LevelFile.TYPE_STONE, 1470, 202);
+        // Platforms, each next platform is higher
+        int[] platforms = {1070, 1166, 1264};
+        for (int i = 0; i < platforms.length; i++) {
+            level.addObject(LevelFile.TYPE_PLATFORM, platforms[i], 280 - 40 * (i + 1));
+        }
+        // Bear traps
+        for (int x : new int[]{400, 600, 630, 1245, 1275, 1305, 1335, 1365}) {
+            level.addObject(LevelFile.TYPE_BEAR_TRAP, x, 260);
+        }
+        // Houses and cars
+        level.addObject(LevelFile.TYPE_HOUSE1, 280, 30);
+        level.addObject(LevelFile.TYPE_HOUSE2, -40, 30);
+        level.addObject(LevelFile.TYPE_HOUSE2, 482, 30);
+        level.addObject(LevelFile.TYPE_CAR, 1520, 20);
+        // Random slimes on the level
+        for (int i = 0; i < 3; i++) {
+            level.addObject(LevelFile.TYPE_SLIME, (int) (400 + Math.random() * 1000), 254);
+        }
+        // Slimes near the cat
+        level.addObject(LevelFile.TYPE_SLIME, 1700, 254);
+        level.addObject(LevelFile.TYPE_SLIME, 1750, 254);
+        return level;
+    }
+
+    public void setFinishPoint(int finishPoint) {
+        this.finishPoint = finishPoint;
+    }
+
+    public void setPlayerStart(int positionX, int positionY) {
+        playerX = positionX;
+        playerY = positionY;
+    }
+
+    public void setCatStart(int positionX, int positionY) {
+        catX = positionX;
+        catY = positionY;
+    }
+
+    /**
+     * Add object to the level
+     *
+     * @param type - one of the LevelFile.TYPE_ constants
+     */
+    public void addObject(int type, int positionX, int positionY) {
+        if (type < 0 || type >= LevelFile.TYPE_COUNT) {
+            throw new IllegalArgumentException("Unknown object type " + type);
+        }
+        if (positionY < Short.MIN_VALUE || positionY > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Position Y " + positionY + " does not fit the level file");
+        }
+        records.add(new int[]{type, positionX, positionY});
+    }
+
+    /**
+     * Write level file into a new buffer (position 0, limit at the end of the file)
+     */
+    public ByteBuffer write() {
+        // Records sorted by X, each chunk is a continuous range of them
+        int[][] sorted = records.toArray(new int[0][]);
+        Arrays.sort(sorted, (record1, record2) -> Integer.compare(record1[1], record2[1]));
+
+        int firstChunkX = 0;
+        int chunkCount = 0;
+        if (sorted.length > 0) {
+            firstChunkX = Math.floorDiv(sorted[0][1], chunkWidth) * chunkWidth;
+            chunkCount = (sorted[sorted.length - 1][1] - firstChunkX) / chunkWidth + 1;
+        }
+
+        int recordsOffset = LevelFile.HEADER_SIZE + chunkCount * LevelFile.TABLE_ENTRY_SIZE;
+        ByteBuffer buffer = ByteBuffer.allocate(recordsOffset + sorted.length * LevelFile.RECORD_SIZE);
+        buffer.putInt(LevelFile.MAGIC);
+        buffer.putShort((short) LevelFile.VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(chunkWidth);
+        buffer.putInt(firstChunkX);
+        buffer.putInt(chunkCount);
+        buffer.putInt(finishPoint);
+        buffer.putInt(playerX);
+        buffer.putInt(playerY);
+        buffer.putInt(catX);
+        buffer.putInt(catY);
+
+        // Chunk table
+        int record = 0;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            int chunkRight = firstChunkX + (chunk + 1) * chunkWidth;
+            int firstRecord = record;
+            while (record < sorted.length && sorted[record][1] < chunkRight) {
+                record++;
+            }
+            buffer.putInt(recordsOffset + firstRecord * LevelFile.RECORD_SIZE);
+            buffer.putInt(record - firstRecord);
+        }
+
+        // Records
+        for (int[] object : sorted) {
+            buffer.put((byte) object[0]);
+            buffer.put((byte) 0);
+            buffer.putShort((short) object[2]);
+            buffer.putInt(object[1]);
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+}
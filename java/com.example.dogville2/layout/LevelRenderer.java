@@ -0,0 +1,376 @@
+package com.example.dogvillev2.layout;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.example.dogvillev2.R;
+import com.example.dogvillev2.gameObjects.Background;
+import com.example.dogvillev2.gameObjects.GameObject;
+import com.example.dogvillev2.gameObjects.animated.BearTrap;
+import com.example.dogvillev2.utilities.AtlasRegion;
+import com.example.dogvillev2.utilities.BitmapLoader;
+import com.example.dogvillev2.utilities.BitmapPrefetcher;
+import com.example.dogvillev2.utilities.TextureAtlas;
+
+import java.util.BitSet;
+
+/**
+ * LevelRenderer draws the level of the GameLevelLayout: repeating background images (parallax movement),
+ * back scenery of the loaded chunks pre-rendered by the SceneryChunkCache and front objects with the images of their types.
+ * Images of the object types are taken from the texture atlas, images that are not packed into the atlas
+ * are decoded by the BitmapPrefetcher before their chunks come near the game window.
+ * The game thread never waits for decoding: if an image is not decoded in time, objects of its type are not drawn
+ * and back scenery of its chunk is not added until the image is ready.
+ */
+public class LevelRenderer implements GameLevelLayout.LevelImages, BitmapPrefetcher.ChunkResources {
+
+    private static final int TREE2 = LevelFile.TYPE_TREE2;
+    private static final int HOUSE1 = LevelFile.TYPE_HOUSE1;
+    private static final int HOUSE2 = LevelFile.TYPE_HOUSE2;
+    private static final int CAR = LevelFile.TYPE_CAR;
+    private static final int BEAR_TRAP = LevelFile.TYPE_BEAR_TRAP;
+    // Images of the object types (drawable resources), slimes are drawn by the Game
+    private static final int[] TYPE_RESOURCES = {
+            R.drawable.trees_front, R.drawable.tree_2, R.drawable.stone, R.drawable.platform,
+            R.drawable.house_type1_front, R.drawable.house_type2_front, R.drawable.car_front, R.drawable.bear_trap, 0
+    };
+    // Objects that are drawn behind the player, the order of the drawing corresponds to the order in array
+    // (baked into scenery chunks)
+    private static final int[] backObjects = {HOUSE1, HOUSE2, CAR, TREE2};
+    private final GameView gameView;
+    private final LevelSource levelSource;
+    private final AtlasRegion[] bitmaps;
+    private final BitmapPrefetcher bitmapPrefetcher;
+    private final BitmapLoader bitmapLoader;
+    // Some images of the object types are not packed into the texture atlas
+    private boolean hasPrefetchedImages = false;
+    // Sizes of the images that are not decoded yet by type (read without decoding the pixels)
+    private final BitmapFactory.Options[] imageBounds = new BitmapFactory.Options[LevelFile.TYPE_COUNT];
+    // Bit mask of the types which images were asked for but are not decoded yet (checked each update)
+    private int pendingTypes = 0;
+    // Loaded chunks which back scenery waits for the images
+    private final BitSet pendingSceneryChunks = new BitSet();
+    // Records of the chunk that is prefetched (reused for all chunks)
+    private int[] recordTypes = new int[0];
+    private int[] recordPositionsX = new int[0];
+    private int[] recordPositionsY = new int[0];
+    // Frames of all traps (rectangles on the atlas page)
+    private final Rect[] bearTrapFrames;
+    // Place of the front object in game window, reused for each object
+    private final Rect inGameWindowRect = new Rect();
+    private final SceneryChunkCache sceneryChunkCache;
+    Background sky;
+    Background houses;
+    Background fence;
+    Background road;
+
+    public LevelRenderer(GameView gameView, TextureAtlas textureAtlas, LevelSource levelSource,
+                         BitmapPrefetcher bitmapPrefetcher, BitmapLoader bitmapLoader) {
+        this.gameView = gameView;
+        this.levelSource = levelSource;
+        this.bitmapPrefetcher = bitmapPrefetcher;
+        this.bitmapLoader = bitmapLoader;
+
+        // Get image resources from the texture atlas, images that are not packed are prefetched (see getTypeImage())
+        bitmaps = new AtlasRegion[LevelFile.TYPE_COUNT];
+        for (int type = 0; type < LevelFile.TYPE_COUNT; type++) {
+            if (TYPE_RESOURCES[type] == 0) {
+                continue;
+            }
+            if (textureAtlas.hasRegion(TYPE_RESOURCES[type])) {
+                bitmaps[type] = textureAtlas.getRegion(TYPE_RESOURCES[type]);
+            } else {
+                hasPrefetchedImages = true;
+            }
+        }
+        // Frames of all traps are cut from the atlas image once
+        bitmaps[BEAR_TRAP] = textureAtlas.getRegion(R.drawable.bear_trap);
+        bearTrapFrames = createTrapFrames(bitmaps[BEAR_TRAP]);
+
+        // Initialize Background objects (images for parallax movement)
+        // Sky
+        AtlasRegion skyBitmap = textureAtlas.getRegion(R.drawable.sky);
+        sky = new Background(skyBitmap, gameView, 0, 0);
+        sky.setVelocityX(-0.5); // Velocity of sky movement
+        sky.setSpeedMultiplier(0.7); // Velocity of sky relative to player movement
+        // Background houses
+        AtlasRegion housesBitmap = textureAtlas.getRegion(R.drawable.houses);
+        houses = new Background(housesBitmap, gameView, 0, 0);
+        houses.setSpeedMultiplier(0.8); // Velocity of background houses relative to player movement
+        // Road fence
+        AtlasRegion fenceBitmap = textureAtlas.getRegion(R.drawable.fence);
+        fence = new Background(fenceBitmap, gameView, 0, 50);
+        // Road
+        AtlasRegion roadBitmap = textureAtlas.getRegion(R.drawable.road);
+        road = new Background(roadBitmap, gameView, 0, 50);
+
+        // Cache of pre-rendered back scenery
+        sceneryChunkCache = new SceneryChunkCache(gameView, GameDisplay.GAME_HEIGHT_BUFF_CANVAS);
+    }
+
+    /**
+     * Fill the array of trap frames from the source image ("cut" source image into squares)
+     */
+    private static Rect[] createTrapFrames(AtlasRegion sourceImage) {
+        int frameWidth = sourceImage.getWidth() / BearTrap.FRAME_COUNT;
+        int frameHeight = sourceImage.getHeight();
+        Rect[] frames = new Rect[BearTrap.FRAME_COUNT];
+        for (int col = 0; col < BearTrap.FRAME_COUNT; col++) {
+            int left = sourceImage.getRect().left + col * frameWidth;
+            frames[col] = new Rect(
+                    left,
+                    sourceImage.getRect().top,
+                    left + frameWidth,
+                    sourceImage.getRect().top + frameHeight
+            );
+        }
+        return frames;
+    }
+
+    /**
+     * Move backgrounds, start decoding images of the chunks that the game window reaches soon, add back scenery
+     * that waited for the decoded images and prepare back scenery chunks near the game window.
+     * Called by the Game after the update of the GameWorld.
+     */
+    public void update() {
+
+        // Update backgrounds
+        sky.update();
+        houses.update();
+        fence.update();
+        road.update();
+
+        if (hasPrefetchedImages) {
+            bitmapPrefetcher.predict(gameView.getWindowPositionX(), gameView.getLevelVelocityX(), levelSource, this);
+            if (pendingTypes != 0 && takeDecodedImages()) {
+                addPendingScenery();
+            }
+        }
+
+        sceneryChunkCache.update();
+    }
+
+    /**
+     * Get width of the image of the object type (read from the image resource if the image is not decoded yet)
+     */
+    @Override
+    public int getImageWidth(int type) {
+        AtlasRegion image = getTypeImage(type);
+        return image != null ? image.getWidth() : getImageBounds(type).outWidth;
+    }
+
+    /**
+     * Get height of the image of the object type (read from the image resource if the image is not decoded yet)
+     */
+    @Override
+    public int getImageHeight(int type) {
+        AtlasRegion image = getTypeImage(type);
+        return image != null ? image.getHeight() : getImageBounds(type).outHeight;
+    }
+
+    private BitmapFactory.Options getImageBounds(int type) {
+        if (imageBounds[type] == null) {
+            imageBounds[type] = bitmapLoader.loadBitmapBounds(TYPE_RESOURCES[type]);
+        }
+        return imageBounds[type];
+    }
+
+    /**
+     * Add back scenery of the chunk loaded by the level layout to the scenery cache,
+     * if some images of the chunk are not decoded yet the chunk is added by the update when they are ready
+     */
+    @Override
+    public void addChunkScenery(int chunk, int count, int[] types, int[] positionsX, int[] positionsY) {
+        if (!isSceneryReady(count, types)) {
+            pendingSceneryChunks.set(chunk);
+            return;
+        }
+        addSceneryPlacements(count, types, positionsX, positionsY);
+    }
+
+    /**
+     * Check if images of all back objects of the records are decoded
+     * (all records are checked, so decoding of all missing images is started)
+     */
+    private boolean isSceneryReady(int count, int[] types) {
+        boolean isReady = true;
+        for (int i = 0; i < count; i++) {
+            if (isBackObject(types[i]) && getTypeImage(types[i]) == null) {
+                isReady = false;
+            }
+        }
+        return isReady;
+    }
+
+    private static boolean isBackObject(int type) {
+        for (int backObject : backObjects) {
+            if (backObject == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add back objects of the records to the scenery cache, layer of drawing is the place of the type in backObjects array
+     */
+    private void addSceneryPlacements(int count, int[] types, int[] positionsX, int[] positionsY) {
+        for (int layer = 0; layer < backObjects.length; layer++) {
+            for (int i = 0; i < count; i++) {
+                if (types[i] == backObjects[layer]) {
+                    sceneryChunkCache.addPlacement(getTypeImage(types[i]), positionsX[i], positionsY[i], layer);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void removeChunkScenery(int chunk) {
+        pendingSceneryChunks.clear(chunk);
+        sceneryChunkCache.removePlacements(levelSource.getChunkLeft(chunk), levelSource.getChunkLeft(chunk + 1));
+    }
+
+    /**
+     * List images of the chunk objects that are not packed into the texture atlas. Called by the BitmapPrefetcher.
+     */
+    @Override
+    public int getChunkResources(int chunk, int[] resources) {
+        int count = readChunkRecords(chunk);
+
+        int found = 0;
+        int foundTypes = 0; // Bit mask of types
+        for (int i = 0; i < count && found < resources.length; i++) {
+            int type = recordTypes[i];
+            if (bitmaps[type] == null && TYPE_RESOURCES[type] != 0 && (foundTypes & (1 << type)) == 0) {
+                foundTypes |= 1 << type;
+                resources[found++] = TYPE_RESOURCES[type];
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Read records of the chunk into the reused record arrays
+     *
+     * @return number of records
+     */
+    private int readChunkRecords(int chunk) {
+        int count = levelSource.getRecordCount(chunk);
+        if (recordTypes.length < count) {
+            recordTypes = new int[count];
+            recordPositionsX = new int[count];
+            recordPositionsY = new int[count];
+        }
+        return levelSource.readRecords(chunk, recordTypes, recordPositionsX, recordPositionsY);
+    }
+
+    /**
+     * Get image of the object type: region of the texture atlas or the image decoded by the prefetcher.
+     * Does not wait for the prefetcher: returns null if the image is not decoded yet (the chunk was not predicted
+     * in time, for example the game window jumped), the type is checked again by the next updates.
+     */
+    private AtlasRegion getTypeImage(int type) {
+        if (bitmaps[type] == null) {
+            Bitmap image = bitmapPrefetcher.getIfReady(TYPE_RESOURCES[type]);
+            if (image == null) {
+                pendingTypes |= 1 << type;
+                return null;
+            }
+            bitmaps[type] = new AtlasRegion(image, new Rect(0, 0, image.getWidth(), image.getHeight()));
+        }
+        return bitmaps[type];
+    }
+
+    /**
+     * Take images decoded since the last update for the types that wait for them
+     *
+     * @return true if any image was taken
+     */
+    private boolean takeDecodedImages() {
+        boolean isTaken = false;
+        for (int type = 0; type < LevelFile.TYPE_COUNT; type++) {
+            if ((pendingTypes & (1 << type)) != 0 && getTypeImage(type) != null) {
+                pendingTypes &= ~(1 << type);
+                isTaken = true;
+            }
+        }
+        return isTaken;
+    }
+
+    /**
+     * Add back scenery of the loaded chunks that waited for the images, if all their images are decoded now
+     */
+    private void addPendingScenery() {
+        for (int chunk = pendingSceneryChunks.nextSetBit(0); chunk >= 0; chunk = pendingSceneryChunks.nextSetBit(chunk + 1)) {
+            int count = readChunkRecords(chunk);
+            if (isSceneryReady(count, recordTypes)) {
+                pendingSceneryChunks.clear(chunk);
+                addSceneryPlacements(count, recordTypes, recordPositionsX, recordPositionsY);
+            }
+        }
+    }
+
+    /**
+     * Draw all back game objects (relative to player),
+     * the order of drawing is determined in backObjects array (objects are baked into chunks in this order).
+     */
+    public void drawBackObjects(Canvas canvas) {
+
+        sky.draw(canvas);
+        houses.draw(canvas);
+
+        // All back objects are drawn with one or two pre-rendered chunks
+        sceneryChunkCache.draw(canvas);
+
+        fence.draw(canvas);
+    }
+
+    /**
+     * Draw all front game objects of the level layout (relative to player),
+     * the order of drawing is determined in GameLevelLayout.FRONT_OBJECTS array.
+     */
+    public void drawFrontObjects(Canvas canvas, GameLevelLayout gameLevelLayout) {
+
+        for (int key : GameLevelLayout.FRONT_OBJECTS) {
+            for (int chunk = gameLevelLayout.getFirstLoadedChunk(); chunk < gameLevelLayout.getLastLoadedChunk(); chunk++) {
+                PlacementIndex placements = gameLevelLayout.getPlacements(chunk, key);
+                for (int i = placements.getFirst(); i < placements.getLast(); i++) {
+                    drawObject(canvas, key, placements.getObject(i));
+                }
+            }
+        }
+
+        road.draw(canvas);
+    }
+
+    /**
+     * Draw the image of the object type (the current frame for traps) at the position of the object
+     */
+    private void drawObject(Canvas canvas, int type, GameObject object) {
+        AtlasRegion image = bitmaps[type];
+        if (image == null) {
+            return; // Image is not decoded yet (see getTypeImage())
+        }
+        Rect sourceRect = image.getRect();
+        if (type == BEAR_TRAP) {
+            sourceRect = bearTrapFrames[((BearTrap) object).getTrapState()];
+        }
+
+        double drawPositionX = object.getDrawPositionX();
+        double drawPositionY = object.getDrawPositionY();
+        inGameWindowRect.set(
+                (int) (drawPositionX),
+                (int) (drawPositionY),
+                (int) (drawPositionX + sourceRect.width()),
+                (int) (drawPositionY + sourceRect.height())
+        );
+
+        canvas.drawBitmap(
+                image.getBitmap(),
+                sourceRect,
+                inGameWindowRect,
+                null);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.dogvillev2.layout;
+
+/**
+ * LevelSource gives the GameLevelLayout the objects of the game level chunk by chunk:
+ * the level is divided into chunks of fixed width along X axe, each chunk has records (type and position of an object).
+ * Implemented by LevelFile (level from the assets) and ProceduralLevel (level generated from a seed).
+ */
+public interface LevelSource {
+
+    /**
+     * Get number of the chunk that contains the position X on the level
+     * (can be outside of range 0..getChunkCount() - 1 for positions outside of the level)
+     */
+    int getChunkAt(double positionOnLevelX);
+
+    /**
+     * Get position X of the left side of the chunk
+     */
+    int getChunkLeft(int chunk);
+
+    int getChunkWidth();
+
+    int getChunkCount();
+
+    /**
+     * Get number of object records in the chunk
+     */
+    int getRecordCount(int chunk);
+
+    /**
+     * Get id of the first record of the chunk, records of the chunk have ids from it to (id + getRecordCount() - 1).
+     * Ids are unique on the level and do not change when the chunk is read again.
+     */
+    int getFirstRecordId(int chunk);
+
+    /**
+     * Read records of the chunk into the arrays (arrays should have at least getRecordCount(chunk) elements).
+     *
+     * @param types - types of the objects (LevelFile.TYPE_ constants)
+     * @return number of read records
+     */
+    int readRecords(int chunk, int[] types, int[] positionsX, int[] positionsY);
+
+    /**
+     * Get position X of the finish of the level (the player wins after it)
+     */
+    int getFinishPoint();
+
+    int getPlayerX();
+
+    int getPlayerY();
+
+    int getCatX();
+
+    int getCatY();
+}
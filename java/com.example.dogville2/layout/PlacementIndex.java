@@ -0,0 +1,159 @@
+package com.example.dogvillev2.layout;
+
+import com.example.dogvillev2.gameObjects.GameObject;
+
+import java.util.Arrays;
+
+/**
+ * PlacementIndex stores positions of objects of one type in a chunk of the game level (primitive arrays sorted by X)
+ * and the objects created for the positions that are near the game window.
+ * Created objects always fill a continuous range of positions [first, last), the game window moves slowly,
+ * so the range is moved with two cursors: each update only looks at positions that enter or leave the range,
+ * the cost does not depend on the number of objects on the level.
+ */
+public class PlacementIndex {
+
+    private final int type;
+    // Id of the first position on the level, positions have ids firstPlacementId, firstPlacementId + 1, ...
+    private final int firstPlacementId;
+    private final int[] positions;
+    private final int[] positionsY;
+    // Objects created for the positions in range [first, last), null outside of the range
+    private final GameObject[] objects;
+    private int first = 0;
+    private int last = 0;
+
+    /**
+     * Creates objects for the positions that come near the game window, implemented by GameLevelLayout
+     */
+    public interface ObjectFactory {
+        /**
+         * @param type      - type of the object
+         * @param placement - id of the position on the level (unique among all positions of the level)
+         * @param position  - position X of the object on the game level
+         * @param positionY - position Y of the object on the game level
+         */
+        GameObject createObject(int type, int placement, int position, int positionY);
+
+        /**
+         * Called when the object leaves the range near the game window and is removed from the index
+         */
+        void removeObject(int type, int placement, GameObject object);
+    }
+
+    /**
+     * @param firstPlacementId - id of the first position on the level (ids of the positions are given in sorted order)
+     */
+    public PlacementIndex(int type, int firstPlacementId, int[] positions, int[] positionsY) {
+        if (positions.length != positionsY.length) {
+            throw new IllegalArgumentException("Every position X should have position Y");
+        }
+        this.type = type;
+        this.firstPlacementId = firstPlacementId;
+
+        // Sort positions by X keeping the pairs together (X in high bits, Y in low bits)
+        long[] sorted = new long[positions.length];
+        for (int i = 0; i < positions.length; i++) {
+            sorted[i] = ((long) positions[i] << 32) | (positionsY[i] & 0xFFFFFFFFL);
+        }
+        Arrays.sort(sorted);
+        this.positions = new int[sorted.length];
+        this.positionsY = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            this.positions[i] = (int) (sorted[i] >> 32);
+            this.positionsY[i] = (int) sorted[i];
+        }
+        objects = new GameObject[positions.length];
+    }
+
+    /**
+     * Move the range of created objects to the positions between windowLeft and windowRight (not including bounds):
+     * remove objects that left the range and create objects that entered it.
+     */
+    public void update(double windowLeft, double windowRight, ObjectFactory factory) {
+
+        // Remove objects that left the range on the left and on the right side
+        while (first < last && positions[first] <= windowLeft) {
+            factory.removeObject(type, firstPlacementId + first, objects[first]);
+            objects[first++] = null;
+        }
+        while (last > first && positions[last - 1] >= windowRight) {
+            last--;
+            factory.removeObject(type, firstPlacementId + last, objects[last]);
+            objects[last] = null;
+        }
+
+        // No objects left in the range (start of the level or a jump of the window), find the new range
+        if (first == last) {
+            first = findFirstPositionAfter(windowLeft);
+            last = first;
+        }
+
+        // Create objects that entered the range on the right and on the left side
+        while (last < positions.length && positions[last] < windowRight) {
+            objects[last] = factory.createObject(type, firstPlacementId + last, positions[last], positionsY[last]);
+            last++;
+        }
+        while (first > 0 && positions[first - 1] > windowLeft) {
+            first--;
+            objects[first] = factory.createObject(type, firstPlacementId + first, positions[first], positionsY[first]);
+        }
+    }
+
+    /**
+     * Remove all created objects (the chunk of the level is unloaded)
+     */
+    public void clear(ObjectFactory factory) {
+        while (first < last) {
+            factory.removeObject(type, firstPlacementId + first, objects[first]);
+            objects[first++] = null;
+        }
+        first = 0;
+        last = 0;
+    }
+
+    /**
+     * Binary search for the first position greater than the value
+     */
+    private int findFirstPositionAfter(double value) {
+        int low = 0;
+        int high = positions.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (positions[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Get number of the first created object (created objects are numbered from getFirst() to getLast() - 1)
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Get number after the last created object
+     */
+    public int getLast() {
+        return last;
+    }
+
+    /**
+     * Get created object by its number (between getFirst() and getLast() - 1)
+     */
+    public GameObject getObject(int number) {
+        return objects[number];
+    }
+
+    /**
+     * Get number of objects of this type on the level
+     */
+    public int getPlacementCount() {
+        return positions.length;
+    }
+}
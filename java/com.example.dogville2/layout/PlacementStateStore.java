@@ -0,0 +1,53 @@
+package com.example.dogvillev2.layout;
+
+import java.util.BitSet;
+
+/**
+ * PlacementStateStore keeps a small state value (a few bits) of each object position on the level by its placement id,
+ * so an object removed from memory (left the game window) comes back in the same state.
+ * Each bit of the values is kept in its own bit set: state 0 (initial state of the objects) takes no memory
+ * beyond the highest changed placement, a level of millions of objects takes a few bits per object at most.
+ */
+public class PlacementStateStore {
+
+    private final BitSet[] valueBits;
+
+    /**
+     * @param bitsPerValue - number of bits of the state values (values are from 0 to 2^bitsPerValue - 1)
+     */
+    public PlacementStateStore(int bitsPerValue) {
+        if (bitsPerValue <= 0 || bitsPerValue > Integer.SIZE - 1) {
+            throw new IllegalArgumentException("Wrong number of bits per value " + bitsPerValue);
+        }
+        valueBits = new BitSet[bitsPerValue];
+        for (int bit = 0; bit < bitsPerValue; bit++) {
+            valueBits[bit] = new BitSet();
+        }
+    }
+
+    /**
+     * Save state of the placement (0 is the initial state)
+     */
+    public void setState(int placementId, int state) {
+        if (state < 0 || state >= 1 << valueBits.length) {
+            throw new IllegalArgumentException("State " + state + " does not fit " + valueBits.length + " bits");
+        }
+        for (int bit = 0; bit < valueBits.length; bit++) {
+            // Clearing bits that were never set does not grow the bit set
+            valueBits[bit].set(placementId, (state & (1 << bit)) != 0);
+        }
+    }
+
+    /**
+     * Get saved state of the placement (0 if the state was not saved)
+     */
+    public int getState(int placementId) {
+        int state = 0;
+        for (int bit = 0; bit < valueBits.length; bit++) {
+            if (valueBits[bit].get(placementId)) {
+                state |= 1 << bit;
+            }
+        }
+        return state;
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.dogvillev2.layout;
+
+import java.util.Random;
+
+/**
+ * ProceduralLevel generates the game level from a seed: trees, houses, cars, stones, platform stairs,
+ * bear traps and slimes are placed randomly in each chunk, the cat waits after the finish point.
+ * A chunk is generated when it is read, only from the seed and the number of the chunk,
+ * so the same seed always gives the same level and a level of any length takes the same memory.
+ * Density multiplies the number of objects (1 - about as many objects per chunk as in the original level).
+ * Length 0 makes an endless level (as long as the positions fit into int).
+ * Uses only plain Java, so generated levels can also be used by benchmarks without a device.
+ */
+public class ProceduralLevel implements LevelSource {
+
+    public static final int ENDLESS = 0;
+    public static final int CHUNK_WIDTH = 1024;
+    // Record ids of a chunk are chunk * MAX_RECORDS_PER_CHUNK + number of the record
+    private static final int MAX_RECORDS_PER_CHUNK = 256;
+    private static final int MAX_CHUNK_COUNT = Math.min(Integer.MAX_VALUE / MAX_RECORDS_PER_CHUNK, Integer.MAX_VALUE / CHUNK_WIDTH - 1);
+    // Start of the level is free of traps and slimes
+    private static final int SAFE_START = 400;
+    private static final int PLAYER_X = 100;
+    private static final int PLAYER_Y = 243;
+    private static final int CAT_Y = 124;
+    private static final int CAT_AFTER_FINISH = 50;
+    private static final int FINISH_BEFORE_END = 320;
+
+    // Objects per chunk with density 1
+    private static final double TREES_PER_CHUNK = 2.4;
+    private static final double BACK_TREES_PER_CHUNK = 0.6;
+    private static final double STONES_PER_CHUNK = 1.2;
+    private static final double TRAPS_PER_CHUNK = 4.8;
+    private static final double SLIMES_PER_CHUNK = 3;
+    private static final double CARS_PER_CHUNK = 0.6;
+    private static final double PLATFORM_STAIRS_PER_CHUNK = 0.6;
+    // Houses stand in slots along the chunk (they do not overlap each other), chance of a house in a slot with density 1
+    private static final int HOUSE_SLOT_WIDTH = 256;
+    private static final double HOUSE_CHANCE = 0.5;
+    // Platform stairs: platforms go up from left to right
+    private static final int PLATFORMS_IN_STAIRS = 3;
+    private static final int PLATFORM_STEP_X = 96;
+    private static final int PLATFORM_STEP_Y = 40;
+    private static final int PLATFORM_BASE_Y = 280;
+
+    private final long seed;
+    private final double density;
+    private final int chunkCount;
+    private final int finishPoint;
+    private final Random random = new Random();
+
+    // Records of the last generated chunk
+    private int generatedChunk = -1;
+    private int recordCount = 0;
+    private final int[] recordTypes = new int[MAX_RECORDS_PER_CHUNK];
+    private final int[] recordPositionsX = new int[MAX_RECORDS_PER_CHUNK];
+    private final int[] recordPositionsY = new int[MAX_RECORDS_PER_CHUNK];
+
+    /**
+     * @param seed    - seed of the random level
+     * @param length  - length of the level in pixels (ENDLESS for the longest possible level)
+     * @param density - multiplier of the number of objects on the level
+     */
+    public ProceduralLevel(long seed, int length, double density) {
+        if (length < 0 || density < 0) {
+            throw new IllegalArgumentException("Level length and density should not be negative");
+        }
+        this.seed = seed;
+        this.density = density;
+        if (length == ENDLESS) {
+            chunkCount = MAX_CHUNK_COUNT;
+        } else {
+            chunkCount = Math.min(MAX_CHUNK_COUNT, (length + CHUNK_WIDTH - 1) / CHUNK_WIDTH);
+        }
+        finishPoint = Math.max(SAFE_START, chunkCount * CHUNK_WIDTH - FINISH_BEFORE_END);
+    }
+
+    @Override
+    public int getChunkAt(double positionOnLevelX) {
+        return (int) Math.floor(positionOnLevelX / CHUNK_WIDTH);
+    }
+
+    @Override
+    public int getChunkLeft(int chunk) {
+        return chunk * CHUNK_WIDTH;
+    }
+
+    @Override
+    public int getChunkWidth() {
+        return CHUNK_WIDTH;
+    }
+
+    @Override
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    @Override
+    public int getRecordCount(int chunk) {
+        generateChunk(chunk);
+        return recordCount;
+    }
+
+    @Override
+    public int getFirstRecordId(int chunk) {
+        return chunk * MAX_RECORDS_PER_CHUNK;
+    }
+
+    @Override
+    public int readRecords(int chunk, int[] types, int[] positionsX, int[] positionsY) {
+        generateChunk(chunk);
+        System.arraycopy(recordTypes, 0, types, 0, recordCount);
+        System.arraycopy(recordPositionsX, 0, positionsX, 0, recordCount);
+        System.arraycopy(recordPositionsY, 0, positionsY, 0, recordCount);
+        return recordCount;
+    }
+
+    @Override
+    public int getFinishPoint() {
+        return finishPoint;
+    }
+
+    @Override
+    public int getPlayerX() {
+        return PLAYER_X;
+    }
+
+    @Override
+    public int getPlayerY() {
+        return PLAYER_Y;
+    }
+
+    @Override
+    public int getCatX() {
+        return finishPoint + CAT_AFTER_FINISH;
+    }
+
+    @Override
+    public int getCatY() {
+        return CAT_Y;
+    }
+
+    /**
+     * Generate records of the chunk (the last generated chunk is kept, so count and records are generated once)
+     */
+    private void generateChunk(int chunk) {
+        if (chunk == generatedChunk) {
+            return;
+        }
+        if (chunk < 0 || chunk >= chunkCount) {
+            throw new IllegalArgumentException("No chunk " + chunk + " on the level");
+        }
+        generatedChunk = chunk;
+        recordCount = 0;
+        // Random numbers of the chunk depend only on the seed and the number of the chunk
+        random.setSeed(seed ^ (chunk * 0x9E3779B97F4A7C15L));
+
+        int left = getChunkLeft(chunk);
+        int right = left + CHUNK_WIDTH;
+        int safeLeft = Math.max(left, SAFE_START);
+
+        // Back scenery
+        for (int slot = left; slot < right; slot += HOUSE_SLOT_WIDTH) {
+            if (random.nextDouble() < HOUSE_CHANCE * density) {
+                int type = random.nextBoolean() ? LevelFile.TYPE_HOUSE1 : LevelFile.TYPE_HOUSE2;
+                addRecord(type, slot + random.nextInt(HOUSE_SLOT_WIDTH / 4), 30);
+            }
+        }
+        addObjects(LevelFile.TYPE_CAR, CARS_PER_CHUNK, left, right, 20);
+        addObjects(LevelFile.TYPE_TREE2, BACK_TREES_PER_CHUNK, left, right, 142);
+
+        // Front objects
+        addObjects(LevelFile.TYPE_TREE1, TREES_PER_CHUNK, left, right, 130);
+        addObjects(LevelFile.TYPE_STONE, STONES_PER_CHUNK, left, right, 202);
+        int stairsWidth = (PLATFORMS_IN_STAIRS - 1) * PLATFORM_STEP_X;
+        int stairs = getObjectCount(PLATFORM_STAIRS_PER_CHUNK);
+        for (int i = 0; i < stairs && right - stairsWidth > left; i++) {
+            int x = left + random.nextInt(CHUNK_WIDTH - stairsWidth);
+            for (int step = 0; step < PLATFORMS_IN_STAIRS; step++) {
+                addRecord(LevelFile.TYPE_PLATFORM, x + step * PLATFORM_STEP_X, PLATFORM_BASE_Y - PLATFORM_STEP_Y * (step + 1));
+            }
+        }
+        addObjects(LevelFile.TYPE_BEAR_TRAP, TRAPS_PER_CHUNK, safeLeft, right, 260);
+
+        // Enemies
+        addObjects(LevelFile.TYPE_SLIME, SLIMES_PER_CHUNK, safeLeft, right, 254);
+    }
+
+    /**
+     * Add random number of objects of the type at random positions X from left to right
+     */
+    private void addObjects(int type, double perChunk, int left, int right, int positionY) {
+        int count = getObjectCount(perChunk);
+        for (int i = 0; i < count && left < right; i++) {
+            addRecord(type, left + random.nextInt(right - left), positionY);
+        }
+    }
+
+    /**
+     * Get number of objects in a chunk: the average number is perChunk * density
+     */
+    private int getObjectCount(double perChunk) {
+        return (int) (perChunk * density + random.nextDouble());
+    }
+
+    /**
+     * Add record to the chunk, records above the limit of the chunk are skipped
+     */
+    private void addRecord(int type, int positionX, int positionY) {
+        if (recordCount == MAX_RECORDS_PER_CHUNK) {
+            return;
+        }
+        recordTypes[recordCount] = type;
+        recordPositionsX[recordCount] = positionX;
+        recordPositionsY[recordCount] = positionY;
+        recordCount++;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.dogvillev2.layout;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Rect;
+
+import com.example.dogvillev2.utilities.AtlasRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SceneryChunkCache pre-renders static back scenery (houses, cars, trees behind the player) of the game level.
+ * The level is divided into chunks of fixed width, all scenery of a chunk is drawn once into a single bitmap
+ * when the chunk comes near the game window, so the whole back layer is drawn with one or two bitmaps per frame.
+ * Only a few chunks are kept in memory, the least recently used chunk is evicted (its bitmap is reused for the next chunk).
+ * Scenery is added and removed as the chunks of the level file are loaded, only baked chunks overlapped
+ * by the changed scenery are baked again.
+ */
+public class SceneryChunkCache {
+
+    public static final int CHUNK_WIDTH = GameLevelLayout.SCENERY_CHUNK_WIDTH;
+    // Two chunks cover the game window, one more chunk is prepared on each side
+    private static final int MAX_CACHED_CHUNKS = 4;
+
+    private final GameView gameView;
+    private final int chunkHeight;
+    // Placements of scenery: image and position X, Y and layer of drawing
+    private final List<AtlasRegion> placementImages = new ArrayList<>();
+    private final List<int[]> placementPositions = new ArrayList<>();
+    private int maxLayer = 0;
+    // Baked chunks: chunk number, bitmap and the last update when the chunk was used (for LRU eviction)
+    private final int[] chunkNumbers = new int[MAX_CACHED_CHUNKS];
+    private final Bitmap[] chunkBitmaps = new Bitmap[MAX_CACHED_CHUNKS];
+    private final long[] chunkLastUsed = new long[MAX_CACHED_CHUNKS];
+    private long updateCount = 0;
+    private final Canvas chunkCanvas = new Canvas();
+    private final Rect placementRect = new Rect();
+
+    public SceneryChunkCache(GameView gameView, int chunkHeight) {
+        this.gameView = gameView;
+        this.chunkHeight = chunkHeight;
+    }
+
+    /**
+     * Add static scenery object to the level (objects of higher layer are drawn on top,
+     * objects of the same layer added later are drawn on top of earlier ones).
+     */
+    public void addPlacement(AtlasRegion image, int positionOnLevelX, int positionOnLevelY, int layer) {
+        placementImages.add(image);
+        placementPositions.add(new int[]{positionOnLevelX, positionOnLevelY, layer});
+        maxLayer = Math.max(maxLayer, layer);
+        // Chunks that are already baked do not have the new object
+        invalidateChunks(positionOnLevelX, positionOnLevelX + image.getWidth());
+    }
+
+    /**
+     * Remove static scenery objects with position X from left (including) to right (not including).
+     */
+    public void removePlacements(int left, int right) {
+        for (int i = placementImages.size() - 1; i >= 0; i--) {
+            int positionX = placementPositions.get(i)[0];
+            if (positionX >= left && positionX < right) {
+                invalidateChunks(positionX, positionX + placementImages.get(i).getWidth());
+                placementImages.remove(i);
+                placementPositions.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Bake chunks that come near the game window, called by the game loop.
+     */
+    public void update() {
+        updateCount++;
+        int firstChunk = getChunkAt(gameView.getWindowPositionX()) - 1;
+        int lastChunk = getChunkAt(gameView.getWindowPositionX() + GameDisplay.GAME_WIDTH_BUFF_CANVAS) + 1;
+        for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            getChunkBitmap(chunk);
+        }
+    }
+
+    /**
+     * Draw chunks that are visible in the game window, called by the game loop.
+     */
+    public void draw(Canvas canvas) {
+        int firstChunk = getChunkAt(gameView.getDrawWindowPositionX());
+        int lastChunk = getChunkAt(gameView.getDrawWindowPositionX() + GameDisplay.GAME_WIDTH_BUFF_CANVAS);
+        for (int chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            canvas.drawBitmap(
+                    getChunkBitmap(chunk),
+                    (int) gameView.getInDrawWindowPositionX((double) chunk * CHUNK_WIDTH),
+                    (int) gameView.getInWindowPositionY(0),
+                    null);
+        }
+    }
+
+    /**
+     * Remove all baked chunks.
+     */
+    public void clear() {
+        for (int i = 0; i < MAX_CACHED_CHUNKS; i++) {
+            if (chunkBitmaps[i] != null) {
+                chunkBitmaps[i].recycle();
+                chunkBitmaps[i] = null;
+            }
+        }
+    }
+
+    /**
+     * Mark baked chunks that overlap range from left to right to be baked again (their bitmaps are reused)
+     */
+    private void invalidateChunks(int left, int right) {
+        int firstChunk = getChunkAt(left);
+        int lastChunk = getChunkAt(right - 1);
+        for (int i = 0; i < MAX_CACHED_CHUNKS; i++) {
+            if (chunkBitmaps[i] != null && chunkNumbers[i] >= firstChunk && chunkNumbers[i] <= lastChunk) {
+                chunkNumbers[i] = Integer.MIN_VALUE;
+                chunkLastUsed[i] = Long.MIN_VALUE;
+            }
+        }
+    }
+
+    private static int getChunkAt(double positionOnLevelX) {
+        return (int) Math.floor(positionOnLevelX / CHUNK_WIDTH);
+    }
+
+    /**
+     * Get baked chunk bitmap, bake the chunk in place of the least recently used one if it is not cached.
+     */
+    private Bitmap getChunkBitmap(int chunk) {
+        int leastRecentlyUsed = 0;
+        for (int i = 0; i < MAX_CACHED_CHUNKS; i++) {
+            if (chunkBitmaps[i] == null) {
+                leastRecentlyUsed = i;
+                chunkLastUsed[i] = Long.MIN_VALUE;
+                continue;
+            }
+            if (chunkNumbers[i] == chunk) {
+                chunkLastUsed[i] = updateCount;
+                return chunkBitmaps[i];
+            }
+            if (chunkLastUsed[i] < chunkLastUsed[leastRecentlyUsed]) {
+                leastRecentlyUsed = i;
+            }
+        }
+
+        // Chunk is not cached, evict the least recently used chunk and reuse its bitmap
+        if (chunkBitmaps[leastRecentlyUsed] == null) {
+            chunkBitmaps[leastRecentlyUsed] = Bitmap.createBitmap(CHUNK_WIDTH, chunkHeight, Bitmap.Config.ARGB_8888);
+        } else {
+            chunkBitmaps[leastRecentlyUsed].eraseColor(Color.TRANSPARENT);
+        }
+        chunkNumbers[leastRecentlyUsed] = chunk;
+        chunkLastUsed[leastRecentlyUsed] = updateCount;
+        bakeChunk(chunk, chunkBitmaps[leastRecentlyUsed]);
+        return chunkBitmaps[leastRecentlyUsed];
+    }
+
+    /**
+     * Draw all scenery that overlaps the chunk onto the chunk bitmap.
+     */
+    private void bakeChunk(int chunk, Bitmap chunkBitmap) {
+
+        chunkCanvas.setBitmap(chunkBitmap);
+        int chunkLeft = chunk * CHUNK_WIDTH;
+        for (int layer = 0; layer <= maxLayer; layer++) {
+            for (int i = 0; i < placementImages.size(); i++) {
+                AtlasRegion image = placementImages.get(i);
+                int left = placementPositions.get(i)[0] - chunkLeft;
+                int top = placementPositions.get(i)[1];
+                if (placementPositions.get(i)[2] != layer || left + image.getWidth() <= 0 || left >= CHUNK_WIDTH) {
+                    continue; // Object is in other layer or outside of the chunk
+                }
+                placementRect.set(left, top, left + image.getWidth(), top + image.getHeight());
+                chunkCanvas.drawBitmap(image.getBitmap(), image.getRect(), placementRect, null);
+            }
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.dogvillev2.layout;
+
+import java.util.Arrays;
+
+/**
+ * SpatialHash finds entities (indices in an entity store, for example living slimes of the SlimeStore)
+ * near a point of the level: the level is divided into square cells of a uniform grid,
+ * each cell keeps a linked list of the entities whose centers are in the cell,
+ * and a query only looks at the cells that the query circle touches.
+ * Cells are found by a hash table of cell coordinates, so the endless level needs no grid bounds,
+ * a cell is removed from the table when its last entity leaves it (the table only holds cells with entities).
+ * Entities are moved between cells only when they cross a cell border (the hash is updated incrementally each tick).
+ * Distances are compared squared, lists and the table are kept in primitive arrays and queries create no objects.
+ */
+public class SpatialHash {
+
+    public static final int NO_ENTITY = -1;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int INITIAL_TABLE_SIZE = 256; // Power of two
+    private static final long EMPTY_KEY = Long.MIN_VALUE;
+
+    private final double cellSize;
+
+    // Entities by index: center, slot of the cell in the table (NO_ENTITY if not in the hash) and links of the cell list
+    private double[] centerX = new double[INITIAL_CAPACITY];
+    private double[] centerY = new double[INITIAL_CAPACITY];
+    private int[] cellSlot = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];
+    private int[] previous = new int[INITIAL_CAPACITY];
+    private int entityCount = 0;
+
+    // Hash table of cells: key is packed cell coordinates, value is the first entity of the cell list
+    private long[] cellKeys = new long[INITIAL_TABLE_SIZE];
+    private int[] cellHeads = new int[INITIAL_TABLE_SIZE];
+    private int usedSlots = 0;
+
+    /**
+     * @param cellSize - size of the grid cells, about the radius of the usual query
+     */
+    public SpatialHash(double cellSize) {
+        if (cellSize <= 0) {
+            throw new IllegalArgumentException("Cell size should be positive");
+        }
+        this.cellSize = cellSize;
+        Arrays.fill(cellSlot, NO_ENTITY);
+        Arrays.fill(cellKeys, EMPTY_KEY);
+    }
+
+    /**
+     * Add entity to the hash or move it to the new center (the entity changes cell only if it crossed a cell border)
+     */
+    public void update(int entity, double entityCenterX, double entityCenterY) {
+        if (entity >= centerX.length) {
+            growEntities(entity + 1);
+        }
+        centerX[entity] = entityCenterX;
+        centerY[entity] = entityCenterY;
+
+        // The old cell is left before the new one is found (removing the emptied cell moves other cells in the table)
+        long key = getCellKey(getCell(entityCenterX), getCell(entityCenterY));
+        if (cellSlot[entity] != NO_ENTITY) {
+            if (cellKeys[cellSlot[entity]] == key) {
+                return;
+            }
+            unlink(entity);
+        } else {
+            entityCount++;
+        }
+        link(entity, findSlot(key, true));
+    }
+
+    /**
+     * Remove entity from the hash (for example a dead slime)
+     */
+    public void remove(int entity) {
+        if (entity >= cellSlot.length || cellSlot[entity] == NO_ENTITY) {
+            return;
+        }
+        unlink(entity);
+        cellSlot[entity] = NO_ENTITY;
+        entityCount--;
+    }
+
+    /**
+     * Give the entity a new index (the entity store moved it by swap-remove), the old index is removed from the hash
+     */
+    public void renumber(int oldEntity, int newEntity) {
+        remove(newEntity);
+        if (oldEntity >= cellSlot.length || cellSlot[oldEntity] == NO_ENTITY) {
+            return;
+        }
+        double oldCenterX = centerX[oldEntity];
+        double oldCenterY = centerY[oldEntity];
+        remove(oldEntity);
+        update(newEntity, oldCenterX, oldCenterY);
+    }
+
+    public boolean contains(int entity) {
+        return entity < cellSlot.length && cellSlot[entity] != NO_ENTITY;
+    }
+
+    /**
+     * Find entities whose centers are closer to the point than the radius
+     *
+     * @param result - array to write found entities to
+     * @return number of found entities (not more than the length of the result array)
+     */
+    public int queryRadius(double pointX, double pointY, double radius, int[] result) {
+        double radiusSquared = radius * radius;
+        int found = 0;
+        int lastCellX = getCell(pointX + radius);
+        int lastCellY = getCell(pointY + radius);
+        for (int cellX = getCell(pointX - radius); cellX <= lastCellX; cellX++) {
+            for (int cellY = getCell(pointY - radius); cellY <= lastCellY; cellY++) {
+                int slot = findSlot(getCellKey(cellX, cellY), false);
+                if (slot == NO_ENTITY) {
+                    continue;
+                }
+                for (int entity = cellHeads[slot]; entity != NO_ENTITY; entity = next[entity]) {
+                    if (getDistanceSquared(entity, pointX, pointY) < radiusSquared) {
+                        if (found == result.length) {
+                            return found;
+                        }
+                        result[found++] = entity;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Find entity with the center nearest to the point, closer than maxRadius
+     *
+     * @return the nearest entity or NO_ENTITY
+     */
+    public int findNearest(double pointX, double pointY, double maxRadius) {
+        double nearestDistanceSquared = maxRadius * maxRadius;
+        int nearest = NO_ENTITY;
+        int lastCellX = getCell(pointX + maxRadius);
+        int lastCellY = getCell(pointY + maxRadius);
+        for (int cellX = getCell(pointX - maxRadius); cellX <= lastCellX; cellX++) {
+            for (int cellY = getCell(pointY - maxRadius); cellY <= lastCellY; cellY++) {
+                int slot = findSlot(getCellKey(cellX, cellY), false);
+                if (slot == NO_ENTITY) {
+                    continue;
+                }
+                for (int entity = cellHeads[slot]; entity != NO_ENTITY; entity = next[entity]) {
+                    double distanceSquared = getDistanceSquared(entity, pointX, pointY);
+                    // Equal distances go to the lower index, so the result does not depend on the order of the lists
+                    if (distanceSquared < nearestDistanceSquared
+                            || (distanceSquared == nearestDistanceSquared && nearest != NO_ENTITY && entity < nearest)) {
+                        nearestDistanceSquared = distanceSquared;
+                        nearest = entity;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Get number of entities in the hash
+     */
+    public int getEntityCount() {
+        return entityCount;
+    }
+
+    /**
+     * Get number of cells in the hash table (cells with entities)
+     */
+    public int getCellCount() {
+        return usedSlots;
+    }
+
+    private double getDistanceSquared(int entity, double pointX, double pointY) {
+        double distanceX = centerX[entity] - pointX;
+        double distanceY = centerY[entity] - pointY;
+        return distanceX * distanceX + distanceY * distanceY;
+    }
+
+    private int getCell(double position) {
+        return (int) Math.floor(position / cellSize);
+    }
+
+    private static long getCellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Find slot of the cell in the hash table (linear probing)
+     *
+     * @param create - add the cell if it is not in the table
+     * @return slot of the cell, NO_ENTITY if the cell is not in the table and is not created
+     */
+    private int findSlot(long key, boolean create) {
+        int mask = cellKeys.length - 1;
+        int slot = hash(key) & mask;
+        while (cellKeys[slot] != EMPTY_KEY) {
+            if (cellKeys[slot] == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (!create) {
+            return NO_ENTITY;
+        }
+        // Keep the table at most half full
+        if ((usedSlots + 1) * 2 > cellKeys.length) {
+            growTable();
+            return findSlot(key, true);
+        }
+        cellKeys[slot] = key;
+        cellHeads[slot] = NO_ENTITY;
+        usedSlots++;
+        return slot;
+    }
+
+    private static int hash(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    private void link(int entity, int slot) {
+        int head = cellHeads[slot];
+        next[entity] = head;
+        previous[entity] = NO_ENTITY;
+        if (head != NO_ENTITY) {
+            previous[head] = entity;
+        }
+        cellHeads[slot] = entity;
+        cellSlot[entity] = slot;
+    }
+
+    /**
+     * Remove entity from the list of its cell, the cell is removed from the table if it has no more entities
+     */
+    private void unlink(int entity) {
+        int slot = cellSlot[entity];
+        if (previous[entity] != NO_ENTITY) {
+            next[previous[entity]] = next[entity];
+        } else {
+            cellHeads[slot] = next[entity];
+        }
+        if (next[entity] != NO_ENTITY) {
+            previous[next[entity]] = previous[entity];
+        }
+        if (cellHeads[slot] == NO_ENTITY) {
+            removeSlot(slot);
+        }
+    }
+
+    /**
+     * Remove the empty cell from the hash table (backward-shift deletion: cells after it in the probe sequence
+     * are moved back to the freed slots, so lookups need no markers of removed cells)
+     */
+    private void removeSlot(int slot) {
+        int mask = cellKeys.length - 1;
+        int freeSlot = slot;
+        for (int current = (slot + 1) & mask; cellKeys[current] != EMPTY_KEY; current = (current + 1) & mask) {
+            // The cell can be moved back if the free slot is not before its home slot in the probe sequence
+            int homeSlot = hash(cellKeys[current]) & mask;
+            if (((current - homeSlot) & mask) >= ((current - freeSlot) & mask)) {
+                cellKeys[freeSlot] = cellKeys[current];
+                cellHeads[freeSlot] = cellHeads[current];
+                for (int entity = cellHeads[freeSlot]; entity != NO_ENTITY; entity = next[entity]) {
+                    cellSlot[entity] = freeSlot;
+                }
+                freeSlot = current;
+            }
+        }
+        cellKeys[freeSlot] = EMPTY_KEY;
+        usedSlots--;
+    }
+
+    /**
+     * Double size of the hash table, cells get new slots
+     */
+    private void growTable() {
+        long[] oldKeys = cellKeys;
+        int[] oldHeads = cellHeads;
+        cellKeys = new long[oldKeys.length * 2];
+        cellHeads = new int[oldKeys.length * 2];
+        Arrays.fill(cellKeys, EMPTY_KEY);
+        usedSlots = 0;
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldKeys[oldSlot] == EMPTY_KEY) {
+                continue;
+            }
+            int slot = findSlot(oldKeys[oldSlot], true);
+            cellHeads[slot] = oldHeads[oldSlot];
+            for (int entity = oldHeads[oldSlot]; entity != NO_ENTITY; entity = next[entity]) {
+                cellSlot[entity] = slot;
+            }
+        }
+    }
+
+    /**
+     * Grow arrays of entities to fit the entity index
+     */
+    private void growEntities(int minCapacity) {
+        int capacity = Math.max(centerX.length * 2, minCapacity);
+        int oldCapacity = cellSlot.length;
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        cellSlot = Arrays.copyOf(cellSlot, capacity);
+        Arrays.fill(cellSlot, oldCapacity, capacity, NO_ENTITY);
+        next = Arrays.copyOf(next, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+    }
+}
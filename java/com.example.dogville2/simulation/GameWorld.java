@@ -0,0 +1,372 @@
+package com.example.dogvillev2.simulation;
+
+import com.example.dogvillev2.gameObjects.animated.SpellFrames;
+import com.example.dogvillev2.gameObjects.animated.SpellStore;
+import com.example.dogvillev2.gameObjects.characters.AiLodScheduler;
+import com.example.dogvillev2.gameObjects.characters.AnimalCharacter;
+import com.example.dogvillev2.gameObjects.characters.CharacterFrames;
+import com.example.dogvillev2.gameObjects.characters.FriendlyCat;
+import com.example.dogvillev2.gameObjects.characters.SlimeStore;
+import com.example.dogvillev2.layout.CollisionBroadphase;
+import com.example.dogvillev2.layout.GameLevelLayout;
+import com.example.dogvillev2.layout.GameView;
+import com.example.dogvillev2.layout.LevelSource;
+import com.example.dogvillev2.layout.SpatialHash;
+import com.example.dogvillev2.sounds.SoundPlayer;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * GameWorld is the simulation of the game without Android: level layout, player, cat, enemy slimes and spells,
+ * their collisions and the win and lose conditions. It is updated in fixed steps (MAX_UPS per second)
+ * by the Game on the device or by the HeadlessGame on a desktop JVM, drawing is done by the renderers of the Game.
+ * All sizes of the images are given by the frames (CharacterFrames, SpellFrames) and the LevelImages.
+ */
+public class GameWorld implements GameLevelLayout.EnemySpawner {
+
+    public static final double MAX_UPS = 60.0; // Number of updates per second (fixed simulation step)
+    // Number of flying spells and what to do with new spells above it (SpellStore.OVERFLOW_ constants)
+    private static final int SPELL_CAPACITY = 256;
+    private static final int SPELL_OVERFLOW_POLICY = SpellStore.OVERFLOW_DROP_OLDEST;
+    // Update large numbers of slimes in parallel (see SlimeStore.PARALLEL_THRESHOLD)
+    public static final boolean PARALLEL_ENEMY_UPDATE = true;
+    // Updates between the end of the game and the game over or game win state
+    private static final int UPDATES_BEFORE_GAME_END = 100;
+
+    // Game window view position on the game level
+    private final GameView gameView;
+    private final SoundPlayer gameSounds;
+    private final SpellFrames spellFrames;
+    //-----------------------Game objects and characters------------------------------//
+    private final GameLevelLayout gameLevelLayout;
+    private final AnimalCharacter player;
+    private final FriendlyCat cat;
+    // Enemy slimes and water spells are kept in primitive arrays of the stores
+    private final SlimeStore slimes;
+    private final SpellStore spells;
+    // Far characters are updated less often
+    private final AiLodScheduler aiLodScheduler = new AiLodScheduler();
+    // Colliders of platforms and traps (slimes are found with the slime hash, spells only hit the player)
+    private final CollisionBroadphase collisionBroadphase = new CollisionBroadphase();
+    // Living slimes by their centers, for the win condition, close attacks and bites
+    private static final double SLIME_HASH_CELL_SIZE = 128;
+    private final SpatialHash slimeHash = new SpatialHash(SLIME_HASH_CELL_SIZE);
+    // Slimes found near the player, grows up to the number of living slimes (all of them can crowd around the player)
+    private int[] nearSlimes = new int[32];
+    // Bite of the player is applied by the next update (touch events come from another thread)
+    private volatile boolean isBitePending = false;
+
+    private boolean isGameOver = false;
+    private int updatesAfterGameOver = UPDATES_BEFORE_GAME_END;
+    private boolean isGameWin = false;
+    private int updatesAfterGameWin = UPDATES_BEFORE_GAME_END;
+
+    /**
+     * Create the level layout (spawns enemies near the game window), the player and the cat
+     */
+    public GameWorld(GameView gameView, LevelSource level, CharacterFrames dogFrames, CharacterFrames catFrames,
+                     CharacterFrames slimeFrames, SpellFrames spellFrames, AnimalCharacter.MovementControl movementControl,
+                     SoundPlayer gameSounds, GameLevelLayout.LevelImages levelImages) {
+        this.gameView = gameView;
+        this.gameSounds = gameSounds;
+        this.spellFrames = spellFrames;
+
+        slimes = new SlimeStore(slimeFrames.getFrameWidth(), slimeFrames.getFrameHeight(), slimeFrames.getRowMaxFrames());
+        spells = new SpellStore(spellFrames.getFrameWidth(), spellFrames.getFrameHeight(), spellFrames.getRowMaxFrames(),
+                SPELL_CAPACITY, SPELL_OVERFLOW_POLICY);
+
+        gameLevelLayout = new GameLevelLayout(gameView, gameSounds, collisionBroadphase, level, this, levelImages);
+
+        player = new AnimalCharacter(gameView, dogFrames, movementControl, gameLevelLayout,
+                level.getPlayerX(), level.getPlayerY(), gameSounds);
+        cat = new FriendlyCat(gameView, catFrames, player, level.getCatX(), level.getCatY(), gameSounds);
+    }
+
+    /**
+     * Create enemy slime of the level, called by the level layout when the chunk of the enemy is loaded.
+     */
+    @Override
+    public void spawnEnemy(int placement, int positionOnLevelX, int positionOnLevelY) {
+        int slime = slimes.add(placement, positionOnLevelX, positionOnLevelY);
+        slimeHash.update(slime, slimes.getCenterX(slime), slimes.getCenterY(slime));
+    }
+
+    /**
+     * Remove slimes of the placements from firstPlacement (inclusive) to lastPlacement (exclusive),
+     * called by the level layout when the chunk of the slimes is unloaded.
+     * Killed slimes are saved by the level layout and are not spawned again.
+     */
+    @Override
+    public void despawnEnemies(int firstPlacement, int lastPlacement) {
+        int slime = 0;
+        while (slime < slimes.getCount()) {
+            int placement = slimes.getPlacement(slime);
+            if (placement >= firstPlacement && placement < lastPlacement) {
+                // The last slime is moved into the index of the removed one and is checked next
+                removeSlime(slime);
+                continue;
+            }
+            slime++;
+        }
+    }
+
+    /**
+     * Update game state of all game objects - main logic of the game is here.
+     */
+    public void update() {
+
+        //--------- Check win and lose conditions--------------------------//
+
+        // Freeze game state of the finished game (on players win or death)
+        if (isGameOver || isGameWin) {
+            return;
+        }
+
+        // Player loosed all health points
+        if (player.isDead()) {
+
+            // Immediately play lose sound
+            if (!player.playedLastSound) {
+                gameSounds.playSoundPlayerDeath();
+                player.playedLastSound = true;
+            }
+            // With delay finish the game
+            updatesAfterGameOver--;
+            if (updatesAfterGameOver <= 0) {
+                isGameOver = true;
+            }
+        }
+
+        // Player win the game if he reached the cat and no slimes are left nearby
+        boolean winCondition = false;
+        if (player.getPositionOnLevelX() > gameLevelLayout.getFinishPoint()) {
+            winCondition = true;
+        }
+        // Only living slimes are kept in the slime hash
+        double playerLevelCenterX = player.getPositionOnLevelX() + player.getCharacterFrameWidth() / 2;
+        double playerLevelCenterY = player.getPositionOnLevelY() + player.getCharacterFrameHeight() / 2;
+        if (slimeHash.findNearest(playerLevelCenterX, playerLevelCenterY, 200) != SpatialHash.NO_ENTITY) {
+            winCondition = false;
+        }
+
+        if (winCondition) {
+            if (!cat.playedLastSound) {
+                gameSounds.playSoundMeow();
+                cat.playedLastSound = true;
+            }
+            updatesAfterGameWin--;
+            if (updatesAfterGameWin <= 0) {
+                isGameWin = true;
+            }
+        }
+
+
+        //--------------- Enemy State-------------------------------------------------//
+        // Bite of the player hits the nearest living slime
+        if (isBitePending) {
+            isBitePending = false;
+            int slime = slimeHash.findNearest(playerLevelCenterX, playerLevelCenterY, 50);
+            if (slime != SpatialHash.NO_ENTITY && slimes.changeHealthPoints(slime, -30)) {
+                gameSounds.playSoundEnemyDeath();
+                slimeHash.remove(slime);
+                if (slimes.getPlacement(slime) != SlimeStore.NO_PLACEMENT) {
+                    gameLevelLayout.setEnemyDead(slimes.getPlacement(slime));
+                }
+            }
+        }
+
+        // First phase: slimes update their own state (in parallel if there are many slimes),
+        // second phase: spells and attacks of the slimes are applied in the order of the slimes
+        aiLodScheduler.startUpdate();
+        slimes.update(playerLevelCenterX, playerLevelCenterY, aiLodScheduler, PARALLEL_ENEMY_UPDATE ? ForkJoinPool.commonPool() : null);
+        int slime = 0;
+        while (slime < slimes.getCount()) {
+            // Dead slimes stay on the level (drawn with the last frame of the death animation) until they leave
+            // the game window, the last slime is moved into the index of the removed one and is checked next
+            if (slimes.isDeathAnimationFinished(slime)) {
+                double slimeWindowPositionX = gameView.getInWindowPositionX(slimes.getPositionOnLevelX(slime));
+                if (slimeWindowPositionX + slimes.getFrameWidth() < 0 || slimeWindowPositionX > gameView.getWindowWidth()) {
+                    removeSlime(slime);
+                    continue;
+                }
+                slime++;
+                continue;
+            }
+            // Slimes skipped by the AI level of detail are idle
+            if (!slimes.isUpdatedAt(slime, aiLodScheduler.getTick())) {
+                slime++;
+                continue;
+            }
+            if (slimeHash.contains(slime)) {
+                slimeHash.update(slime, slimes.getCenterX(slime), slimes.getCenterY(slime));
+            }
+
+            // Cast spells
+            if (slimes.getSpellToCast(slime) > 0) {
+                castSpell(slime);
+                slimes.registerSpellCasted(slime);
+            }
+            slime++;
+        }
+
+        // Close attacks of the living slimes near the player
+        if (nearSlimes.length < slimeHash.getEntityCount()) {
+            nearSlimes = new int[Math.max(nearSlimes.length * 2, slimeHash.getEntityCount())];
+        }
+        int nearSlimeCount = slimeHash.queryRadius(playerLevelCenterX, playerLevelCenterY, 50, nearSlimes);
+        for (int i = 0; i < nearSlimeCount; i++) {
+            int nearSlime = nearSlimes[i];
+            if (slimes.isUpdatedAt(nearSlime, aiLodScheduler.getTick()) && slimes.isTimeToCountHitDamage(nearSlime)) {
+                player.changeHealthPoint(-10);
+                gameSounds.playSoundHitEnemy();
+            }
+        }
+
+        //--------------- Player character update----------------------------------------//
+        player.update();
+
+        //--------------- Friendly character update--------------------------------------//
+        cat.update(aiLodScheduler);
+
+        //--------------- Spells -----------------------------------------------------//
+        playerLevelCenterX = player.getPositionOnLevelX() + player.getCharacterFrameWidth() / 2;
+        playerLevelCenterY = player.getPositionOnLevelY() + player.getCharacterFrameHeight() / 2;
+        double spellHitRadius = player.getCharacterFrameWidth() - 27;
+        int spell = 0;
+        while (spell < spells.getCount()) {
+            spells.update(spell);
+            // Start hit animation of the spell when collides with player
+            if (spells.isHit(spell, playerLevelCenterX, playerLevelCenterY, spellHitRadius)) {
+                spells.setAnimationHit(spell);
+
+                // Take player health points
+                if (!spells.isCountedHit(spell)) {
+                    gameSounds.playSoundHitSpell();
+                    player.changeHealthPoint(-5);
+                    spells.countHit(spell);
+                }
+                spell++;
+                continue;
+            }
+
+            // Remove spells that has finished animation and spells that are behind the game window (missed ones),
+            // the last spell is moved into the index of the removed one and is updated next
+            double spellWindowPositionX = gameView.getInWindowPositionX(spells.getPositionOnLevelX(spell));
+            if (spells.isFinishedAnimation(spell)
+                    || spellWindowPositionX < -100 || spellWindowPositionX > gameView.getWindowWidth() + 100) {
+                removeSpell(spell);
+                continue;
+            }
+            spell++;
+        }
+
+
+        //--------------- Game view window movement--------------------------------------------//
+        if (player.getVelocityX() == 0) {
+            gameView.setMoving(false);
+            gameView.setLevelVelocityX(0);
+        } else if (player.getPositionX() > 170) {
+            gameView.setMoving(true);
+            gameView.setLevelVelocityX(player.getVelocityX());
+        } else if (player.getPositionX() < 100) {
+            gameView.setMoving(true);
+            gameView.setLevelVelocityX(player.getVelocityX());
+        }
+
+        // Update level layout and game window position
+        gameLevelLayout.update();
+        gameView.update();
+    }
+
+    /**
+     * Player bites: the attack animation starts at once,
+     * damage of the nearest slime is counted by the next update (may be called from the input thread)
+     */
+    public void bite() {
+        player.attack();
+        gameSounds.playSoundBite();
+        isBitePending = true;
+    }
+
+    /**
+     * Player jumps (may be called from the input thread)
+     */
+    public void jump() {
+        player.jump();
+    }
+
+    /**
+     * Cast water spell from the center of the slime in its direction
+     * (if the spell store is full the oldest spell is dropped or the cast is refused, see SPELL_OVERFLOW_POLICY)
+     */
+    private void castSpell(int slime) {
+        double positionOnLevelX = slimes.getPositionOnLevelX(slime);
+        double positionOnLevelY = slimes.getPositionOnLevelY(slime) + slimes.getFrameWidth() / 2 - spells.getFrameHeight() / 2;
+        double directionX = slimes.getDirectionX(slime);
+        double directionY = slimes.getDirectionY(slime);
+        spells.add(positionOnLevelX, positionOnLevelY, directionX, directionY,
+                spellFrames.getAngleBucket(directionX, directionY));
+    }
+
+    /**
+     * Remove slime from the store and the slime hash
+     * (the last slime of the store takes the index of the removed one, its entry in the hash is renumbered)
+     */
+    private void removeSlime(int slime) {
+        slimeHash.remove(slime);
+        int movedSlime = slimes.remove(slime);
+        if (movedSlime != slime) {
+            slimeHash.renumber(movedSlime, slime);
+        }
+    }
+
+    /**
+     * Remove spell from the store (the last spell of the store takes the index of the removed one).
+     * Spells are not registered in the collision broadphase, hits are tested against the player only.
+     */
+    private void removeSpell(int spell) {
+        spells.remove(spell);
+    }
+
+    /**
+     * Player is dead and the game is over (the state of the world is frozen)
+     */
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    /**
+     * Player reached the finish of the level and won the game (the state of the world is frozen)
+     */
+    public boolean isGameWin() {
+        return isGameWin;
+    }
+
+    public GameView getGameView() {
+        return gameView;
+    }
+
+    public GameLevelLayout getLevelLayout() {
+        return gameLevelLayout;
+    }
+
+    public AnimalCharacter getPlayer() {
+        return player;
+    }
+
+    public FriendlyCat getCat() {
+        return cat;
+    }
+
+    public SlimeStore getSlimes() {
+        return slimes;
+    }
+
+    public SpellStore getSpells() {
+        return spells;
+    }
+
+    public AiLodScheduler getAiLodScheduler() {
+        return aiLodScheduler;
+    }
+}
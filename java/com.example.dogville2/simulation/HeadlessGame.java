@@ -0,0 +1,227 @@
+package com.example.dogvillev2.simulation;
+
+import com.example.dogvillev2.gameObjects.animated.SpellFrames;
+import com.example.dogvillev2.gameObjects.characters.AnimalCharacter;
+import com.example.dogvillev2.gameObjects.characters.CharacterFrames;
+import com.example.dogvillev2.gameObjects.characters.Sprite;
+import com.example.dogvillev2.layout.GameLevelLayout;
+import com.example.dogvillev2.layout.GameView;
+import com.example.dogvillev2.layout.LevelSource;
+import com.example.dogvillev2.layout.ProceduralLevel;
+import com.example.dogvillev2.sounds.SoundPlayer;
+
+/**
+ * HeadlessGame runs the GameWorld on a desktop JVM without a device: frames and images of the objects are replaced
+ * with their sizes in the game resources, the player is controlled by a script (walks right, bites and jumps
+ * from time to time, is healed when hurt) and sounds are only counted.
+ * Used for soak runs of long levels and by the SimulationBenchmark:
+ * java -cp classes com.example.dogvillev2.simulation.HeadlessGame [ticks] [seed] [density]
+ * Prints the time of the world updates and the state of the world every REPORT_TICKS updates.
+ */
+public class HeadlessGame {
+
+    // Standard game window width (GameDisplay.GAME_WIDTH)
+    public static final int WINDOW_WIDTH = 480;
+    private static final int DEFAULT_TICKS = 36_000; // 10 minutes of the game
+    private static final long DEFAULT_SEED = 1;
+    private static final double DEFAULT_DENSITY = 1;
+    private static final int REPORT_TICKS = 3600;
+    // The player bites and jumps every this number of updates
+    private static final int BITE_TICKS = 20;
+    private static final int JUMP_TICKS = 150;
+    // Heal the player below this number of health points, so the level keeps streaming during long runs
+    // (0 - the player is not healed and the run stops on game over)
+    private static final int HEAL_BELOW_HEALTH_POINTS = 50;
+    // Sizes of the frames in the sprite sheets of the game resources
+    private static final int CHARACTER_FRAME_SIZE = 48;
+    private static final int[] CHARACTER_ROW_MAX_FRAMES = {6, 4, 4, 4, 2};
+    private static final int SLIME_FRAME_WIDTH = 32;
+    private static final int SLIME_FRAME_HEIGHT = 25;
+    private static final int[] SLIME_ROW_MAX_FRAMES = {4, 4, 5, 4, 4};
+    private static final int SPELL_FRAME_SIZE = 32;
+    private static final int SPELL_ANGLE_BUCKETS = 32;
+    // Sizes of the images of the level object types (by LevelFile.TYPE_ constants), slimes have no level image
+    private static final int[] IMAGE_WIDTHS = {152, 117, 96, 85, 214, 183, 423, 128, 0};
+    private static final int[] IMAGE_HEIGHTS = {151, 137, 96, 21, 270, 270, 270, 32, 0};
+
+    /**
+     * Moves the player with a fixed actuator value set by the script
+     */
+    public static class ScriptedControl implements AnimalCharacter.MovementControl {
+
+        private double actuatorX;
+
+        public ScriptedControl(double actuatorX) {
+            this.actuatorX = actuatorX;
+        }
+
+        public void setActuatorX(double actuatorX) {
+            this.actuatorX = actuatorX;
+        }
+
+        @Override
+        public double getActuatorX() {
+            return actuatorX;
+        }
+    }
+
+    /**
+     * Counts game events instead of playing their sounds
+     */
+    public static class SoundCounter implements SoundPlayer {
+
+        private int bites;
+        private int spellHits;
+        private int enemyHits;
+        private int playerDeaths;
+        private int enemyDeaths;
+        private int meows;
+        private int clangs;
+
+        @Override
+        public void playSoundBite() {
+            bites++;
+        }
+
+        @Override
+        public void playSoundHitSpell() {
+            spellHits++;
+        }
+
+        @Override
+        public void playSoundHitEnemy() {
+            enemyHits++;
+        }
+
+        @Override
+        public void playSoundPlayerDeath() {
+            playerDeaths++;
+        }
+
+        @Override
+        public void playSoundEnemyDeath() {
+            enemyDeaths++;
+        }
+
+        @Override
+        public void playSoundMeow() {
+            meows++;
+        }
+
+        @Override
+        public void playSoundClang() {
+            clangs++;
+        }
+
+        @Override
+        public String toString() {
+            return "bites " + bites + ", spell hits " + spellHits + ", enemy hits " + enemyHits + ", enemy deaths " + enemyDeaths
+                    + ", traps " + clangs + ", player deaths " + playerDeaths + ", meows " + meows;
+        }
+    }
+
+    /**
+     * Level images without images: sizes of the game resources, back scenery is not pre-rendered
+     */
+    public static class ImageSizes implements GameLevelLayout.LevelImages {
+
+        @Override
+        public int getImageWidth(int type) {
+            return IMAGE_WIDTHS[type];
+        }
+
+        @Override
+        public int getImageHeight(int type) {
+            return IMAGE_HEIGHTS[type];
+        }
+
+        @Override
+        public void addChunkScenery(int chunk, int count, int[] types, int[] positionsX, int[] positionsY) {
+        }
+
+        @Override
+        public void removeChunkScenery(int chunk) {
+        }
+    }
+
+    /**
+     * Create the world of the level with the frame and image sizes of the game resources
+     */
+    public static GameWorld createWorld(LevelSource level, AnimalCharacter.MovementControl movementControl, SoundPlayer sounds) {
+        return new GameWorld(
+                new GameView(WINDOW_WIDTH),
+                level,
+                new CharacterFrames(CHARACTER_FRAME_SIZE, CHARACTER_FRAME_SIZE, CHARACTER_ROW_MAX_FRAMES),
+                new CharacterFrames(CHARACTER_FRAME_SIZE, CHARACTER_FRAME_SIZE, CHARACTER_ROW_MAX_FRAMES),
+                new CharacterFrames(SLIME_FRAME_WIDTH, SLIME_FRAME_HEIGHT, SLIME_ROW_MAX_FRAMES),
+                new SpellFrames(SPELL_FRAME_SIZE, SPELL_FRAME_SIZE, SPELL_ANGLE_BUCKETS),
+                movementControl,
+                sounds,
+                new ImageSizes()
+        );
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_SEED;
+        double density = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_DENSITY;
+
+        SoundCounter sounds = new SoundCounter();
+        GameWorld world = createWorld(new ProceduralLevel(seed, ProceduralLevel.ENDLESS, density), new ScriptedControl(1), sounds);
+        System.out.println("Level seed " + seed + ", density " + density + ", ticks: " + ticks
+                + ", budget " + String.format("%.3f", 1000 / GameWorld.MAX_UPS) + " ms");
+
+        long reportTime = 0;
+        long maxTime = 0;
+        long totalTime = 0;
+        int tick = 0;
+        while (tick < ticks && !world.isGameOver() && !world.isGameWin()) {
+            playScript(world, tick);
+
+            long startTime = System.nanoTime();
+            world.update();
+            long time = System.nanoTime() - startTime;
+            reportTime += time;
+            totalTime += time;
+            maxTime = Math.max(maxTime, time);
+            tick++;
+
+            if (tick % REPORT_TICKS == 0) {
+                System.out.printf("Tick %d: %.3f ms/tick, %.3f ms max, %s%n", tick, reportTime / 1e6 / REPORT_TICKS, maxTime / 1e6, describe(world));
+                reportTime = 0;
+                maxTime = 0;
+            }
+        }
+
+        System.out.printf("Finished after %d ticks (%s): %.3f ms/tick%n", tick,
+                world.isGameOver() ? "game over" : world.isGameWin() ? "game win" : "running", totalTime / 1e6 / Math.max(1, tick));
+        System.out.println(describe(world));
+        System.out.println("Events: " + sounds);
+    }
+
+    /**
+     * Input of the scripted player before the update of the world: bites and jumps from time to time, heals when hurt
+     */
+    public static void playScript(GameWorld world, int tick) {
+        if (tick % BITE_TICKS == 0) {
+            world.bite();
+        }
+        if (tick % JUMP_TICKS == 0) {
+            world.jump();
+        }
+        Sprite player = world.getPlayer();
+        if (player.getHealthPoints() < HEAL_BELOW_HEALTH_POINTS && !player.isDead()) {
+            player.changeHealthPoint(Sprite.MAX_HEALTH_POINTS - player.getHealthPoints());
+        }
+    }
+
+    /**
+     * Short description of the state of the world: player, enemies, spells and loaded chunks of the level
+     */
+    private static String describe(GameWorld world) {
+        GameLevelLayout layout = world.getLevelLayout();
+        return "player x " + (int) world.getPlayer().getPositionOnLevelX() + " hp " + world.getPlayer().getHealthPoints()
+                + ", slimes " + world.getSlimes().getCount() + ", spells " + world.getSpells().getCount()
+                + ", chunks " + layout.getFirstLoadedChunk() + "-" + layout.getLastLoadedChunk();
+    }
+}
@@ -7,9 +7,9 @@ import android.media.SoundPool;
 import com.example.dogvillev2.R;
 
 /**
- * Plays short in game sounds, called as response to different game events in the Game class.
+ * Plays short in game sounds with the SoundPool, called as response to different game events of the GameWorld.
  */
-public class GameSounds {
+public class GameSounds implements SoundPlayer {
 
     private static final int MAX_STREAMS = 100;
     Context context;
@@ -54,6 +54,7 @@ public class GameSounds {
     }
 
     // ---------------------------------------- Methods to play in Game sound ----------------------------------//
+    @Override
     public void playSoundBite() {
         if (this.soundPoolLoaded) {
             float leftVolume = 0.9f;
@@ -62,6 +63,7 @@ public class GameSounds {
         }
     }
 
+    @Override
     public void playSoundHitSpell() {
         if (this.soundPoolLoaded) {
             float leftVolume = 1f;
@@ -70,6 +72,7 @@ public class GameSounds {
         }
     }
 
+    @Override
     public void playSoundHitEnemy() {
         if (this.soundPoolLoaded) {
             float leftVolume = 1f;
@@ -78,6 +81,7 @@ public class GameSounds {
         }
     }
 
+    @Override
     public void playSoundPlayerDeath() {
         if (this.soundPoolLoaded) {
             float leftVolume = 1f;
@@ -86,6 +90,7 @@ public class GameSounds {
         }
     }
 
+    @Override
     public void playSoundEnemyDeath() {
         if (this.soundPoolLoaded) {
             float leftVolume = 1f;
@@ -94,6 +99,7 @@ public class GameSounds {
         }
     }
 
+    @Override
     public void playSoundMeow() {
         if (this.soundPoolLoaded) {
             float leftVolume = 1f;
@@ -102,6 +108,7 @@ public class GameSounds {
         }
     }
 
+    @Override
     public void playSoundClang() {
         if (this.soundPoolLoaded) {
             float leftVolume = 1f;
@@ -0,0 +1,22 @@
+package com.example.dogvillev2.sounds;
+
+/**
+ * Plays short in game sounds as response to game events of the simulation (GameWorld, characters, traps).
+ * Implemented by GameSounds on the device, the headless simulation only counts the events.
+ */
+public interface SoundPlayer {
+
+    void playSoundBite();
+
+    void playSoundHitSpell();
+
+    void playSoundHitEnemy();
+
+    void playSoundPlayerDeath();
+
+    void playSoundEnemyDeath();
+
+    void playSoundMeow();
+
+    void playSoundClang();
+}
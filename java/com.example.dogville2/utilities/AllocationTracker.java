@@ -0,0 +1,54 @@
+package com.example.dogvillev2.utilities;
+
+import android.os.Debug;
+
+/**
+ * AllocationTracker is a debug helper that counts objects allocated by the game thread while drawing a frame.
+ * Drawing is expected to be allocation-free in steady state (allocations lead to GC pauses and visible hitches),
+ * so after the warm-up frames any allocation in a frame stops the game with an exception.
+ * Enabled with GameLoop.TRACK_FRAME_ALLOCATIONS, should be disabled in release builds.
+ */
+public class AllocationTracker {
+
+    // Frames at the start of the game are not checked (intro panel, loading of resources, first objects on screen)
+    private static final int WARM_UP_FRAMES = 300;
+    private int framesTracked = 0;
+
+    @SuppressWarnings("deprecation")
+    public AllocationTracker() {
+        Debug.startAllocCounting();
+    }
+
+    /**
+     * Reset allocation counters of the current thread, called before drawing a frame.
+     */
+    @SuppressWarnings("deprecation")
+    public void startFrame() {
+        Debug.resetThreadAllocCount();
+        Debug.resetThreadAllocSize();
+    }
+
+    /**
+     * Check allocations of the current thread since startFrame(), called after drawing a frame.
+     *
+     * @throws IllegalStateException if the frame allocated objects after the warm-up
+     */
+    @SuppressWarnings("deprecation")
+    public void endFrame() {
+        int allocationCount = Debug.getThreadAllocCount();
+        framesTracked++;
+
+        if (framesTracked > WARM_UP_FRAMES && allocationCount > 0) {
+            throw new IllegalStateException("Frame " + framesTracked + " allocated " + allocationCount
+                    + " objects (" + Debug.getThreadAllocSize() + " bytes)");
+        }
+    }
+
+    /**
+     * Stop counting allocations (called when the game loop is stopped).
+     */
+    @SuppressWarnings("deprecation")
+    public void stop() {
+        Debug.stopAllocCounting();
+    }
+}
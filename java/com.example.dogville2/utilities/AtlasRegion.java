@@ -0,0 +1,41 @@
+package com.example.dogvillev2.utilities;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+/**
+ * AtlasRegion is a single image packed into the texture atlas:
+ * the atlas page bitmap and the rectangle of the image on that page.
+ */
+public class AtlasRegion {
+
+    private final Bitmap bitmap;
+    private final Rect rect;
+
+    public AtlasRegion(Bitmap bitmap, Rect rect) {
+        this.bitmap = bitmap;
+        this.rect = rect;
+    }
+
+    /**
+     * Get atlas page bitmap that contains the image
+     */
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    /**
+     * Get rectangle of the image on the atlas page (source rectangle for drawing)
+     */
+    public Rect getRect() {
+        return rect;
+    }
+
+    public int getWidth() {
+        return rect.width();
+    }
+
+    public int getHeight() {
+        return rect.height();
+    }
+}
@@ -23,4 +23,15 @@ public class BitmapLoader {
     public Bitmap loadBitmap(int resource) {
         return BitmapFactory.decodeResource(gameResources, resource, bitmapFactoryOptions);
     }
+
+    /**
+     * Read only the size of the image resource (outWidth and outHeight of the options), pixels are not decoded
+     */
+    public BitmapFactory.Options loadBitmapBounds(int resource) {
+        BitmapFactory.Options boundsOptions = new BitmapFactory.Options();
+        boundsOptions.inScaled = false;
+        boundsOptions.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(gameResources, resource, boundsOptions);
+        return boundsOptions;
+    }
 }
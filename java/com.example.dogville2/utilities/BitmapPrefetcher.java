@@ -0,0 +1,142 @@
+package com.example.dogvillev2.utilities;
+
+import android.graphics.Bitmap;
+
+import com.example.dogvillev2.GameLoop;
+import com.example.dogvillev2.layout.GameDisplay;
+import com.example.dogvillev2.layout.LevelSource;
+
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * BitmapPrefetcher decodes images of the level chunks on a background thread before the chunks come
+ * into the game window, so the game thread does not wait for BitmapLoader when new objects are created.
+ * Chunks are predicted from the game window position and velocity: the chunks the window reaches within
+ * LOOKAHEAD_UPDATES game updates are prefetched.
+ * request() starts decoding and gives a future, getIfReady() never blocks: it gives the decoded image
+ * or null if the image is not decoded yet. Methods are called by the game loop thread only
+ * (shutdown() is called when the game loop is stopped, the background thread is started again by the next request).
+ */
+public class BitmapPrefetcher {
+
+    // Chunks that the game window reaches within this number of updates are prefetched
+    private static final int LOOKAHEAD_UPDATES = (int) (2 * GameLoop.MAX_UPS);
+    private static final int MAX_RESOURCES_PER_CHUNK = 32;
+
+    /**
+     * Lists images needed by a chunk of the level, implemented by LevelRenderer
+     */
+    public interface ChunkResources {
+        /**
+         * Write ids of drawable resources used by objects of the chunk into the array
+         *
+         * @return number of resources
+         */
+        int getChunkResources(int chunk, int[] resources);
+    }
+
+    private final BitmapLoader bitmapLoader;
+    private ExecutorService executor;
+    private final HashMap<Integer, Future<Bitmap>> requests = new HashMap<>();
+    private final int[] chunkResources = new int[MAX_RESOURCES_PER_CHUNK];
+    // Chunks [firstPrefetchedChunk, lastPrefetchedChunk) were prefetched by the last prediction
+    private int firstPrefetchedChunk = 0;
+    private int lastPrefetchedChunk = 0;
+
+    public BitmapPrefetcher(BitmapLoader bitmapLoader) {
+        this.bitmapLoader = bitmapLoader;
+    }
+
+    /**
+     * Create the background thread of decoding: one low priority thread, it should not take time from the game and render loops
+     */
+    private static ExecutorService newExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "BitmapPrefetcher");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Start decoding of the image on the background thread (if it was not requested before).
+     *
+     * @return future of the decoded image
+     */
+    public Future<Bitmap> request(int resource) {
+        Future<Bitmap> future = requests.get(resource);
+        if (future == null) {
+            if (executor == null) {
+                executor = newExecutor();
+            }
+            future = executor.submit(() -> bitmapLoader.loadBitmap(resource));
+            requests.put(resource, future);
+        }
+        return future;
+    }
+
+    /**
+     * Get decoded image without waiting: null if the image is not decoded yet (decoding is started if it was not requested).
+     */
+    public Bitmap getIfReady(int resource) {
+        Future<Bitmap> future = request(resource);
+        if (!future.isDone()) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            // Failed decoding is tried again with the next request
+            e.printStackTrace();
+            requests.remove(resource);
+            return null;
+        }
+    }
+
+    /**
+     * Prefetch images of the chunks that the game window will reach soon (only chunks that were not predicted
+     * by the previous call are checked). Called by the game loop each update.
+     *
+     * @param windowPositionX - position of the game window on the level
+     * @param levelVelocityX  - movement of the game window per update
+     */
+    public void predict(double windowPositionX, double levelVelocityX, LevelSource level, ChunkResources resources) {
+        double ahead = levelVelocityX * LOOKAHEAD_UPDATES;
+        int firstChunk = Math.max(0, level.getChunkAt(windowPositionX + Math.min(0, ahead)));
+        int lastChunk = Math.min(level.getChunkCount(),
+                level.getChunkAt(windowPositionX + GameDisplay.GAME_WIDTH_BUFF_CANVAS + Math.max(0, ahead)) + 1);
+
+        for (int chunk = firstChunk; chunk < lastChunk; chunk++) {
+            if (chunk >= firstPrefetchedChunk && chunk < lastPrefetchedChunk) {
+                continue; // Already prefetched
+            }
+            int count = resources.getChunkResources(chunk, chunkResources);
+            for (int i = 0; i < count; i++) {
+                request(chunkResources[i]);
+            }
+        }
+        firstPrefetchedChunk = firstChunk;
+        lastPrefetchedChunk = lastChunk;
+    }
+
+    /**
+     * Stop the background thread: decoding that has not finished is cancelled and requested again later,
+     * decoded images are kept
+     */
+    public void shutdown() {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        executor = null;
+        requests.values().removeIf(future -> !future.isDone());
+        // Chunks are predicted again when the game loop is started
+        firstPrefetchedChunk = 0;
+        lastPrefetchedChunk = 0;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.dogvillev2.utilities;
+
+/**
+ * FrameTimings keeps how long each phase of the recent frames took, to find spikes hidden by the average FPS.
+ * Times of the last RING_SIZE frames of each phase are kept in a ring buffer together with a histogram
+ * of the same frames (log-linear buckets with ~6% precision, like HDR histogram), percentiles are read from the histogram.
+ * Each phase is recorded by one thread: the game loop (input, update, drawing) or the render loop (present, frame).
+ * Recording does not create new objects, statistics are refreshed every STATS_INTERVAL frames of the phase.
+ */
+public class FrameTimings {
+
+    // Phases of a frame
+    public static final int PHASE_INPUT = 0; // Game controls update
+    public static final int PHASE_UPDATE = 1; // Game state update
+    public static final int PHASE_DRAW_BACK = 2; // Back scenery
+    public static final int PHASE_DRAW_CHARACTERS = 3; // Characters and spells
+    public static final int PHASE_DRAW_FRONT = 4; // Front scenery
+    public static final int PHASE_DRAW_HUD = 5; // Info panels and controls
+    public static final int PHASE_PRESENT = 6; // Putting the frame on the screen
+    public static final int PHASE_FRAME = 7; // Time between frames shown on the screen
+    public static final int PHASE_COUNT = 8;
+
+    // Statistics of a phase
+    public static final int STAT_P50 = 0;
+    public static final int STAT_P95 = 1;
+    public static final int STAT_P99 = 2;
+    public static final int STAT_WORST = 3;
+    private static final int STAT_COUNT = 4;
+
+    private static final int RING_SIZE = 512;
+    private static final int STATS_INTERVAL = 30;
+
+    // Histogram buckets: exact values below SUB_BUCKETS us, then SUB_BUCKETS buckets for each power of two
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_VALUE = 10_000_000; // 10 s, longer times are counted as 10 s
+    private static final int BUCKET_COUNT = getBucket(MAX_VALUE) + 1;
+
+    // Times of the phases (us)
+    private final int[][] ring = new int[PHASE_COUNT][RING_SIZE];
+    private final int[] ringPosition = new int[PHASE_COUNT];
+    private final int[] sampleCount = new int[PHASE_COUNT];
+    private final int[][] histogram = new int[PHASE_COUNT][BUCKET_COUNT];
+    // Time of the current frame added so far (ns)
+    private final long[] pendingTime = new long[PHASE_COUNT];
+    // Latest statistics (us), read by the performance panel
+    private final int[][] stats = new int[PHASE_COUNT][STAT_COUNT];
+
+    /**
+     * Add time to the phase of the current frame (a phase can be measured in several parts).
+     */
+    public void addTime(int phase, long nanos) {
+        pendingTime[phase] += nanos;
+    }
+
+    /**
+     * Finish the current frame for the phases from firstPhase to lastPhase: save their times and start a new frame.
+     * Called by the thread that records the phases once per frame.
+     */
+    public void endFrame(int firstPhase, int lastPhase) {
+        for (int phase = firstPhase; phase <= lastPhase; phase++) {
+            record(phase, pendingTime[phase]);
+            pendingTime[phase] = 0;
+        }
+    }
+
+    /**
+     * Get latest statistic of the phase in microseconds
+     *
+     * @param stat - STAT_P50, STAT_P95, STAT_P99 or STAT_WORST
+     */
+    public int getStat(int phase, int stat) {
+        return stats[phase][stat];
+    }
+
+    private void record(int phase, long nanos) {
+        int micros = (int) Math.min(nanos / 1000, MAX_VALUE);
+        int position = ringPosition[phase];
+
+        // Replace the oldest time in the ring buffer and in the histogram
+        if (sampleCount[phase] == RING_SIZE) {
+            histogram[phase][getBucket(ring[phase][position])]--;
+        } else {
+            sampleCount[phase]++;
+        }
+        ring[phase][position] = micros;
+        histogram[phase][getBucket(micros)]++;
+        ringPosition[phase] = (position + 1) % RING_SIZE;
+
+        if (ringPosition[phase] % STATS_INTERVAL == 0) {
+            updateStats(phase);
+        }
+    }
+
+    private void updateStats(int phase) {
+        int count = sampleCount[phase];
+        stats[phase][STAT_P50] = getPercentile(phase, count, 50);
+        stats[phase][STAT_P95] = getPercentile(phase, count, 95);
+        stats[phase][STAT_P99] = getPercentile(phase, count, 99);
+
+        // Worst time is exact (histogram bucket only gives the range)
+        int worst = 0;
+        for (int i = 0; i < count; i++) {
+            worst = Math.max(worst, ring[phase][i]);
+        }
+        stats[phase][STAT_WORST] = worst;
+    }
+
+    /**
+     * Get upper value of the histogram bucket that contains the percentile
+     */
+    private int getPercentile(int phase, int count, int percentile) {
+        int target = (count * percentile + 99) / 100;
+        int counted = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            counted += histogram[phase][bucket];
+            if (counted >= target) {
+                return getBucketUpperValue(bucket);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    private static int getBucket(int micros) {
+        if (micros < SUB_BUCKETS) {
+            return micros;
+        }
+        int shift = (31 - Integer.numberOfLeadingZeros(micros)) - SUB_BUCKET_BITS;
+        int subBucket = (micros >>> shift) - SUB_BUCKETS;
+        return SUB_BUCKETS + shift * SUB_BUCKETS + subBucket;
+    }
+
+    private static int getBucketUpperValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+        int subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return ((SUB_BUCKETS + subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.dogvillev2.utilities;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * TextureAtlas packs image resources into a few large bitmaps (atlas pages) on loading,
+ * so game objects are drawn from sub-rectangles of the same texture instead of from many separate bitmaps.
+ * Images are placed on the pages row by row ("shelves"), the tallest images first.
+ * Regions of the images are stored in a table by resource id.
+ */
+public class TextureAtlas {
+
+    // Size limits of a single atlas page (pages are cut to the used height)
+    private static final int PAGE_WIDTH = 1024;
+    private static final int MAX_PAGE_HEIGHT = 2048;
+    // Empty pixels around each image, so filtering does not mix neighbour images
+    private static final int PADDING = 1;
+
+    private final HashMap<Integer, AtlasRegion> regions = new HashMap<>();
+    private final HashMap<Integer, AtlasRegion> mirroredRegions = new HashMap<>();
+    private final List<Bitmap> pages = new ArrayList<>();
+
+    /**
+     * Load image resources and pack them into atlas pages (called by Game constructor).
+     *
+     * @param resources         ids of drawable resources to pack
+     * @param mirroredResources ids of resources that also need a mirrored copy (flipped around vertical axe),
+     *                          for example sprite sheets of characters that can face left
+     */
+    public TextureAtlas(BitmapLoader bitmapLoader, int[] resources, int[] mirroredResources) {
+
+        // Load all images
+        List<Entry> entries = new ArrayList<>();
+        for (int resource : resources) {
+            entries.add(new Entry(resource, bitmapLoader.loadBitmap(resource), false));
+        }
+        Matrix matrixFlipped = new Matrix();
+        matrixFlipped.postScale(-1, 1);
+        for (int resource : mirroredResources) {
+            Bitmap image = findImage(entries, resource);
+            boolean isLoadedOnlyForMirroring = image == null;
+            if (isLoadedOnlyForMirroring) {
+                image = bitmapLoader.loadBitmap(resource);
+            }
+            Bitmap mirroredImage = Bitmap.createBitmap(image, 0, 0, image.getWidth(), image.getHeight(), matrixFlipped, false);
+            entries.add(new Entry(resource, mirroredImage, true));
+            if (isLoadedOnlyForMirroring) {
+                image.recycle();
+            }
+        }
+
+        // Tallest images first, so rows of images have less empty space
+        entries.sort((entry1, entry2) -> entry2.image.getHeight() - entry1.image.getHeight());
+
+        // Place images on pages row by row
+        List<Integer> pageHeights = new ArrayList<>();
+        int page = 0;
+        int rowX = 0;
+        int rowY = 0;
+        int rowHeight = 0;
+        for (Entry entry : entries) {
+            int width = entry.image.getWidth() + PADDING * 2;
+            int height = entry.image.getHeight() + PADDING * 2;
+            if (width > PAGE_WIDTH || height > MAX_PAGE_HEIGHT) {
+                throw new IllegalArgumentException("Image " + entry.resource + " does not fit into atlas page");
+            }
+
+            // Start new row
+            if (rowX + width > PAGE_WIDTH) {
+                rowY += rowHeight;
+                rowX = 0;
+                rowHeight = 0;
+            }
+            // Start new page
+            if (rowY + height > MAX_PAGE_HEIGHT) {
+                pageHeights.add(rowY);
+                page++;
+                rowX = 0;
+                rowY = 0;
+                rowHeight = 0;
+            }
+
+            entry.page = page;
+            entry.x = rowX + PADDING;
+            entry.y = rowY + PADDING;
+            rowX += width;
+            rowHeight = Math.max(rowHeight, height);
+        }
+        pageHeights.add(rowY + rowHeight);
+
+        // Draw images on pages and fill the table of regions
+        List<Canvas> pageCanvases = new ArrayList<>();
+        for (int pageHeight : pageHeights) {
+            Bitmap pageBitmap = Bitmap.createBitmap(PAGE_WIDTH, Math.max(pageHeight, 1), Bitmap.Config.ARGB_8888);
+            pages.add(pageBitmap);
+            pageCanvases.add(new Canvas(pageBitmap));
+        }
+        for (Entry entry : entries) {
+            pageCanvases.get(entry.page).drawBitmap(entry.image, entry.x, entry.y, null);
+
+            Rect rect = new Rect(entry.x, entry.y, entry.x + entry.image.getWidth(), entry.y + entry.image.getHeight());
+            AtlasRegion region = new AtlasRegion(pages.get(entry.page), rect);
+            if (entry.mirrored) {
+                mirroredRegions.put(entry.resource, region);
+            } else {
+                regions.put(entry.resource, region);
+            }
+        }
+
+        // Separate images are no longer needed
+        for (Entry entry : entries) {
+            entry.image.recycle();
+        }
+    }
+
+    private static Bitmap findImage(List<Entry> entries, int resource) {
+        for (Entry entry : entries) {
+            if (entry.resource == resource && !entry.mirrored) {
+                return entry.image;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check if the image of the drawable resource was packed into the atlas
+     */
+    public boolean hasRegion(int resource) {
+        return regions.containsKey(resource);
+    }
+
+    /**
+     * Get region of the image packed from the drawable resource
+     *
+     * @throws IllegalArgumentException if the resource was not packed into the atlas
+     */
+    public AtlasRegion getRegion(int resource) {
+        AtlasRegion region = regions.get(resource);
+        if (region == null) {
+            throw new IllegalArgumentException("Resource " + resource + " is not packed into the texture atlas");
+        }
+        return region;
+    }
+
+    /**
+     * Get region of the mirrored copy of the image packed from the drawable resource
+     *
+     * @throws IllegalArgumentException if the mirrored copy was not packed into the atlas
+     */
+    public AtlasRegion getMirroredRegion(int resource) {
+        AtlasRegion region = mirroredRegions.get(resource);
+        if (region == null) {
+            throw new IllegalArgumentException("Mirrored resource " + resource + " is not packed into the texture atlas");
+        }
+        return region;
+    }
+
+    /**
+     * Get number of atlas pages (number of separate textures used for drawing)
+     */
+    public int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Single image to pack into the atlas and its place on the atlas page
+     */
+    private static class Entry {
+        private final int resource;
+        private final Bitmap image;
+        private final boolean mirrored;
+        private int page;
+        private int x;
+        private int y;
+
+        Entry(int resource, Bitmap image, boolean mirrored) {
+            this.resource = resource;
+            this.image = image;
+            this.mirrored = mirrored;
+        }
+    }
+}
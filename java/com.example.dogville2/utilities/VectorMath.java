@@ -0,0 +1,105 @@
+package com.example.dogvillev2.utilities;
+
+/**
+ * VectorMath has the 2d vector helpers of the game: distances, comparisons of distances and directions.
+ * Distances are compared squared (no square root), vectors are normalized with one square root and multiplications
+ * (callers write the results into their own fields, nothing is allocated), angles of directions are found
+ * with a table of arctangents instead of Math.atan2().
+ */
+public class VectorMath {
+
+    // Arctangents of ratios 0..1 (angles 0..45 degrees), the angle of any direction is reduced to this range
+    private static final int ATAN_TABLE_SIZE = 1024;
+    private static final float[] ATAN_TABLE = new float[ATAN_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= ATAN_TABLE_SIZE; i++) {
+            ATAN_TABLE[i] = (float) Math.atan((double) i / ATAN_TABLE_SIZE);
+        }
+    }
+
+    /**
+     * Get squared distance between points p1 and p2
+     */
+    public static double getDistanceSquared(double p1x, double p1y, double p2x, double p2y) {
+        double distanceX = p2x - p1x;
+        double distanceY = p2y - p1y;
+        return distanceX * distanceX + distanceY * distanceY;
+    }
+
+    /**
+     * Check if distance between points p1 and p2 is less than the given distance (without square root)
+     */
+    public static boolean isCloserThan(double p1x, double p1y, double p2x, double p2y, double distance) {
+        return getDistanceSquared(p1x, p1y, p2x, p2y) < distance * distance;
+    }
+
+    /**
+     * Get distance between points p1 and p2
+     */
+    public static double getDistance(double p1x, double p1y, double p2x, double p2y) {
+        return Math.sqrt(getDistanceSquared(p1x, p1y, p2x, p2y));
+    }
+
+    /**
+     * Get length of the vector
+     */
+    public static double getLength(double x, double y) {
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Get inverse length of the vector, the vector is normalized by multiplying its coordinates by it
+     * (0 for the zero vector, so the normalized zero vector stays zero)
+     */
+    public static double getInverseLength(double x, double y) {
+        double lengthSquared = x * x + y * y;
+        return lengthSquared > 0 ? 1 / Math.sqrt(lengthSquared) : 0;
+    }
+
+    /**
+     * Get angle of the direction in radians from -PI to PI (same as Math.atan2(y, x), with error below 0.000001)
+     */
+    public static double atan2(double y, double x) {
+        double absX = Math.abs(x);
+        double absY = Math.abs(y);
+        if (absX == 0 && absY == 0) {
+            return 0;
+        }
+
+        // Angle in the first octant (ratio 0..1), then mirrored into the quadrant of the direction
+        double angle;
+        if (absY <= absX) {
+            angle = getTableAtan(absY / absX);
+        } else {
+            angle = Math.PI / 2 - getTableAtan(absX / absY);
+        }
+        if (x < 0) {
+            angle = Math.PI - angle;
+        }
+        return y < 0 ? -angle : angle;
+    }
+
+    /**
+     * Get number of the nearest of the angle buckets (equal parts of the full turn, bucket 0 points along X axe)
+     * for the direction, for example to choose a pre-rotated frame of a sprite.
+     */
+    public static int getAngleBucket(double directionX, double directionY, int angleBuckets) {
+        double turns = atan2(directionY, directionX) / (2 * Math.PI);
+        int bucket = (int) Math.round(turns * angleBuckets) % angleBuckets;
+        return bucket < 0 ? bucket + angleBuckets : bucket;
+    }
+
+    /**
+     * Get arctangent of the ratio 0..1 from the table (linear interpolation between table values)
+     */
+    private static double getTableAtan(double ratio) {
+        double position = ratio * ATAN_TABLE_SIZE;
+        int index = (int) position;
+        if (index >= ATAN_TABLE_SIZE) {
+            return ATAN_TABLE[ATAN_TABLE_SIZE];
+        }
+        double fraction = position - index;
+        return ATAN_TABLE[index] + (ATAN_TABLE[index + 1] - ATAN_TABLE[index]) * fraction;
+    }
+}